@@ -251,18 +251,59 @@ public final class DynamoConstants {
 	 */
 	public static final String SP_ENABLE_VIEW_AUTHORIZATION = "ocs.enable.view.authorization";
 
+	/**
+	 * Name of the system property that indicates the number of entities after which
+	 * the persistence context is flushed and cleared during bulk operations
+	 */
+	public static final String SP_BATCH_SIZE = "ocs.batch.size";
+
+	/**
+	 * Name of the system property that indicates the JDBC fetch size that is used
+	 * when streaming query results
+	 */
+	public static final String SP_FETCH_SIZE = "ocs.fetch.size";
+
+	/**
+	 * Name of the system property that indicates the maximum number of values in a
+	 * single "in" list. Longer lists are split into multiple "in" lists (or
+	 * multiple queries)
+	 */
+	public static final String SP_MAX_IN_LIST_SIZE = "ocs.max.in.list.size";
+
 	/**
 	 * The minimum screen width (e.g. in pixels) that there must be for two columns
 	 * to be displayed in forms
 	 */
 	public static final String SP_MINIMUM_TWO_COLUMN_WIDTH = "ocs.minimum.two.column.width";
 
+	/**
+	 * Name of the system property that indicates whether to validate the entities
+	 * in a bulk save in parallel. Only the bean validation constraints of entities
+	 * that are fully loaded are checked in parallel, and only for services that do
+	 * not override the validate method
+	 */
+	public static final String SP_PARALLEL_VALIDATION = "ocs.parallel.validation";
+
+	/**
+	 * Name of the system property that indicates whether to construct the entity
+	 * models of all entities in parallel at application startup
+	 */
+	public static final String SP_PREWARM_ENTITY_MODELS = "ocs.prewarm.entity.models";
+
 	/**
 	 * Name of the system property that indicates the maximum number of items to
 	 * display in an entity lookup field in multiple select mode
 	 */
 	public static final String SP_LOOKUP_FIELD_MAX_ITEMS = "ocs.default.lookupfield.max.items";
 
+	/**
+	 * Name of the system property that indicates the maximum number of item lists
+	 * that are kept in the application wide lookup cache. Defaults to 0, which
+	 * disables the cache. Only enable it for read-only reference data, since the
+	 * cached entities are shared between all sessions
+	 */
+	public static final String SP_LOOKUP_CACHE_MAX_ENTRIES = "ocs.lookup.cache.max.entries";
+
 	/**
 	 * Class name for the service locator (override to create a different service
 	 * locator, e.g. to use a separate service locator for integration tests)
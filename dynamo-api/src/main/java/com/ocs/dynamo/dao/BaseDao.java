@@ -14,6 +14,8 @@
 package com.ocs.dynamo.dao;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.ocs.dynamo.domain.AbstractEntity;
 import com.ocs.dynamo.filter.Filter;
@@ -57,6 +59,25 @@ public interface BaseDao<ID, T extends AbstractEntity<ID>> {
 	 */
 	void delete(T entity);
 
+	/**
+	 * Deletes the provided entities, flushing and clearing the persistence context
+	 * after every batch so that the statements can be sent to the database using
+	 * JDBC batching. Use deleteByFilter to delete using a bulk delete statement
+	 * 
+	 * @param list the list of entities to delete
+	 */
+	void deleteAll(List<T> list);
+
+	/**
+	 * Deletes all entities that match the provided filter using a single bulk
+	 * delete statement. The entities are not loaded, so cascades and entity
+	 * listeners are not applied
+	 * 
+	 * @param filter the filter
+	 * @return the number of deleted entities
+	 */
+	long deleteByFilter(Filter filter);
+
 	/**
 	 * Fetches entities that match the provided filter
 	 * 
@@ -99,6 +120,21 @@ public interface BaseDao<ID, T extends AbstractEntity<ID>> {
 	 */
 	List<?> findSelect(Filter filter, String[] selectProperties, SortOrders orders);
 
+	/**
+	 * Selects and sorts properties (NOT ENTITIES) that match the provided filter,
+	 * supporting aggregated functions (see {@link QueryFunction}). The properties
+	 * without a function are used for grouping, the "having" filter is applied to
+	 * the groups and both the filter and the sort orders may refer to aggregated
+	 * values
+	 * 
+	 * @param filter           the filter
+	 * @param selectProperties the properties to use in the selection
+	 * @param having           the filter to apply to the groups
+	 * @param orders           the sort info
+	 * @return
+	 */
+	List<?> findSelect(Filter filter, String[] selectProperties, Filter having, SortOrders orders);
+
 	/**
 	 * Selects and sorts properties (NOT ENTITIES) that match the provided filter
 	 * 
@@ -131,6 +167,35 @@ public interface BaseDao<ID, T extends AbstractEntity<ID>> {
 	 */
 	List<T> fetchByIds(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins);
 
+	/**
+	 * Fetches the entities identified by the provided IDs in read-only mode. No
+	 * snapshots are kept for the entities, so they are not dirty checked when the
+	 * persistence context is flushed
+	 * 
+	 * @param ids        the IDs of the entities to fetch
+	 * @param sortOrders the sort orders to apply
+	 * @param joins      the desired relations to fetch
+	 * @return
+	 */
+	List<T> fetchByIdsReadOnly(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins);
+
+	/**
+	 * Detaches the provided entities from the persistence context
+	 * 
+	 * @param list the entities to detach
+	 */
+	void detach(List<T> list);
+
+	/**
+	 * Removes the entities of this type from the second-level cache, along with
+	 * the cached query results for this type. Does nothing unless the entity is
+	 * marked as cacheable (see {@link com.ocs.dynamo.domain.model.annotation.Model}).
+	 * Hibernate keeps the caches up to date for writes that go through the entity
+	 * manager, so this is only needed after changes that bypass it (e.g. native
+	 * SQL or other applications)
+	 */
+	void evictCache();
+
 	/**
 	 * Fetches an entity based on a unique property
 	 * 
@@ -242,6 +307,58 @@ public interface BaseDao<ID, T extends AbstractEntity<ID>> {
 	 */
 	T save(T entity);
 
+	/**
+	 * Saves the provided list of entities, flushing and clearing the persistence
+	 * context after every batch so that the statements can be sent to the
+	 * database using JDBC batching. Note that the entities of all but the last
+	 * batch are detached afterwards
+	 * 
+	 * @param list the list of entities
+	 * @return
+	 */
+	List<T> saveAll(List<T> list);
+
+	/**
+	 * Returns the entities that match the provided filter as a stream that is
+	 * backed by a forward-only cursor, so that large result sets can be processed
+	 * using constant memory. The stream is read-only: the entities are detached
+	 * before they are handed out (so changes to them are not saved) and nothing is
+	 * flushed. Entities that were already managed before stay managed. Must be
+	 * consumed within the transaction in which it was created and closed afterwards
+	 * (e.g. using try-with-resources)
+	 * 
+	 * @param filter     the filter
+	 * @param sortOrders the sort orders
+	 * @param joins      the fetch joins to include. The default fetch joins are not
+	 *                   used, and fetch joins on collections are not supported
+	 * @return
+	 */
+	Stream<T> stream(Filter filter, SortOrders sortOrders, FetchJoinInformation... joins);
+
+	/**
+	 * Returns the requested properties of the entities that match the provided
+	 * filter as a stream that is backed by a forward-only cursor. Must be consumed within
+	 * the transaction in which it was created and
+	 * closed afterwards (e.g. using try-with-resources)
+	 * 
+	 * @param filter           the filter
+	 * @param selectProperties the properties to select
+	 * @param sortOrders       the sort orders
+	 * @return
+	 */
+	Stream<Object[]> streamSelect(Filter filter, String[] selectProperties, SortOrders sortOrders);
+
+	/**
+	 * Updates all entities that match the provided filter using a single bulk
+	 * update statement. The entities are not loaded, so entity listeners are not
+	 * applied and the version is not incremented
+	 * 
+	 * @param filter      the filter
+	 * @param assignments the new values, keyed by property name
+	 * @return the number of updated entities
+	 */
+	long update(Filter filter, Map<String, Object> assignments);
+
 	/**
 	 * Returns all entities that match the provided filter and apply a distinct on
 	 * the given column
@@ -0,0 +1,119 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.dao;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An append-only list of entity IDs. For Integer and Long IDs the values are
+ * stored in a primitive array, which takes up a fraction of the memory that is
+ * needed for a list of boxed values. The IDs are only boxed when they are
+ * retrieved. Lookups by value (indexOf, contains) use a hash index that is
+ * built on first use
+ *
+ * @author bas.rutten
+ *
+ * @param <ID> the type of the IDs
+ */
+public abstract class IdList<ID> extends AbstractList<ID> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = -1442813082311700580L;
+
+    /**
+     * The default initial capacity
+     */
+    protected static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Lists that are smaller than this are searched sequentially
+     */
+    protected static final int INDEX_THRESHOLD = 32;
+
+    /**
+     * Creates an empty list that is suitable for storing IDs of the specified type
+     *
+     * @param idType the type of the IDs
+     * @return
+     */
+    public static <ID> IdList<ID> forType(Class<?> idType) {
+        return forType(idType, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list that is suitable for storing IDs of the specified type
+     *
+     * @param idType   the type of the IDs
+     * @param capacity the initial capacity
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <ID> IdList<ID> forType(Class<?> idType, int capacity) {
+        if (Integer.class.equals(idType) || int.class.equals(idType)) {
+            return (IdList<ID>) new IntIdList(capacity);
+        } else if (Long.class.equals(idType) || long.class.equals(idType)) {
+            return (IdList<ID>) new LongIdList(capacity);
+        }
+        return new ObjectIdList<>(capacity);
+    }
+
+    @Override
+    public void add(int index, ID id) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("IDs can only be appended");
+        }
+        append(id);
+        modCount++;
+    }
+
+    /**
+     * Appends an ID to the end of the list
+     *
+     * @param id the ID to add
+     */
+    protected abstract void append(ID id);
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the smallest power of two that can hold the hash index for the
+     * specified number of elements
+     *
+     * @param size the number of elements
+     * @return
+     */
+    protected static int indexCapacity(int size) {
+        return Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of a hash code
+     *
+     * @param h the hash code
+     * @return
+     */
+    protected static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Releases any unused capacity
+     */
+    public abstract void trimToSize();
+}
@@ -0,0 +1,147 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.dao;
+
+import java.util.Arrays;
+
+/**
+ * An ID list that stores Integer IDs in an int array
+ *
+ * @author bas.rutten
+ *
+ */
+public final class IntIdList extends IdList<Integer> {
+
+    private static final long serialVersionUID = 4786253318931766455L;
+
+    private int[] values;
+
+    private int size;
+
+    /**
+     * Hash index containing (position + 1) per slot, 0 for an empty slot
+     */
+    private transient int[] slots;
+
+    /**
+     * Constructor
+     *
+     * @param capacity the initial capacity
+     */
+    public IntIdList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends a primitive value
+     *
+     * @param value the value to add
+     */
+    public void addInt(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+        slots = null;
+    }
+
+    @Override
+    protected void append(Integer id) {
+        addInt(id);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Returns the primitive value at the specified position
+     *
+     * @param index the position
+     * @return
+     */
+    public int getInt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Integer)) {
+            return -1;
+        }
+        int value = (Integer) o;
+        if (size < INDEX_THRESHOLD) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int[] index = slots;
+        if (index == null) {
+            index = buildIndex();
+            slots = index;
+        }
+        int mask = index.length - 1;
+        for (int s = mix(value) & mask; index[s] != 0; s = (s + 1) & mask) {
+            if (values[index[s] - 1] == value) {
+                return index[s] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int[] buildIndex() {
+        int[] index = new int[indexCapacity(size)];
+        int mask = index.length - 1;
+        for (int i = 0; i < size; i++) {
+            int s = mix(values[i]) & mask;
+            while (index[s] != 0 && values[index[s] - 1] != values[i]) {
+                s = (s + 1) & mask;
+            }
+            // only store the first occurrence
+            if (index[s] == 0) {
+                index[s] = i + 1;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the values as a primitive array
+     *
+     * @return
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public void trimToSize() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, Math.max(size, 1));
+        }
+    }
+}
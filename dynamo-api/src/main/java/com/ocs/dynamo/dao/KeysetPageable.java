@@ -0,0 +1,118 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.dao;
+
+import java.util.Arrays;
+
+import com.ocs.dynamo.constants.DynamoConstants;
+
+/**
+ * Paging information for keyset (seek) based paging. Rather than skipping a
+ * number of rows, the next page is selected by comparing the sort keys to the
+ * values of the last row of the previous page. The ID is always added as the
+ * final sort order so that the sort keys are unique. Rows that have an empty
+ * (NULL) sort key are never selected, so the sort properties must not be
+ * nullable
+ *
+ * @author bas.rutten
+ *
+ */
+public class KeysetPageable implements Pageable {
+
+    private final int pageNumber;
+
+    private final int pageSize;
+
+    private final SortOrders sortOrders;
+
+    /**
+     * The values of the sort properties (including the ID) of the last row of the
+     * previous page. <code>null</code> when retrieving the first page
+     */
+    private final Object[] lastKeyValues;
+
+    /**
+     * Constructor
+     *
+     * @param pageNumber    the page number (used as a fall back when no key values
+     *                      are available)
+     * @param pageSize      the page size
+     * @param sortOrders    the sort orders
+     * @param lastKeyValues the sort key values of the last row of the previous
+     *                      page, in the same order as the sort orders
+     */
+    public KeysetPageable(int pageNumber, int pageSize, SortOrders sortOrders, Object... lastKeyValues) {
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.sortOrders = withIdSortOrder(sortOrders);
+        this.lastKeyValues = lastKeyValues == null || lastKeyValues.length == 0 ? null : lastKeyValues;
+        if (this.lastKeyValues != null && this.lastKeyValues.length != this.sortOrders.getNrOfSortOrders()) {
+            throw new IllegalArgumentException("Number of key values does not match the number of sort orders");
+        }
+    }
+
+    /**
+     * Returns a copy of the provided sort orders, with the ID appended as the final
+     * sort order if it is not already present
+     *
+     * @param sortOrders the sort orders
+     * @return
+     */
+    public static SortOrders withIdSortOrder(SortOrders sortOrders) {
+        SortOrders result = new SortOrders(sortOrders == null ? null : sortOrders.toArray());
+        if (result.getOrderFor(DynamoConstants.ID) == null) {
+            SortOrder[] orders = result.toArray();
+            // use the direction of the last sort order so a row value comparison is
+            // possible in the most common case
+            result.addSortOrder(new SortOrder(DynamoConstants.ID,
+                    orders.length == 0 ? SortOrder.Direction.ASC : orders[orders.length - 1].getDirection()));
+        }
+        return result;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getOffset() {
+        return pageNumber * pageSize;
+    }
+
+    @Override
+    public SortOrders getSortOrders() {
+        return sortOrders;
+    }
+
+    public Object[] getLastKeyValues() {
+        return lastKeyValues == null ? null : Arrays.copyOf(lastKeyValues, lastKeyValues.length);
+    }
+
+    /**
+     *
+     * @return whether the page can be retrieved using a seek predicate. This is not
+     *         the case for the first page or when one of the key values is
+     *         <code>null</code>, in which case regular offset paging is used
+     */
+    public boolean isSeek() {
+        return lastKeyValues != null && Arrays.stream(lastKeyValues).allMatch(v -> v != null);
+    }
+
+}
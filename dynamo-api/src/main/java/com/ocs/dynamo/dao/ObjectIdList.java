@@ -0,0 +1,82 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An ID list for IDs that do not have a primitive representation (e.g. String
+ * or composite IDs)
+ *
+ * @author bas.rutten
+ *
+ * @param <ID> the type of the IDs
+ */
+public final class ObjectIdList<ID> extends IdList<ID> {
+
+    private static final long serialVersionUID = 2931485012754371107L;
+
+    private final ArrayList<ID> values;
+
+    private transient Map<ID, Integer> index;
+
+    /**
+     * Constructor
+     *
+     * @param capacity the initial capacity
+     */
+    public ObjectIdList(int capacity) {
+        this.values = new ArrayList<>(capacity);
+    }
+
+    @Override
+    protected void append(ID id) {
+        values.add(id);
+        index = null;
+    }
+
+    @Override
+    public ID get(int i) {
+        return values.get(i);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int indexOf(Object o) {
+        if (values.size() < INDEX_THRESHOLD) {
+            return values.indexOf(o);
+        }
+        Map<ID, Integer> temp = index;
+        if (temp == null) {
+            temp = new HashMap<>(indexCapacity(values.size()));
+            for (int i = 0; i < values.size(); i++) {
+                temp.putIfAbsent(values.get(i), i);
+            }
+            index = temp;
+        }
+        return temp.getOrDefault((ID) o, -1);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public void trimToSize() {
+        values.trimToSize();
+    }
+}
@@ -38,7 +38,17 @@ public enum QueryFunction {
 	/**
 	 * Aggregate function for count on a property
 	 */
-	AF_COUNT;
+	AF_COUNT,
+
+	/**
+	 * Aggregate function for the maximum value of a property
+	 */
+	AF_MAX,
+
+	/**
+	 * Aggregate function for the minimum value of a property
+	 */
+	AF_MIN;
 
 	public String with(String property) {
 		return property + "." + name();
@@ -13,6 +13,7 @@
  */
 package com.ocs.dynamo.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.ocs.dynamo.domain.AbstractEntity;
@@ -43,4 +44,27 @@ public interface TreeDao<ID, T extends AbstractEntity<ID>> extends BaseDao<ID, T
      */
     List<T> findByParent(T parent);
 
+    /**
+     * Find all children of the given parents using a single query (or a query
+     * per chunk when the number of parents is very large)
+     * 
+     * @param parents
+     *            The parents
+     * @return All children of the given parents
+     */
+    List<T> findByParents(Collection<T> parents);
+
+    /**
+     * Loads the subtree below the given node up to the given depth. A single
+     * query is issued per level, and the children of every node above that depth
+     * are initialized so that the subtree can be traversed in memory
+     * 
+     * @param root
+     *            The root of the subtree
+     * @param depth
+     *            The number of levels below the root to load
+     * @return The (managed) root, or <code>null</code> if it no longer exists
+     */
+    T findSubtree(T root, int depth);
+
 }
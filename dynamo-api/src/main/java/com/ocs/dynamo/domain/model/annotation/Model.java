@@ -58,4 +58,15 @@ public @interface Model {
      *         separate)
      */
     String sortOrder() default "";
+
+    /**
+     * 
+     * @return whether the results of the queries that look up entities of this
+     *         type by a unique property are stored in the (Hibernate) query cache,
+     *         using a cache region per entity. Only has an effect when the query
+     *         cache is enabled. To also cache the entities themselves (e.g. for
+     *         lookups by ID), the entity must be stored in the second-level cache
+     *         as well (e.g. by annotating it with <code>@Cacheable</code>)
+     */
+    boolean cacheable() default false;
 }
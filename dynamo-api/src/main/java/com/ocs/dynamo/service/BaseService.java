@@ -14,8 +14,11 @@
 package com.ocs.dynamo.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.Pageable;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.AbstractEntity;
@@ -66,6 +69,24 @@ public interface BaseService<ID, T extends AbstractEntity<ID>> {
 	 */
 	void delete(T entity);
 
+	/**
+	 * Deletes the provided entities, flushing and clearing the persistence context
+	 * after every batch so that the statements can be sent to the database using
+	 * JDBC batching. Use deleteByFilter to delete using a bulk delete statement
+	 * 
+	 * @param list the list of entities to delete
+	 */
+	void deleteAll(List<T> list);
+
+	/**
+	 * Deletes all entities that match the provided filter using a single bulk
+	 * delete statement
+	 * 
+	 * @param filter the filter
+	 * @return the number of deleted entities
+	 */
+	long deleteByFilter(Filter filter);
+
 	/**
 	 * Fetches entities that match the provided filter
 	 * 
@@ -98,6 +119,18 @@ public interface BaseService<ID, T extends AbstractEntity<ID>> {
 	 */
 	List<T> fetch(Filter filter, int pageNumber, int pageSize, SortOrders sortOrders, FetchJoinInformation... joins);
 
+	/**
+	 * Fetches a page of entities that match the provided filter. Use a
+	 * {@link com.ocs.dynamo.dao.KeysetPageable} to retrieve the page using keyset
+	 * (seek) paging rather than an offset
+	 * 
+	 * @param filter   the filter
+	 * @param pageable the paging information
+	 * @param joins    the desired relations to fetch
+	 * @return
+	 */
+	List<T> fetch(Filter filter, Pageable pageable, FetchJoinInformation... joins);
+
 	/**
 	 * Fetches a list of entities that match the provided filter
 	 * 
@@ -136,6 +169,24 @@ public interface BaseService<ID, T extends AbstractEntity<ID>> {
 	 */
 	List<T> fetchByIds(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins);
 
+	/**
+	 * Fetches the entities identified by the provided IDs in read-only mode, so
+	 * that they are not dirty checked
+	 * 
+	 * @param ids        the IDs of the entities to fetch
+	 * @param sortOrders the sort orders to apply
+	 * @param joins      the desired relations to fetch
+	 * @return
+	 */
+	List<T> fetchByIdsReadOnly(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins);
+
+	/**
+	 * Detaches the provided entities from the persistence context
+	 * 
+	 * @param list the entities to detach
+	 */
+	void detach(List<T> list);
+
 	/**
 	 * Fetches an entity based on a unique property
 	 * 
@@ -263,6 +314,21 @@ public interface BaseService<ID, T extends AbstractEntity<ID>> {
 	 */
 	List<?> findSelect(Filter filter, String[] selectProperties, SortOrders sortOrders);
 
+	/**
+	 * Finds properties (NOT ENTITIES) that match the provided filter, supporting
+	 * aggregated functions (see {@link com.ocs.dynamo.dao.QueryFunction}). The
+	 * properties without a function are used for grouping, the "having" filter is
+	 * applied to the groups and both the filter and the sort orders may refer to
+	 * aggregated values
+	 * 
+	 * @param filter           the filter
+	 * @param selectProperties the properties to use in the selection
+	 * @param having           the filter to apply to the groups
+	 * @param sortOrders       the sort order
+	 * @return
+	 */
+	List<?> findSelect(Filter filter, String[] selectProperties, Filter having, SortOrders sortOrders);
+
 	/**
 	 * Returns the class of the entity managed by this DAO
 	 * 
@@ -286,6 +352,53 @@ public interface BaseService<ID, T extends AbstractEntity<ID>> {
 	 */
 	T save(T entity);
 
+	/**
+	 * Validates and saves the provided list of entities in batches. Note that the
+	 * entities of all but the last batch are detached afterwards
+	 * 
+	 * @param list the list of entities
+	 * @return
+	 */
+	List<T> saveAll(List<T> list);
+
+	/**
+	 * Returns the entities that match the provided filter as a stream that is
+	 * backed by a forward-only cursor, so that large result sets can be processed
+	 * using constant memory. The stream is read-only: the entities are detached
+	 * before they are handed out (so changes to them are not saved) and nothing is
+	 * flushed. Must be called within an existing transaction and closed afterwards
+	 * (e.g. using try-with-resources)
+	 * 
+	 * @param filter     the filter
+	 * @param sortOrders the sort orders
+	 * @param joins      the fetch joins to include (not on collections)
+	 * @return
+	 */
+	Stream<T> stream(Filter filter, SortOrders sortOrders, FetchJoinInformation... joins);
+
+	/**
+	 * Returns the requested properties of the entities that match the provided
+	 * filter as a stream that is backed by a forward-only cursor. Must be called within an
+	 * existing transaction and
+	 * closed afterwards (e.g. using try-with-resources)
+	 * 
+	 * @param filter           the filter
+	 * @param selectProperties the properties to select
+	 * @param sortOrders       the sort orders
+	 * @return
+	 */
+	Stream<Object[]> streamSelect(Filter filter, String[] selectProperties, SortOrders sortOrders);
+
+	/**
+	 * Updates all entities that match the provided filter using a single bulk
+	 * update statement, and evicts the entities from the second-level cache
+	 * 
+	 * @param filter      the filter
+	 * @param assignments the new values, keyed by property name
+	 * @return the number of updated entities
+	 */
+	long update(Filter filter, Map<String, Object> assignments);
+
 	/**
 	 * 
 	 * @param t
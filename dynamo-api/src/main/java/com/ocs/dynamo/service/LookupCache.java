@@ -0,0 +1,70 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.filter.Filter;
+
+/**
+ * Application wide cache of the item lists that are displayed in lookup
+ * components (combo boxes, token selects etc.). Entries are keyed by entity
+ * class, filter and sort orders and are invalidated whenever an entity of the
+ * class is saved, updated or deleted through a DAO.
+ *
+ * The cache is meant for read-only reference data only: the cached entity
+ * instances are shared between all sessions and must never be modified, and
+ * the cache is local to a single node, so changes made by other nodes or
+ * outside of the application are not noticed
+ *
+ * @author bas.rutten
+ *
+ */
+public interface LookupCache {
+
+	/**
+	 * Returns the entities that match the filter, loading them using the provided
+	 * loader if they are not cached yet
+	 *
+	 * @param entityClass the entity class
+	 * @param filter      the filter (<code>null</code> when there is none)
+	 * @param orders      the sort orders
+	 * @param loader      the function used to load the entities
+	 * @return a read-only snapshot of the entities
+	 */
+	<T extends AbstractEntity<?>> List<T> find(Class<T> entityClass, Filter filter, SortOrder[] orders,
+			Supplier<List<T>> loader);
+
+	/**
+	 * Removes all entries for the provided entity class (and its super and sub
+	 * classes)
+	 *
+	 * @param entityClass the entity class
+	 */
+	void invalidate(Class<?> entityClass);
+
+	/**
+	 * Removes all entries
+	 */
+	void clear();
+
+	/**
+	 *
+	 * @return the number of cached entries
+	 */
+	int size();
+}
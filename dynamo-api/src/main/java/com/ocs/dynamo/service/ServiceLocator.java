@@ -62,6 +62,13 @@ public interface ServiceLocator {
 	 */
 	EntityModelFactory getEntityModelFactory();
 
+	/**
+	 * Retrieves the lookup cache from the context
+	 * 
+	 * @return the lookup cache, or <code>null</code> if none is available
+	 */
+	LookupCache getLookupCache();
+
 	/**
 	 * Returns a service that is used to manage a certain type of entity
 	 * 
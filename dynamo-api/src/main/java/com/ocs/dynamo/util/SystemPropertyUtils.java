@@ -31,12 +31,20 @@ import com.ocs.dynamo.constants.DynamoConstants;
  */
 public final class SystemPropertyUtils {
 
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
     private static final int DEFAULT_DECIMAL_PRECISION = 2;
 
     private static final String DEFAULT_FALSE_REPRESENTATION = "false";
 
+    private static final int DEFAULT_FETCH_SIZE = 100;
+
+    private static final int DEFAULT_LOOKUP_CACHE_MAX_ENTRIES = 0;
+
     private static final int DEFAULT_LOOKUP_FIELD_MAX_ITEMS = 3;
 
+    private static final int DEFAULT_MAX_IN_LIST_SIZE = 1000;
+
     private static final int DEFAULT_MESSAGE_DISPLAY_TIME = 2000;
 
     private static final String DEFAULT_TRUE_REPRESENTATION = "true";
@@ -70,6 +78,14 @@ public final class SystemPropertyUtils {
         return getBooleanProperty(DynamoConstants.SP_ALLOW_LIST_EXPORT, null);
     }
 
+    /**
+     * @return the number of entities after which the persistence context is flushed
+     *         and cleared during bulk operations
+     */
+    public static int getBatchSize() {
+        return getIntProperty(DynamoConstants.SP_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
     /**
      * Looks up the value of a boolean property by scanning the system properties
      * first and falling back to application.properties
@@ -285,6 +301,21 @@ public final class SystemPropertyUtils {
         return sys;
     }
 
+    /**
+     * @return the JDBC fetch size that is used when streaming query results
+     */
+    public static int getFetchSize() {
+        return getIntProperty(DynamoConstants.SP_FETCH_SIZE, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * @return the maximum number of item lists to keep in the lookup cache. The
+     *         cache is disabled (0) by default
+     */
+    public static int getLookupCacheMaxEntries() {
+        return getIntProperty(DynamoConstants.SP_LOOKUP_CACHE_MAX_ENTRIES, DEFAULT_LOOKUP_CACHE_MAX_ENTRIES);
+    }
+
     /**
      * @return the maximum number of selected items to display in a lookup field
      *         description
@@ -293,6 +324,13 @@ public final class SystemPropertyUtils {
         return getIntProperty(DynamoConstants.SP_LOOKUP_FIELD_MAX_ITEMS, DEFAULT_LOOKUP_FIELD_MAX_ITEMS);
     }
 
+    /**
+     * @return the maximum number of values in a single "in" list in a query
+     */
+    public static int getMaxInListSize() {
+        return getIntProperty(DynamoConstants.SP_MAX_IN_LIST_SIZE, DEFAULT_MAX_IN_LIST_SIZE);
+    }
+
     /**
      * 
      * @return the minimum width that must be available before two results columns
@@ -346,6 +384,14 @@ public final class SystemPropertyUtils {
         return getBooleanProperty(DynamoConstants.SP_USE_DEFAULT_PROMPT_VALUE, true);
     }
 
+    /**
+     * @return whether to validate the entities in a bulk save in parallel. See
+     *         {@link DynamoConstants#SP_PARALLEL_VALIDATION}
+     */
+    public static boolean useParallelValidation() {
+        return getBooleanProperty(DynamoConstants.SP_PARALLEL_VALIDATION, false);
+    }
+
     /**
      * @return whether to include thousands grouping separators in edit mode
      */
@@ -0,0 +1,71 @@
+package com.ocs.dynamo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class IdListTest {
+
+    @Test
+    public void testForType() {
+        assertTrue(IdList.forType(Integer.class) instanceof IntIdList);
+        assertTrue(IdList.forType(long.class) instanceof LongIdList);
+        assertTrue(IdList.forType(String.class) instanceof ObjectIdList);
+    }
+
+    @Test
+    public void testIntIdList() {
+        IdList<Integer> list = IdList.forType(Integer.class, 2);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i * 3);
+            expected.add(i * 3);
+        }
+        list.add(6);
+        expected.add(6);
+        list.trimToSize();
+
+        assertEquals(expected, list);
+        assertEquals(101, list.size());
+        assertEquals(Integer.valueOf(9), list.get(3));
+
+        // lookups use the index and return the first occurrence
+        assertEquals(2, list.indexOf(6));
+        assertEquals(99, list.indexOf(297));
+        assertEquals(-1, list.indexOf(4));
+        assertEquals(-1, list.indexOf(6L));
+        assertTrue(list.contains(297));
+        assertFalse(list.contains(298));
+
+        assertThrows(UnsupportedOperationException.class, () -> list.add(0, 1));
+    }
+
+    @Test
+    public void testLongIdList() {
+        IdList<Long> list = IdList.forType(Long.class);
+        for (long i = 0; i < 50; i++) {
+            list.add(-i);
+        }
+        assertEquals(50, list.size());
+        assertEquals(Long.valueOf(-4L), list.get(4));
+        assertEquals(40, list.indexOf(-40L));
+        assertEquals(-1, list.indexOf(40L));
+        assertEquals(List.of(-1L, -2L), list.subList(1, 3));
+    }
+
+    @Test
+    public void testObjectIdList() {
+        IdList<String> list = IdList.forType(String.class);
+        for (int i = 0; i < 50; i++) {
+            list.add("id" + i);
+        }
+        assertEquals(49, list.indexOf("id49"));
+        assertEquals(-1, list.indexOf("id50"));
+    }
+}
@@ -17,9 +17,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import com.ocs.dynamo.dao.BaseDao;
+import com.ocs.dynamo.dao.Pageable;
 import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.envers.domain.PropertyChange;
 import com.ocs.dynamo.envers.domain.RevisionKey;
 import com.ocs.dynamo.envers.domain.VersionedEntity;
+import com.ocs.dynamo.filter.Filter;
 
 /**
  * 
@@ -46,6 +49,35 @@ public interface VersionedEntityDao<ID, T extends AbstractEntity<ID>, U extends
 	 */
 	List<U> findRevisions(ID id);
 
+	/**
+	 * Returns a page of revisions for an entity, ordered by revision number unless
+	 * the pageable specifies otherwise. When the entity is audited using modified
+	 * flags, the names of the changed properties are set on every revision
+	 * 
+	 * @param id
+	 *            the ID of the original entity
+	 * @param pageable
+	 *            the page info
+	 * @return
+	 */
+	List<U> findRevisions(ID id, Pageable pageable);
+
+	/**
+	 * Returns the properties of an entity that differ between two revisions. When
+	 * the entity is audited using modified flags, only the properties that were
+	 * flagged as modified in between are compared. Since revisions never change,
+	 * the results are cached
+	 * 
+	 * @param id
+	 *            the ID of the original entity
+	 * @param fromRevision
+	 *            the older revision number
+	 * @param toRevision
+	 *            the newer revision number
+	 * @return
+	 */
+	List<PropertyChange> findChanges(ID id, int fromRevision, int toRevision);
+
 	/**
 	 * Finds the revision number corresponding to a certain date
 	 * 
@@ -54,4 +86,32 @@ public interface VersionedEntityDao<ID, T extends AbstractEntity<ID>, U extends
 	 * @return
 	 */
 	Number findRevisionNumber(LocalDateTime ldt);
+
+	/**
+	 * Returns the number of entities that matched the provided filter at a certain
+	 * point in time
+	 * 
+	 * @param filter
+	 *            the filter
+	 * @param ldt
+	 *            the point in time
+	 * @return
+	 */
+	long countAsOf(Filter filter, LocalDateTime ldt);
+
+	/**
+	 * Returns the state of the entities that matched the provided filter at a
+	 * certain point in time, using a single query on the audit tables. The filter
+	 * may refer to nested (to-one) properties, and "Contains" filters are supported
+	 * for bidirectional one-to-many relations
+	 * 
+	 * @param filter
+	 *            the filter
+	 * @param ldt
+	 *            the point in time
+	 * @param pageable
+	 *            the page info (optional)
+	 * @return
+	 */
+	List<T> fetchAsOf(Filter filter, LocalDateTime ldt, Pageable pageable);
 }
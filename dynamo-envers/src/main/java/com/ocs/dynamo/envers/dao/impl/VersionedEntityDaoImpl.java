@@ -18,23 +18,41 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.NoResultException;
+import javax.persistence.OneToMany;
+import javax.persistence.criteria.JoinType;
 
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.hibernate.envers.AuditReader;
 import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.Audited;
+import org.hibernate.envers.exception.RevisionDoesNotExistException;
 import org.hibernate.envers.query.AuditEntity;
 import org.hibernate.envers.query.AuditQuery;
+import org.hibernate.envers.query.AuditQueryCreator;
 import org.hibernate.envers.query.criteria.AuditConjunction;
 import org.hibernate.envers.query.criteria.AuditCriterion;
 import org.hibernate.envers.query.criteria.AuditDisjunction;
 import org.hibernate.envers.query.criteria.AuditProperty;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.Lists;
 import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.Pageable;
@@ -44,6 +62,7 @@ import com.ocs.dynamo.dao.impl.BaseDaoImpl;
 import com.ocs.dynamo.domain.AbstractEntity;
 import com.ocs.dynamo.envers.dao.VersionedEntityDao;
 import com.ocs.dynamo.envers.domain.DynamoRevisionEntity;
+import com.ocs.dynamo.envers.domain.PropertyChange;
 import com.ocs.dynamo.envers.domain.RevisionKey;
 import com.ocs.dynamo.envers.domain.RevisionType;
 import com.ocs.dynamo.envers.domain.VersionedEntity;
@@ -57,6 +76,8 @@ import com.ocs.dynamo.filter.In;
 import com.ocs.dynamo.filter.Like;
 import com.ocs.dynamo.filter.Not;
 import com.ocs.dynamo.filter.Or;
+import com.ocs.dynamo.util.SystemPropertyUtils;
+import com.ocs.dynamo.utils.ClassUtils;
 import com.ocs.dynamo.utils.DateUtils;
 import com.querydsl.core.types.dsl.EntityPathBase;
 
@@ -76,16 +97,39 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
 
     private static final Map<String, String> REVISION_PROPS = new ConcurrentHashMap<>();
 
+    /**
+     * The maximum number of revision diffs to cache. When exceeded, the least
+     * recently used diff is removed
+     */
+    private static final int MAX_DIFF_CACHE_SIZE = 500;
+
+    /**
+     * Cache of the property changes between two revisions, keyed by entity ID and
+     * revision numbers
+     */
+    private final Map<String, List<PropertyChange>> diffCache = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 2210846455407566613L;
+
+                @Override
+                protected boolean removeEldestEntry(Entry<String, List<PropertyChange>> eldest) {
+                    return size() > MAX_DIFF_CACHE_SIZE;
+                }
+            });
+
+    private Boolean modifiedFlags;
+
     /**
      * Adds any additional filters to an AuditQuery
      * 
-     * @param aq     the AuditQuery to which to add the filters
+     * @param ctx    the context of the AuditQuery to which to add the filters
      * @param filter the filter to translate
      */
-    private void addAdditionalFilters(AuditQuery aq, Filter filter) {
-        AuditCriterion ac = createAuditCriterion(filter);
+    private void addAdditionalFilters(QueryContext ctx, Filter filter) {
+        AuditCriterion ac = createAuditCriterion(ctx, filter);
         if (ac != null) {
-            aq.add(ac);
+            ctx.getQuery().add(ac);
         }
     }
 
@@ -108,48 +152,71 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
     }
 
     /**
-     * Overwrite count method to query the revision tables
+     * Adds the sort orders to an audit query
+     * 
+     * @param ctx        the context of the audit query
+     * @param sortOrders the sort orders
+     */
+    private void addSortOrders(QueryContext ctx, SortOrder... sortOrders) {
+        if (sortOrders != null) {
+            for (SortOrder so : sortOrders) {
+                AuditProperty<?> ap = createAuditProperty(ctx, so.getProperty());
+                if (so.isAscending()) {
+                    ctx.getQuery().addOrder(ap.asc());
+                } else {
+                    ctx.getQuery().addOrder(ap.desc());
+                }
+            }
+        }
+    }
+
+    /**
+     * Overwrite count method to query the revision tables. The revisions are
+     * counted in the database rather than retrieved
      */
     @Override
     @Transactional
     public long count(Filter filter, boolean distinct) {
         // filter on ID (this should always be there)
         AuditQuery aq = getAuditReader().createQuery().forRevisionsOfEntity(getBaseEntityClass(), false, true);
+        aq.addProjection(AuditEntity.revisionNumber().count());
         addIdFilter(aq, filter);
-        addAdditionalFilters(aq, filter);
-        return aq.getResultList().size();
+        addAdditionalFilters(new QueryContext(aq, null), filter);
+        Number count = (Number) aq.getSingleResult();
+        return count == null ? 0L : count.longValue();
     }
 
     /**
      * Translates a filter to an AuditCriterion
      * 
-     * @param filter
+     * @param ctx    the context of the query
+     * @param filter the filter to translate
      * @return
      */
-    private AuditCriterion createAuditCriterion(Filter filter) {
+    private AuditCriterion createAuditCriterion(QueryContext ctx, Filter filter) {
         if (filter instanceof Compare.Equal) {
             Compare.Equal eq = (Compare.Equal) filter;
-            return createAuditProperty(eq.getPropertyId()).eq(eq.getValue());
+            return createAuditProperty(ctx, eq.getPropertyId()).eq(eq.getValue());
         } else if (filter instanceof Like) {
             Like like = (Like) filter;
-            return createAuditProperty(like.getPropertyId()).like(like.getValue());
+            return createAuditProperty(ctx, like.getPropertyId()).like(like.getValue());
         } else if (filter instanceof Compare.Greater) {
             Compare.Greater gt = (Compare.Greater) filter;
-            return createAuditProperty(gt.getPropertyId()).gt(gt.getValue());
+            return createAuditProperty(ctx, gt.getPropertyId()).gt(gt.getValue());
         } else if (filter instanceof Compare.GreaterOrEqual) {
             Compare.GreaterOrEqual ge = (Compare.GreaterOrEqual) filter;
-            return createAuditProperty(ge.getPropertyId()).ge(ge.getValue());
+            return createAuditProperty(ctx, ge.getPropertyId()).ge(ge.getValue());
         } else if (filter instanceof Compare.Less) {
             Compare.Less lt = (Compare.Less) filter;
-            return createAuditProperty(lt.getPropertyId()).lt(lt.getValue());
+            return createAuditProperty(ctx, lt.getPropertyId()).lt(lt.getValue());
         } else if (filter instanceof Compare.LessOrEqual) {
             Compare.LessOrEqual le = (Compare.LessOrEqual) filter;
-            return createAuditProperty(le.getPropertyId()).le(le.getValue());
+            return createAuditProperty(ctx, le.getPropertyId()).le(le.getValue());
         } else if (filter instanceof And) {
             And and = (And) filter;
             AuditConjunction ac = AuditEntity.conjunction();
             for (Filter f : and.getFilters()) {
-                AuditCriterion ct = createAuditCriterion(f);
+                AuditCriterion ct = createAuditCriterion(ctx, f);
                 if (ct != null) {
                     ac.add(ct);
                 }
@@ -159,7 +226,7 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
             Or or = (Or) filter;
             AuditDisjunction ad = AuditEntity.disjunction();
             for (Filter f : or.getFilters()) {
-                AuditCriterion ct = createAuditCriterion(f);
+                AuditCriterion ct = createAuditCriterion(ctx, f);
                 if (ct != null) {
                     ad.add(ct);
                 }
@@ -167,40 +234,95 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
             return ad;
         } else if (filter instanceof Not) {
             Not not = (Not) filter;
-            AuditCriterion ct = createAuditCriterion(not.getFilter());
+            AuditCriterion ct = createAuditCriterion(ctx, not.getFilter());
             if (ct != null) {
                 return AuditEntity.not(ct);
             }
         } else if (filter instanceof In) {
             In in = (In) filter;
-            return AuditEntity.property(in.getPropertyId()).in(in.getValues());
+            return createAuditProperty(ctx, in.getPropertyId()).in(in.getValues());
         } else if (filter instanceof Contains) {
             Contains c = (Contains) filter;
-            throw new OCSRuntimeException("Contains filter is not supported for property " + c.getPropertyId());
+            if (!ctx.isAsOf()) {
+                throw new OCSRuntimeException("Contains filter is not supported for property " + c.getPropertyId());
+            }
+            return createContainsCriterion(ctx, c);
         }
         return null;
     }
 
     /**
-     * Translates a property name to an AuditProperty
+     * Translates a "Contains" filter to an AuditCriterion for an as-of query.
+     * Envers cannot query the contents of an audited collection directly, so this
+     * is only supported for bidirectional one-to-many relations: the collection
+     * contains the value when the value referred to the entity at the time of the
+     * revision
+     * 
+     * @param ctx      the context of the query
+     * @param contains the filter
+     * @return
+     */
+    private AuditCriterion createContainsCriterion(QueryContext ctx, Contains contains) {
+        OneToMany oneToMany = ClassUtils.getAnnotation(getBaseEntityClass(), contains.getPropertyId(), OneToMany.class);
+        if (oneToMany == null || StringUtils.isEmpty(oneToMany.mappedBy())
+                || !(contains.getValue() instanceof AbstractEntity)) {
+            throw new OCSRuntimeException("Contains filter is only supported for bidirectional one-to-many relations, property "
+                    + contains.getPropertyId());
+        }
+
+        AbstractEntity<?> value = (AbstractEntity<?>) contains.getValue();
+        List<?> values = getAuditReader().createQuery().forEntitiesAtRevision(Hibernate.getClass(value), ctx.getRevision())
+                .add(AuditEntity.id().eq(value.getId())).getResultList();
+        Object owner = values.isEmpty() ? null : ClassUtils.getFieldValue(values.get(0), oneToMany.mappedBy());
+        if (owner == null) {
+            return AuditEntity.id().isNull();
+        }
+        return AuditEntity.id().eq(((AbstractEntity<?>) owner).getId());
+    }
+
+    /**
+     * Translates a property name to an AuditProperty. For a nested property, the
+     * (to-one) relations on the path are traversed using joins
      * 
+     * @param ctx  the context of the query
      * @param prop the name of the property
      * @return
      */
     @SuppressWarnings("unchecked")
-    private <X> AuditProperty<X> createAuditProperty(String prop) {
-        if ("revisionType".equals(prop)) {
+    private <X> AuditProperty<X> createAuditProperty(QueryContext ctx, String prop) {
+        if (!ctx.isAsOf() && "revisionType".equals(prop)) {
             return (AuditProperty<X>) AuditEntity.revisionType();
-        } else if (REVISION_PROPS.containsKey(prop)) {
+        } else if (!ctx.isAsOf() && REVISION_PROPS.containsKey(prop)) {
             prop = REVISION_PROPS.get(prop);
             return (AuditProperty<X>) AuditEntity.revisionProperty(prop);
         } else {
             int index = prop.indexOf(ENTITY_STRING);
-            if (index >= 0) {
+            if (!ctx.isAsOf() && index >= 0) {
                 prop = prop.substring(index + ENTITY_STRING.length());
             }
-            return (AuditProperty<X>) AuditEntity.property(prop);
+
+            int dot = prop.lastIndexOf('.');
+            if (dot < 0) {
+                return (AuditProperty<X>) AuditEntity.property(prop);
+            }
+            String alias = ctx.getAlias(prop.substring(0, dot));
+            return (AuditProperty<X>) AuditEntity.property(alias, prop.substring(dot + 1));
+        }
+    }
+
+    /**
+     * Creates an audit query for the revisions of the base entity
+     * 
+     * @param includeChanges whether to include the names of the changed properties
+     *                       (only possible when modified flags are used)
+     * @return
+     */
+    private AuditQuery createRevisionsQuery(boolean includeChanges) {
+        AuditQueryCreator creator = getAuditReader().createQuery();
+        if (includeChanges && isModifiedFlagsEnabled()) {
+            return creator.forRevisionsOfEntityWithChanges(getBaseEntityClass(), true);
         }
+        return creator.forRevisionsOfEntity(getBaseEntityClass(), false, true);
     }
 
     /**
@@ -214,6 +336,21 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         // overwrite in subclasses
     }
 
+    @Override
+    @Transactional
+    public long countAsOf(Filter filter, LocalDateTime ldt) {
+        Number revision = findRevisionNumberAsOf(ldt);
+        if (revision == null) {
+            return 0L;
+        }
+
+        AuditQuery aq = getAuditReader().createQuery().forEntitiesAtRevision(getBaseEntityClass(), revision);
+        aq.addProjection(AuditEntity.id().count());
+        addAdditionalFilters(new QueryContext(aq, revision), filter);
+        Number count = (Number) aq.getSingleResult();
+        return count == null ? 0L : count.longValue();
+    }
+
     @Override
     @Transactional
     public List<U> fetch(Filter filter, FetchJoinInformation... joins) {
@@ -226,22 +363,15 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
     public List<U> fetch(Filter filter, Pageable pageable, FetchJoinInformation... joins) {
 
         AuditQuery aq = getAuditReader().createQuery().forRevisionsOfEntity(getBaseEntityClass(), false, true);
+        QueryContext ctx = new QueryContext(aq, null);
         addIdFilter(aq, filter);
-        addAdditionalFilters(aq, filter);
+        addAdditionalFilters(ctx, filter);
 
         if (pageable != null) {
             aq.setFirstResult(pageable.getOffset());
             aq.setMaxResults(pageable.getPageSize());
             if (pageable.getSortOrders() != null) {
-                for (SortOrder so : pageable.getSortOrders().toArray()) {
-                    String prop = so.getProperty();
-                    AuditProperty<?> ap = createAuditProperty(prop);
-                    if (so.isAscending()) {
-                        aq.addOrder(ap.asc());
-                    } else {
-                        aq.addOrder(ap.desc());
-                    }
-                }
+                addSortOrders(ctx, pageable.getSortOrders().toArray());
             }
         }
 
@@ -257,6 +387,28 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         return resultList;
     }
 
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<T> fetchAsOf(Filter filter, LocalDateTime ldt, Pageable pageable) {
+        Number revision = findRevisionNumberAsOf(ldt);
+        if (revision == null) {
+            return new ArrayList<>();
+        }
+
+        AuditQuery aq = getAuditReader().createQuery().forEntitiesAtRevision(getBaseEntityClass(), revision);
+        QueryContext ctx = new QueryContext(aq, revision);
+        addAdditionalFilters(ctx, filter);
+        if (pageable != null) {
+            aq.setFirstResult(pageable.getOffset());
+            aq.setMaxResults(pageable.getPageSize());
+            if (pageable.getSortOrders() != null) {
+                addSortOrders(ctx, pageable.getSortOrders().toArray());
+            }
+        }
+        return aq.getResultList();
+    }
+
     @Override
     @Transactional
     public U fetchById(RevisionKey<ID> id, FetchJoinInformation... joins) {
@@ -272,16 +424,137 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         }
     }
 
+    /**
+     * Fetches the revisions identified by the provided revision keys. Every key is
+     * translated to a combination of the entity ID and the revision number. When
+     * the number of keys exceeds the maximum "in" list size, the keys are split up
+     * over multiple queries and the results are merged according to the sort
+     * orders
+     */
     @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
     public List<U> fetchByIds(List<RevisionKey<ID>> ids, SortOrders sortOrders, FetchJoinInformation... joins) {
-        // only paging access is supported
-        throw new UnsupportedOperationException();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int max = SystemPropertyUtils.getMaxInListSize();
+        List<List<RevisionKey<ID>>> chunks = max > 0 && ids.size() > max
+                ? Lists.partition(new ArrayList<>(new LinkedHashSet<>(ids)), max)
+                : Collections.singletonList(ids);
+
+        List<U> resultList = new ArrayList<>();
+        for (List<RevisionKey<ID>> chunk : chunks) {
+            AuditQuery aq = getAuditReader().createQuery().forRevisionsOfEntity(getBaseEntityClass(), false, true);
+            AuditDisjunction keys = AuditEntity.disjunction();
+            for (RevisionKey<ID> key : chunk) {
+                keys.add(AuditEntity.conjunction().add(AuditEntity.id().eq(key.getId()))
+                        .add(AuditEntity.revisionNumber().eq(key.getRevision())));
+            }
+            aq.add(keys);
+            if (sortOrders != null) {
+                addSortOrders(new QueryContext(aq, null), sortOrders.toArray());
+            }
+
+            List<Object[]> revs = aq.getResultList();
+            for (Object[] rev : revs) {
+                resultList.add(map(rev));
+            }
+        }
+
+        if (chunks.size() > 1 && sortOrders != null && sortOrders.getNrOfSortOrders() > 0) {
+            resultList.sort(createComparator(sortOrders));
+        }
+        return resultList;
     }
 
     @Override
     public List<RevisionKey<ID>> findIds(Filter filter, SortOrder... sortOrders) {
-        // only paging access is supported
-        throw new UnsupportedOperationException();
+        return findIds(filter, null, sortOrders);
+    }
+
+    /**
+     * Returns the keys of the revisions that match the provided filter. Only the
+     * entity ID and the revision number are selected, so the snapshots are not
+     * retrieved
+     */
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<RevisionKey<ID>> findIds(Filter filter, Integer maxResults, SortOrder... sortOrders) {
+        AuditQuery aq = getAuditReader().createQuery().forRevisionsOfEntity(getBaseEntityClass(), false, true);
+        aq.addProjection(AuditEntity.id());
+        aq.addProjection(AuditEntity.revisionNumber());
+        QueryContext ctx = new QueryContext(aq, null);
+        addIdFilter(aq, filter);
+        addAdditionalFilters(ctx, filter);
+        addSortOrders(ctx, sortOrders);
+        if (maxResults != null) {
+            aq.setMaxResults(maxResults);
+        }
+
+        List<Object[]> rows = aq.getResultList();
+        return rows.stream().map(row -> new RevisionKey<>((ID) row[0], ((Number) row[1]).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public List<PropertyChange> findChanges(ID id, int fromRevision, int toRevision) {
+        String key = id + "_" + fromRevision + "_" + toRevision;
+        List<PropertyChange> changes = diffCache.get(key);
+        if (changes == null) {
+            U from = fetchById(new RevisionKey<>(id, fromRevision));
+            U to = fetchById(new RevisionKey<>(id, toRevision));
+            if (from == null || to == null) {
+                // do not cache, the revision might not exist yet
+                return new ArrayList<>();
+            }
+            changes = Collections.unmodifiableList(determineChanges(id, from, to));
+            diffCache.put(key, changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Compares two revisions of an entity. A revision without a snapshot of the
+     * entity (e.g. a delete) is regarded as having no values
+     * 
+     * @param id   the ID of the entity
+     * @param from the older revision
+     * @param to   the newer revision
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private List<PropertyChange> determineChanges(ID id, U from, U to) {
+        Collection<String> properties;
+        if (isModifiedFlagsEnabled()) {
+            // only compare the properties that were flagged as modified in between
+            properties = new TreeSet<>();
+            AuditQuery aq = createRevisionsQuery(true);
+            aq.add(AuditEntity.id().eq(id));
+            aq.add(AuditEntity.revisionNumber().gt(Math.min(from.getRevision(), to.getRevision())));
+            aq.add(AuditEntity.revisionNumber().le(Math.max(from.getRevision(), to.getRevision())));
+            List<Object[]> revs = aq.getResultList();
+            for (Object[] rev : revs) {
+                properties.addAll((Set<String>) rev[3]);
+            }
+        } else {
+            properties = getEntityManager().getMetamodel().entity(getBaseEntityClass()).getSingularAttributes().stream()
+                    .filter(a -> !a.isId() && !a.isVersion()).map(a -> a.getName()).sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<PropertyChange> changes = new ArrayList<>();
+        for (String property : properties) {
+            Object oldValue = from.getEntity() == null ? null : ClassUtils.getFieldValue(from.getEntity(), property);
+            Object newValue = to.getEntity() == null ? null : ClassUtils.getFieldValue(to.getEntity(), property);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.add(new PropertyChange(property, oldValue, newValue));
+            }
+        }
+        return changes;
     }
 
     @Override
@@ -289,6 +562,22 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         return getAuditReader().getRevisionNumberForDate(DateUtils.toLegacyDate(ldt));
     }
 
+    /**
+     * Finds the revision number corresponding to a certain date for use in an
+     * as-of query
+     * 
+     * @param ldt the date
+     * @return the revision number, or <code>null</code> if there are no revisions
+     *         before the date
+     */
+    private Number findRevisionNumberAsOf(LocalDateTime ldt) {
+        try {
+            return findRevisionNumber(ldt);
+        } catch (RevisionDoesNotExistException ex) {
+            return null;
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     @Transactional
@@ -303,6 +592,24 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         return resultList;
     }
 
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<U> findRevisions(ID id, Pageable pageable) {
+        AuditQuery aq = createRevisionsQuery(true);
+        aq.add(AuditEntity.id().eq(id));
+        aq.setFirstResult(pageable.getOffset());
+        aq.setMaxResults(pageable.getPageSize());
+        if (pageable.getSortOrders() != null && pageable.getSortOrders().getNrOfSortOrders() > 0) {
+            addSortOrders(new QueryContext(aq, null), pageable.getSortOrders().toArray());
+        } else {
+            aq.addOrder(AuditEntity.revisionNumber().asc());
+        }
+
+        List<Object[]> revs = aq.getResultList();
+        return revs.stream().map(this::map).collect(Collectors.toList());
+    }
+
     private AuditReader getAuditReader() {
         return AuditReaderFactory.get(getEntityManager());
     }
@@ -314,6 +621,21 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
      */
     public abstract Class<T> getBaseEntityClass();
 
+    /**
+     * Indicates whether the base entity is audited using modified flags (i.e.
+     * annotated with <code>@Audited(withModifiedFlag = true)</code>). Override
+     * this when the modified flags are enabled in a different way
+     * 
+     * @return
+     */
+    protected boolean isModifiedFlagsEnabled() {
+        if (modifiedFlags == null) {
+            Audited audited = getBaseEntityClass().getAnnotation(Audited.class);
+            modifiedFlags = audited != null && audited.withModifiedFlag();
+        }
+        return modifiedFlags;
+    }
+
     /**
      * Returns the Query DSL root. This is not supported for versioned entities
      */
@@ -334,7 +656,8 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
     /**
      * Maps the data structure returned by Envers to a VersionedEntity. This
      * structure contains of the snapshot data (position 0), the revision data
-     * (position 1) and the modification type (position 2)
+     * (position 1), the modification type (position 2) and optionally the names of
+     * the changed properties (position 3)
      * 
      * @param rev the data structure to map
      * @return
@@ -353,9 +676,73 @@ public abstract class VersionedEntityDaoImpl<ID, T extends AbstractEntity<ID>, U
         u.setRevisionTimeStamp(ZonedDateTime.ofInstant(i, ZoneId.systemDefault()));
         u.setUser(revisionData.getUsername());
         u.setRevisionType(RevisionType.fromInternal((org.hibernate.envers.RevisionType) rev[2]));
+        if (rev.length > 3) {
+            u.setChangedProperties((Set<String>) rev[3]);
+        }
         if (u.getEntity() != null) {
             doMap(u);
         }
         return u;
     }
+
+    /**
+     * The state that is needed while translating filters and sort orders for an
+     * audit query
+     * 
+     * @author bas.rutten
+     *
+     */
+    private static final class QueryContext {
+
+        private final AuditQuery query;
+
+        /**
+         * The revision of an as-of query, <code>null</code> for a query on the
+         * revisions of an entity
+         */
+        private final Number revision;
+
+        /**
+         * The traversed relations, keyed by property path
+         */
+        private final Map<String, AuditQuery> associations = new HashMap<>();
+
+        QueryContext(AuditQuery query, Number revision) {
+            this.query = query;
+            this.revision = revision;
+        }
+
+        public AuditQuery getQuery() {
+            return query;
+        }
+
+        public Number getRevision() {
+            return revision;
+        }
+
+        public boolean isAsOf() {
+            return revision != null;
+        }
+
+        /**
+         * Returns the alias for a (nested) relation, traversing the relations on the
+         * path when this has not been done before
+         * 
+         * @param path the path of the relation
+         * @return
+         */
+        public String getAlias(String path) {
+            String alias = path.replace('.', '_');
+            if (!associations.containsKey(path)) {
+                int dot = path.lastIndexOf('.');
+                AuditQuery parent = query;
+                if (dot >= 0) {
+                    getAlias(path.substring(0, dot));
+                    parent = associations.get(path.substring(0, dot));
+                }
+                associations.put(path, parent.traverseRelation(path.substring(dot + 1), JoinType.LEFT, alias));
+            }
+            return alias;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.envers.domain;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The change of a single property of an entity between two revisions
+ *
+ * @author bas.rutten
+ *
+ */
+public class PropertyChange implements Serializable {
+
+	private static final long serialVersionUID = 3400920318651866305L;
+
+	private final String property;
+
+	private final Object oldValue;
+
+	private final Object newValue;
+
+	/**
+	 * Constructor
+	 *
+	 * @param property the name of the property
+	 * @param oldValue the value of the property in the older revision
+	 * @param newValue the value of the property in the newer revision
+	 */
+	public PropertyChange(String property, Object oldValue, Object newValue) {
+		this.property = property;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	public String getProperty() {
+		return property;
+	}
+
+	public Object getOldValue() {
+		return oldValue;
+	}
+
+	public Object getNewValue() {
+		return newValue;
+	}
+
+	@Override
+	public String toString() {
+		return ReflectionToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+	}
+}
@@ -14,11 +14,13 @@
 package com.ocs.dynamo.envers.domain;
 
 import java.time.ZonedDateTime;
+import java.util.Set;
 
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.domain.model.VisibilityType;
 import com.ocs.dynamo.domain.model.annotation.Attribute;
 
 /**
@@ -64,6 +66,13 @@ public abstract class VersionedEntity<ID, T extends AbstractEntity<ID>> extends
 	@Attribute(sortable = true)
 	private RevisionType revisionType;
 
+	/**
+	 * The names of the properties that were changed in this revision. Only
+	 * available when the entity is audited using modified flags
+	 */
+	@Attribute(visible = VisibilityType.HIDE)
+	private Set<String> changedProperties;
+
 	/**
 	 * Constructor
 	 * 
@@ -130,4 +139,12 @@ public abstract class VersionedEntity<ID, T extends AbstractEntity<ID>> extends
 		this.revisionType = revisionType;
 	}
 
+	public Set<String> getChangedProperties() {
+		return changedProperties;
+	}
+
+	public void setChangedProperties(Set<String> changedProperties) {
+		this.changedProperties = changedProperties;
+	}
+
 }
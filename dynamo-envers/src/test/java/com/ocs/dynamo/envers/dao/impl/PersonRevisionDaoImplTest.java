@@ -3,11 +3,19 @@ package com.ocs.dynamo.envers.dao.impl;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.TransactionStatus;
 
@@ -18,15 +26,21 @@ import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrder.Direction;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.envers.dao.PersonDao;
+import com.ocs.dynamo.envers.domain.DynamoRevisionEntity;
 import com.ocs.dynamo.envers.domain.Person;
 import com.ocs.dynamo.envers.domain.PersonRevision;
+import com.ocs.dynamo.envers.domain.PropertyChange;
 import com.ocs.dynamo.envers.domain.RevisionKey;
 import com.ocs.dynamo.envers.domain.RevisionType;
 import com.ocs.dynamo.filter.And;
 import com.ocs.dynamo.filter.Compare;
+import com.ocs.dynamo.filter.Contains;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.filter.Like;
 import com.ocs.dynamo.filter.Not;
 import com.ocs.dynamo.filter.Or;
 
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class PersonRevisionDaoImplTest extends BackendIntegrationTest {
 
     @Autowired
@@ -37,7 +51,9 @@ public class PersonRevisionDaoImplTest extends BackendIntegrationTest {
 
     private Person person;
 
+    // the revision numbers are checked, so this must run before any other revisions are created
     @Test
+    @Order(1)
     public void testCreateUpdateDelete() {
         TransactionStatus status = startTransaction();
 
@@ -75,6 +91,16 @@ public class PersonRevisionDaoImplTest extends BackendIntegrationTest {
         assertEquals("Jeroen", list.get(1).getEntity().getName());
         assertEquals(RevisionType.MOD, list.get(1).getRevisionType());
 
+        // only the name was changed
+        List<PropertyChange> changes = personRevisionDao.findChanges(person.getId(), 2, 3);
+        assertEquals(1, changes.size());
+        assertEquals("name", changes.get(0).getProperty());
+        assertEquals("Bas", changes.get(0).getOldValue());
+        assertEquals("Jeroen", changes.get(0).getNewValue());
+
+        // the changes are cached
+        assertSame(changes, personRevisionDao.findChanges(person.getId(), 2, 3));
+
         status = startTransaction();
 
         personDao.delete(person);
@@ -108,6 +134,28 @@ public class PersonRevisionDaoImplTest extends BackendIntegrationTest {
         list = personRevisionDao.findRevisions(person.getId());
         assertEquals(3, list.size());
 
+        // retrieve the revisions a page at a time, along with the changed properties
+        list = personRevisionDao.findRevisions(person.getId(), new PageableImpl(0, 2));
+        assertEquals(2, list.size());
+        assertEquals(2, list.get(0).getRevision());
+        assertTrue(list.get(1).getChangedProperties().contains("name"));
+
+        list = personRevisionDao.findRevisions(person.getId(), new PageableImpl(1, 2));
+        assertEquals(1, list.size());
+        assertEquals(4, list.get(0).getRevision());
+
+        // find the revision keys and fetch the revisions based on them
+        List<RevisionKey<Integer>> keys = personRevisionDao.findIds(new Compare.Equal("id", person.getId()),
+                new SortOrder("revision", Direction.DESC));
+        assertEquals(3, keys.size());
+        assertEquals(new RevisionKey<>(person.getId(), 4), keys.get(0));
+
+        list = personRevisionDao.fetchByIds(keys.subList(0, 2), new SortOrders(new SortOrder("revision", Direction.DESC)));
+        assertEquals(2, list.size());
+        assertEquals(4, list.get(0).getRevision());
+        assertEquals(3, list.get(1).getRevision());
+        assertEquals("Jeroen", list.get(1).getEntity().getName());
+
         // fetch non existing
         key = new RevisionKey<>(person.getId(), 5);
         pr = personRevisionDao.fetchById(key);
@@ -123,6 +171,107 @@ public class PersonRevisionDaoImplTest extends BackendIntegrationTest {
         assertEquals(4, revNumber);
     }
 
+    @Test
+    public void testFetchAsOf() {
+        TransactionStatus status = startTransaction();
+        Person zed = createPerson("Zed", null);
+        Person alice = createPerson("Alice", zed);
+        Person bob = createPerson("Bob", alice);
+        commitTransaction(status);
+
+        status = startTransaction();
+        alice.setName("Anne");
+        alice = personDao.save(alice);
+        bob.setManager(zed);
+        bob = personDao.save(bob);
+        commitTransaction(status);
+
+        List<PersonRevision> revisions = personRevisionDao.findRevisions(bob.getId());
+        assertEquals(2, revisions.size());
+        LocalDateTime created = getRevisionTime(revisions.get(0).getRevision(), null);
+        LocalDateTime updated = getRevisionTime(revisions.get(1).getRevision(), created);
+
+        // the state as it was at the time
+        assertEquals(1L, personRevisionDao.countAsOf(new Compare.Equal("name", "Alice"), created));
+        assertEquals(0L, personRevisionDao.countAsOf(new Compare.Equal("name", "Alice"), updated));
+        assertEquals(0, personRevisionDao.fetchAsOf(null, LocalDateTime.of(2000, 1, 1, 0, 0), null).size());
+
+        // nested property, the relation is traversed
+        Filter managedByAlice = new Compare.Equal("manager.name", "Alice");
+        List<Person> persons = personRevisionDao.fetchAsOf(managedByAlice, created, new PageableImpl(0, 10));
+        assertEquals(1, persons.size());
+        assertEquals(bob.getId(), persons.get(0).getId());
+        assertEquals(1L, personRevisionDao.countAsOf(managedByAlice, created));
+        assertEquals(0L, personRevisionDao.countAsOf(managedByAlice, updated));
+        assertEquals(2L, personRevisionDao.countAsOf(new Compare.Equal("manager.name", "Zed"), updated));
+
+        // contents of a one-to-many relation
+        persons = personRevisionDao.fetchAsOf(new Contains("reports", bob), created, null);
+        assertEquals(1, persons.size());
+        assertEquals(alice.getId(), persons.get(0).getId());
+        persons = personRevisionDao.fetchAsOf(new Contains("reports", bob), updated, null);
+        assertEquals(1, persons.size());
+        assertEquals(zed.getId(), persons.get(0).getId());
+
+        // sort on a nested property
+        Pageable p = new PageableImpl(0, 10, new SortOrders(new SortOrder("manager.name", Direction.DESC)));
+        persons = personRevisionDao.fetchAsOf(new Like("manager.name", "%"), created, p);
+        assertEquals(2, persons.size());
+        assertEquals("Alice", persons.get(0).getName());
+        assertEquals("Bob", persons.get(1).getName());
+    }
+
+    @Test
+    public void testFindChangesAcrossDelete() {
+        TransactionStatus status = startTransaction();
+        Person deleted = createPerson("Kevin", null);
+        commitTransaction(status);
+
+        status = startTransaction();
+        personDao.delete(deleted);
+        commitTransaction(status);
+
+        List<PersonRevision> revisions = personRevisionDao.findRevisions(deleted.getId());
+        assertEquals(2, revisions.size());
+        assertEquals(RevisionType.DEL, revisions.get(1).getRevisionType());
+
+        // the deleted revision has no values
+        List<PropertyChange> changes = personRevisionDao.findChanges(deleted.getId(),
+                revisions.get(0).getRevision(), revisions.get(1).getRevision());
+        PropertyChange change = changes.stream().filter(c -> "name".equals(c.getProperty())).findFirst()
+                .orElse(null);
+        assertNotNull(change);
+        assertEquals("Kevin", change.getOldValue());
+        assertNull(change.getNewValue());
+    }
+
+    private Person createPerson(String name, Person manager) {
+        Person result = new Person();
+        result.setName(name);
+        result.setManager(manager);
+        return personDao.save(result);
+    }
+
+    /**
+     * Returns the time of a revision as recorded in the revision entity. Revisions
+     * that were created within the same millisecond cannot be told apart by date,
+     * in which case the revision is moved forward
+     * 
+     * @param revision the revision number
+     * @param previous the time of the previous revision
+     * @return
+     */
+    private LocalDateTime getRevisionTime(int revision, LocalDateTime previous) {
+        DynamoRevisionEntity entity = entityManager.find(DynamoRevisionEntity.class, revision);
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(entity.getTimestamp()), ZoneId.systemDefault());
+        if (previous != null && !time.isAfter(previous)) {
+            time = previous.plus(1, ChronoUnit.MILLIS);
+            entity.setTimestamp(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            entityManager.flush();
+        }
+        return time;
+    }
+
     @Test
     public void testFiltering() {
         // no filter
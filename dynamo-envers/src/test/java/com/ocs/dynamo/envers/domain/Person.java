@@ -1,14 +1,20 @@
 package com.ocs.dynamo.envers.domain;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
 
 import org.hibernate.envers.Audited;
 
 import com.ocs.dynamo.domain.AbstractEntity;
 
-@Audited
+@Audited(withModifiedFlag = true)
 @Entity
 public class Person extends AbstractEntity<Integer> {
 
@@ -20,6 +26,12 @@ public class Person extends AbstractEntity<Integer> {
 
 	private String name;
 
+	@ManyToOne(fetch = FetchType.LAZY)
+	private Person manager;
+
+	@OneToMany(mappedBy = "manager")
+	private Set<Person> reports = new HashSet<>();
+
 	@Override
 	public Integer getId() {
 		return id;
@@ -38,4 +50,20 @@ public class Person extends AbstractEntity<Integer> {
 		this.name = name;
 	}
 
+	public Person getManager() {
+		return manager;
+	}
+
+	public void setManager(Person manager) {
+		this.manager = manager;
+	}
+
+	public Set<Person> getReports() {
+		return reports;
+	}
+
+	public void setReports(Set<Person> reports) {
+		this.reports = reports;
+	}
+
 }
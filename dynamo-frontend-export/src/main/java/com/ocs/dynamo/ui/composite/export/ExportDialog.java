@@ -13,7 +13,6 @@
  */
 package com.ocs.dynamo.ui.composite.export;
 
-import java.io.ByteArrayInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -71,16 +70,17 @@ public class ExportDialog<ID extends Serializable, T extends AbstractEntity<ID>>
     @Override
     protected DownloadButton createDownloadCSVButton() {
         return new DownloadButton(message("ocs.export.csv"),
-                () -> new ByteArrayInputStream(
-                        getExportService().exportCsv(getEntityModel(), getExportMode(), predicate, sortOrders, joins)),
+                (out, session) -> getExportService()
+                        .streamCsv(getEntityModel(), getExportMode(), predicate, sortOrders, joins).accept(out, session),
                 () -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now() + EXTENSION_CSV);
     }
 
     @Override
     protected DownloadButton createDownloadExcelButton() {
         return new DownloadButton(message("ocs.export.excel"),
-                () -> new ByteArrayInputStream(
-                        getExportService().exportExcel(getEntityModel(), getExportMode(), predicate, sortOrders, customGenerator, joins)),
+                (out, session) -> getExportService()
+                        .streamExcel(getEntityModel(), getExportMode(), predicate, sortOrders, customGenerator, joins)
+                        .accept(out, session),
                 () -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now() + EXTENSION_XLS);
     }
 
@@ -22,6 +22,7 @@ import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.ui.composite.type.ExportMode;
 import com.vaadin.flow.data.provider.SortOrder;
 import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.server.StreamResourceWriter;
 
 /**
  * Service for exporting grid contents to XLSX or CSV
@@ -113,4 +114,86 @@ public interface ExportService {
     <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportExcelPivot(EntityModel<T> entityModel,
             SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, CustomXlsStyleGenerator<ID, T> customGenerator,
             PivotParameters pivotParameters, FetchJoinInformation... joins);
+
+    /**
+     * Creates a writer that streams a CSV export directly to the response. Data is
+     * retrieved and written page by page, so the export is never fully held in
+     * memory
+     * 
+     * @param entityModel the entity model of the entity to export
+     * @param mode        the export mode
+     * @param predicate   the predicate
+     * @param sortOrders  the list of sort orders
+     * @param joins       the joins to use when fetching data
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsv(EntityModel<T> entityModel, ExportMode mode,
+            SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, FetchJoinInformation... joins);
+
+    /**
+     * Creates a writer that streams a fixed set of items to CSV
+     * 
+     * @param entityModel the entity model
+     * @param mode        the export mode
+     * @param items       the set of items to export
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsvFixed(EntityModel<T> entityModel,
+            ExportMode mode, List<T> items);
+
+    /**
+     * Creates a writer that streams pivoted data to CSV
+     * 
+     * @param entityModel     the entity model of the entity to export
+     * @param predicate       the predicate
+     * @param sortOrders      the list of sort orders
+     * @param pivotParameters the pivot parameters
+     * @param joins           the joins to use when fetching data
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsvPivot(EntityModel<T> entityModel,
+            SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, PivotParameters pivotParameters,
+            FetchJoinInformation... joins);
+
+    /**
+     * Creates a writer that streams an Excel export directly to the response
+     * 
+     * @param entityModel     the entity model of the entity to export
+     * @param mode            the export mode
+     * @param predicate       the predicate
+     * @param sortOrders      the list of sort orders
+     * @param customGenerator the custom style generator
+     * @param joins           the joins to use when fetching data
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcel(EntityModel<T> entityModel,
+            ExportMode mode, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            CustomXlsStyleGenerator<ID, T> customGenerator, FetchJoinInformation... joins);
+
+    /**
+     * Creates a writer that streams a fixed set of items to Excel
+     * 
+     * @param entityModel     the entity model
+     * @param mode            the export mode
+     * @param customGenerator the custom style generator
+     * @param items           the set of items to export
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcelFixed(EntityModel<T> entityModel,
+            ExportMode mode, CustomXlsStyleGenerator<ID, T> customGenerator, List<T> items);
+
+    /**
+     * Creates a writer that streams pivoted data to Excel
+     * 
+     * @param entityModel     the entity model of the entity to export
+     * @param predicate       the predicate
+     * @param sortOrders      the list of sort orders
+     * @param customGenerator the custom style generator
+     * @param pivotParameters the pivot parameters
+     * @param joins           the joins to use when fetching data
+     * @return
+     */
+    <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcelPivot(EntityModel<T> entityModel,
+            SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, CustomXlsStyleGenerator<ID, T> customGenerator,
+            PivotParameters pivotParameters, FetchJoinInformation... joins);
 }
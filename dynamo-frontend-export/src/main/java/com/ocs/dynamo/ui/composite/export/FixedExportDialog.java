@@ -13,7 +13,6 @@
  */
 package com.ocs.dynamo.ui.composite.export;
 
-import java.io.ByteArrayInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -67,8 +66,8 @@ public class FixedExportDialog<ID extends Serializable, T extends AbstractEntity
 	@Override
 	protected DownloadButton createDownloadCSVButton() {
 		return new DownloadButton(message("ocs.export.csv"),
-				() -> new ByteArrayInputStream(
-						getExportService().exportCsvFixed(getEntityModel(), getExportMode(), itemsSupplier.get())),
+				(out, session) -> getExportService()
+						.streamCsvFixed(getEntityModel(), getExportMode(), itemsSupplier.get()).accept(out, session),
 				() -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now()
 						+ EXTENSION_CSV);
 	}
@@ -76,8 +75,9 @@ public class FixedExportDialog<ID extends Serializable, T extends AbstractEntity
 	@Override
 	protected DownloadButton createDownloadExcelButton() {
 		return new DownloadButton(message("ocs.export.excel"),
-				() -> new ByteArrayInputStream(getExportService().exportExcelFixed(getEntityModel(), getExportMode(),
-						customGenerator, itemsSupplier.get())),
+				(out, session) -> getExportService()
+						.streamExcelFixed(getEntityModel(), getExportMode(), customGenerator, itemsSupplier.get())
+						.accept(out, session),
 				() -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now()
 						+ EXTENSION_XLS);
 	}
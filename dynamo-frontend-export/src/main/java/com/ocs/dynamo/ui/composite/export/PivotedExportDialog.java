@@ -13,7 +13,6 @@
  */
 package com.ocs.dynamo.ui.composite.export;
 
-import java.io.ByteArrayInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -75,16 +74,17 @@ public class PivotedExportDialog<ID extends Serializable, T extends AbstractEnti
     @Override
     protected DownloadButton createDownloadCSVButton() {
         return new DownloadButton(message("ocs.export.csv"),
-                () -> new ByteArrayInputStream(
-                        getExportService().exportCsvPivot(getEntityModel(), predicate, sortOrders, pivotParameters, joins)),
+                (out, session) -> getExportService()
+                        .streamCsvPivot(getEntityModel(), predicate, sortOrders, pivotParameters, joins).accept(out, session),
                 () -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now() + EXTENSION_CSV);
     }
 
     @Override
     protected DownloadButton createDownloadExcelButton() {
         return new DownloadButton(message("ocs.export.excel"),
-                () -> new ByteArrayInputStream(getExportService().exportExcelPivot(getEntityModel(), predicate, sortOrders, customGenerator,
-                        pivotParameters, joins)),
+                (out, session) -> getExportService()
+                        .streamExcelPivot(getEntityModel(), predicate, sortOrders, customGenerator, pivotParameters, joins)
+                        .accept(out, session),
                 () -> getEntityModel().getDisplayNamePlural(VaadinUtils.getLocale()) + "_" + LocalDateTime.now() + EXTENSION_XLS);
     }
 
@@ -13,7 +13,11 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 
 import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.SortOrder;
@@ -22,6 +26,8 @@ import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.composite.type.ExportMode;
+import com.ocs.dynamo.util.SystemPropertyUtils;
+import com.opencsv.CSVWriter;
 
 /**
  * Base class for CSV exports
@@ -47,4 +53,29 @@ public abstract class BaseCsvExportTemplate<ID extends Serializable, T extends A
         super(service, entityModel, exportMode, sortOrders, filter, title, joins);
     }
 
+    /**
+     * Creates a CSV writer that writes to the provided output stream
+     * 
+     * @param out the output stream
+     * @return
+     */
+    protected CSVWriter createWriter(OutputStream out) {
+        return new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), SystemPropertyUtils.getCsvSeparator().charAt(0),
+                SystemPropertyUtils.getCsvQuoteChar().charAt(0), SystemPropertyUtils.getCsvEscapeChar().charAt(0), String.format("%n"));
+    }
+
+    /**
+     * Flushes the writer after every page of rows, so that the data is sent to the
+     * client incrementally rather than being buffered until the export is complete
+     * 
+     * @param writer   the writer
+     * @param rowCount the number of rows written so far
+     * @throws IOException
+     */
+    protected void flushIfNeeded(CSVWriter writer, int rowCount) throws IOException {
+        if (rowCount % PAGE_SIZE == 0) {
+            writer.flush();
+        }
+    }
+
 }
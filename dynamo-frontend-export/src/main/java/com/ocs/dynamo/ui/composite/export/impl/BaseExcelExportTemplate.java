@@ -13,6 +13,8 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -25,8 +27,8 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
@@ -57,6 +59,11 @@ public abstract class BaseExcelExportTemplate<ID extends Serializable, T extends
 	 */
 	private Workbook workbook;
 
+	/**
+	 * Whether to track the column widths so the columns can be auto sized
+	 */
+	private boolean trackColumns;
+
 	public BaseExcelExportTemplate(BaseService<ID, T> service, EntityModel<T> entityModel, ExportMode exportMode,
 			SortOrder[] sortOrders, Filter filter, String title, CustomXlsStyleGenerator<ID, T> customGenerator,
 			FetchJoinInformation... joins) {
@@ -78,7 +85,22 @@ public abstract class BaseExcelExportTemplate<ID extends Serializable, T extends
 	 * @return
 	 */
 	protected boolean canResize() {
-		return !(getWorkbook() instanceof SXSSFWorkbook);
+		return !(getWorkbook() instanceof SXSSFWorkbook) || trackColumns;
+	}
+
+	/**
+	 * Creates a sheet in the current workbook. When the columns can be resized, the
+	 * column widths of a streaming sheet are tracked while the rows are written
+	 *
+	 * @param title the title of the sheet
+	 * @return
+	 */
+	protected Sheet createSheet(String title) {
+		Sheet sheet = getWorkbook().createSheet(title);
+		if (trackColumns && sheet instanceof SXSSFSheet) {
+			((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+		}
+		return sheet;
 	}
 
 	/**
@@ -115,20 +137,17 @@ public abstract class BaseExcelExportTemplate<ID extends Serializable, T extends
 		return cell;
 	}
 
-	/*
-	 * Creates an appropriate work book - if the size is below the threshold then a
-	 * normal workbook is created. Otherwise a streaming workbook is created. This
-	 * is much faster and more efficient, but you cannot auto resize the columns
+	/**
+	 * Creates a streaming work book that only keeps a limited number of rows in
+	 * memory. If the size is below the threshold, then the column widths are
+	 * tracked so that the columns can be auto sized afterwards
 	 *
 	 * @param size the number of rows
-	 * 
 	 * @return
 	 */
 	protected Workbook createWorkbook(int size) {
-		if (size > MAX_SIZE_BEFORE_STREAMING) {
-			return new SXSSFWorkbook();
-		}
-		return new XSSFWorkbook();
+		trackColumns = size <= MAX_SIZE_BEFORE_STREAMING;
+		return new SXSSFWorkbook(STREAMING_WINDOW_SIZE);
 	}
 
 	public XlsStyleGenerator<ID, T> getGenerator() {
@@ -145,13 +164,39 @@ public abstract class BaseExcelExportTemplate<ID extends Serializable, T extends
 	 * @param sheet the sheet
 	 */
 	protected void resizeColumns(Sheet sheet) {
-		if (canResize()) {
+		if (!canResize()) {
+			return;
+		}
+		if (sheet instanceof SXSSFSheet) {
+			// the header row might already have been flushed to disk
+			for (Integer column : ((SXSSFSheet) sheet).getTrackedColumnsForAutoSizing()) {
+				sheet.autoSizeColumn(column);
+			}
+		} else {
 			for (int i = 0; i < sheet.getRow(0).getLastCellNum(); i++) {
 				sheet.autoSizeColumn(i);
 			}
 		}
 	}
 
+	/**
+	 * Writes the workbook to the provided output stream and cleans up any
+	 * temporary files that were created by a streaming workbook
+	 *
+	 * @param out the output stream
+	 * @throws IOException
+	 */
+	protected void writeWorkbook(OutputStream out) throws IOException {
+		try {
+			getWorkbook().write(out);
+			out.flush();
+		} finally {
+			if (getWorkbook() instanceof SXSSFWorkbook) {
+				((SXSSFWorkbook) getWorkbook()).dispose();
+			}
+		}
+	}
+
 	protected void writeCellValue(Cell cell, Object value, EntityModel<T> em, AttributeModel am) {
 		if (NumberUtils.isInteger(value) || NumberUtils.isLong(value)) {
 			// integer or long numbers
@@ -13,10 +13,16 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.List;
 
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
 import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.SortOrder;
@@ -28,8 +34,8 @@ import com.ocs.dynamo.domain.model.AttributeType;
 import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.domain.model.EntityModelFactory;
 import com.ocs.dynamo.domain.query.DataSetIterator;
+import com.ocs.dynamo.domain.query.DetachingPagingDataSetIterator;
 import com.ocs.dynamo.domain.query.FixedDataSetIterator;
-import com.ocs.dynamo.domain.query.PagingDataSetIterator;
 import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.service.BaseService;
@@ -57,12 +63,18 @@ public abstract class BaseExportTemplate<ID extends Serializable, T extends Abst
     protected static final int TITLE_ROW_HEIGHT = 40;
 
     /**
-     * The maximum number of rows that will be created normally. If the number is
-     * larger, then a streaming writer will be used. This is faster but it will mean
-     * we cannot auto size the columns
+     * The maximum number of rows for which the column widths are automatically
+     * sized. For larger exports, tracking the column widths is too expensive and a
+     * fixed column width is used instead
      */
     protected static final int MAX_SIZE_BEFORE_STREAMING = 1000;
 
+    /**
+     * The number of rows that a streaming Excel workbook keeps in memory before
+     * flushing them to disk
+     */
+    protected static final int STREAMING_WINDOW_SIZE = 100;
+
     /**
      * The page size
      */
@@ -131,13 +143,14 @@ public abstract class BaseExportTemplate<ID extends Serializable, T extends Abst
     }
 
     /**
-     * Generates the file
+     * Generates the file and writes it to the provided output stream. The stream is
+     * flushed but not closed
      *
      * @param iterator data set iterator that contains the rows to include
-     * @return
+     * @param out      the output stream to write to
      * @throws IOException
      */
-    protected abstract byte[] generate(DataSetIterator<ID, T> iterator) throws IOException;
+    protected abstract void generate(DataSetIterator<ID, T> iterator, OutputStream out) throws IOException;
 
     public EntityModel<T> getEntityModel() {
         return entityModel;
@@ -182,26 +195,58 @@ public abstract class BaseExportTemplate<ID extends Serializable, T extends Abst
         return title;
     }
 
+    /**
+     * Indicates whether the next page of data is retrieved on a background thread
+     * while the current page is being written. Disabled by default, since the
+     * background thread only receives the thread-bound state that is copied by
+     * {@link #getPrefetchDecorator()} and cannot lazily load relations that are
+     * not part of the joins. Prefetching is never used when the export runs inside
+     * a transaction, since the background thread cannot take part in it
+     *
+     * @return
+     */
+    protected boolean isPrefetch() {
+        return false;
+    }
+
+    /**
+     * Returns the decorator that is applied to every prefetch task. By default,
+     * the security context of the calling thread is copied to the background
+     * thread. Override to copy other thread-bound state (e.g. a tenant) as well
+     *
+     * @return
+     */
+    protected TaskDecorator getPrefetchDecorator() {
+        return DelegatingSecurityContextRunnable::new;
+    }
+
     /**
      * Processes the input and creates a file
      *
-     * @param xls whether to export to Excel (xlsx)
      * @return
-     * @throws IOException
      */
     public final byte[] process() {
-        try {
-            // retrieve all store series based on the IDs
-            List<ID> ids = service.findIds(getFilter(), sortOrders);
-            PagingDataSetIterator<ID, T> iterator = new PagingDataSetIterator<ID, T>(ids, PAGE_SIZE) {
-
-                @Override
-                protected List<T> readPage(List<ID> ids) {
-                    return service.fetchByIds(ids, new SortOrders(sortOrders), joins);
-                }
-            };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        process(out);
+        return out.toByteArray();
+    }
 
-            return generate(iterator);
+    /**
+     * Processes the input and writes the result to the provided output stream. The
+     * data is retrieved and written page by page, so the complete export is never
+     * held in memory. Pages that have been written are detached from the
+     * persistence context
+     *
+     * @param out the output stream to write to
+     */
+    public final void process(OutputStream out) {
+        // retrieve all store series based on the IDs
+        List<ID> ids = service.findIds(getFilter(), sortOrders);
+        boolean prefetch = isPrefetch() && !TransactionSynchronizationManager.isActualTransactionActive();
+        try (DetachingPagingDataSetIterator<ID, T> iterator = new DetachingPagingDataSetIterator<>(service, ids, PAGE_SIZE,
+                prefetch, new SortOrders(sortOrders), joins)) {
+            iterator.setDecorator(getPrefetchDecorator());
+            generate(iterator, out);
         } catch (IOException ex) {
             throw new OCSRuntimeException(ex.getMessage(), ex);
         }
@@ -214,10 +259,22 @@ public abstract class BaseExportTemplate<ID extends Serializable, T extends Abst
      * @return
      */
     public final byte[] processFixed(List<T> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processFixed(items, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Processes a fixed set of data and writes the result to the provided output
+     * stream
+     * 
+     * @param items the set of data to process
+     * @param out   the output stream to write to
+     */
+    public final void processFixed(List<T> items, OutputStream out) {
         try {
-            // retrieve all store series based on the IDs
             FixedDataSetIterator<ID, T> iterator = new FixedDataSetIterator<>(items);
-            return generate(iterator);
+            generate(iterator, out);
         } catch (IOException ex) {
             throw new OCSRuntimeException(ex.getMessage(), ex);
         }
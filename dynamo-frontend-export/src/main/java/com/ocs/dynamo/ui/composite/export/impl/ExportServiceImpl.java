@@ -33,6 +33,7 @@ import com.ocs.dynamo.ui.utils.SortUtils;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
 import com.vaadin.flow.data.provider.SortOrder;
 import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.server.StreamResourceWriter;
 
 /**
  * Implementation of the export service
@@ -44,17 +45,9 @@ import com.vaadin.flow.function.SerializablePredicate;
 public class ExportServiceImpl implements ExportService {
 
     @Override
-    @SuppressWarnings("unchecked")
     public <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportCsv(EntityModel<T> entityModel, ExportMode mode,
             SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, FetchJoinInformation... joins) {
-        BaseService<ID, T> service = (BaseService<ID, T>) ServiceLocatorFactory.getServiceLocator()
-                .getServiceForEntity(entityModel.getEntityClass());
-        FilterConverter<T> converter = new FilterConverter<>(entityModel);
-        Filter filter = converter.convert(predicate);
-
-        ModelBasedCsvExportTemplate<ID, T> template = new ModelBasedCsvExportTemplate<>(service, entityModel, mode,
-                SortUtils.translateSortOrders(sortOrders), filter, null, joins);
-        return template.process();
+        return createCsvTemplate(entityModel, mode, predicate, sortOrders, joins).process();
     }
 
     @Override
@@ -65,56 +58,125 @@ public class ExportServiceImpl implements ExportService {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportExcel(EntityModel<T> entityModel, ExportMode mode,
             SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, CustomXlsStyleGenerator<ID, T> customGenerator,
             FetchJoinInformation... joins) {
-        BaseService<ID, T> service = (BaseService<ID, T>) ServiceLocatorFactory.getServiceLocator()
-                .getServiceForEntity(entityModel.getEntityClass());
-        FilterConverter<T> converter = new FilterConverter<>(entityModel);
-        Filter filter = converter.convert(predicate);
-        ModelBasedExcelExportTemplate<ID, T> template = new ModelBasedExcelExportTemplate<>(service, entityModel, mode,
-                SortUtils.translateSortOrders(sortOrders), filter, entityModel.getDisplayNamePlural(VaadinUtils.getLocale()),
-                customGenerator, joins);
-        return template.process();
+        return createExcelTemplate(entityModel, mode, predicate, sortOrders, customGenerator, joins).process();
     }
 
     @Override
     public <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportExcelFixed(EntityModel<T> entityModel, ExportMode mode,
             CustomXlsStyleGenerator<ID, T> customGenerator, List<T> items) {
-        ModelBasedExcelExportTemplate<ID, T> template = new ModelBasedExcelExportTemplate<>(null, entityModel, mode, null, null,
-                entityModel.getDisplayNamePlural(VaadinUtils.getLocale()), customGenerator);
-        return template.processFixed(items);
+        return createExcelFixedTemplate(entityModel, mode, customGenerator).processFixed(items);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportExcelPivot(EntityModel<T> entityModel,
             SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, CustomXlsStyleGenerator<ID, T> customGenerator,
             PivotParameters pivotParameters, FetchJoinInformation... joins) {
-        BaseService<ID, T> service = (BaseService<ID, T>) ServiceLocatorFactory.getServiceLocator()
-                .getServiceForEntity(entityModel.getEntityClass());
-        FilterConverter<T> converter = new FilterConverter<>(entityModel);
-        Filter filter = converter.convert(predicate);
-        ModelBasedExcelPivotExportTemplate<ID, T> template = new ModelBasedExcelPivotExportTemplate<>(service, entityModel,
-                SortUtils.translateSortOrders(sortOrders), filter, entityModel.getDisplayNamePlural(VaadinUtils.getLocale()),
-                customGenerator, pivotParameters, joins);
-        return template.process();
+        return createExcelPivotTemplate(entityModel, predicate, sortOrders, customGenerator, pivotParameters, joins).process();
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <ID extends Serializable, T extends AbstractEntity<ID>> byte[] exportCsvPivot(EntityModel<T> entityModel,
             SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, PivotParameters pivotParameters,
             FetchJoinInformation... joins) {
-        BaseService<ID, T> service = (BaseService<ID, T>) ServiceLocatorFactory.getServiceLocator()
-                .getServiceForEntity(entityModel.getEntityClass());
-        FilterConverter<T> converter = new FilterConverter<>(entityModel);
-        Filter filter = converter.convert(predicate);
-        ModelBasedCsvPivotExportTemplate<ID, T> template = new ModelBasedCsvPivotExportTemplate<>(service, entityModel,
-                SortUtils.translateSortOrders(sortOrders), filter, entityModel.getDisplayNamePlural(VaadinUtils.getLocale()),
+        return createCsvPivotTemplate(entityModel, predicate, sortOrders, pivotParameters, joins).process();
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsv(EntityModel<T> entityModel,
+            ExportMode mode, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, FetchJoinInformation... joins) {
+        ModelBasedCsvExportTemplate<ID, T> template = createCsvTemplate(entityModel, mode, predicate, sortOrders, joins);
+        return (out, session) -> template.process(out);
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsvFixed(EntityModel<T> entityModel,
+            ExportMode mode, List<T> items) {
+        ModelBasedCsvExportTemplate<ID, T> template = new ModelBasedCsvExportTemplate<>(null, entityModel, mode, null, null, null);
+        return (out, session) -> template.processFixed(items, out);
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamCsvPivot(EntityModel<T> entityModel,
+            SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, PivotParameters pivotParameters,
+            FetchJoinInformation... joins) {
+        ModelBasedCsvPivotExportTemplate<ID, T> template = createCsvPivotTemplate(entityModel, predicate, sortOrders, pivotParameters,
+                joins);
+        return (out, session) -> template.process(out);
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcel(EntityModel<T> entityModel,
+            ExportMode mode, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            CustomXlsStyleGenerator<ID, T> customGenerator, FetchJoinInformation... joins) {
+        ModelBasedExcelExportTemplate<ID, T> template = createExcelTemplate(entityModel, mode, predicate, sortOrders, customGenerator,
+                joins);
+        return (out, session) -> template.process(out);
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcelFixed(EntityModel<T> entityModel,
+            ExportMode mode, CustomXlsStyleGenerator<ID, T> customGenerator, List<T> items) {
+        ModelBasedExcelExportTemplate<ID, T> template = createExcelFixedTemplate(entityModel, mode, customGenerator);
+        return (out, session) -> template.processFixed(items, out);
+    }
+
+    @Override
+    public <ID extends Serializable, T extends AbstractEntity<ID>> StreamResourceWriter streamExcelPivot(EntityModel<T> entityModel,
+            SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders, CustomXlsStyleGenerator<ID, T> customGenerator,
+            PivotParameters pivotParameters, FetchJoinInformation... joins) {
+        ModelBasedExcelPivotExportTemplate<ID, T> template = createExcelPivotTemplate(entityModel, predicate, sortOrders,
+                customGenerator, pivotParameters, joins);
+        return (out, session) -> template.process(out);
+    }
+
+    private <ID extends Serializable, T extends AbstractEntity<ID>> ModelBasedCsvExportTemplate<ID, T> createCsvTemplate(
+            EntityModel<T> entityModel, ExportMode mode, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            FetchJoinInformation... joins) {
+        return new ModelBasedCsvExportTemplate<>(getService(entityModel), entityModel, mode, SortUtils.translateSortOrders(sortOrders),
+                convertFilter(entityModel, predicate), null, joins);
+    }
+
+    private <ID extends Serializable, T extends AbstractEntity<ID>> ModelBasedCsvPivotExportTemplate<ID, T> createCsvPivotTemplate(
+            EntityModel<T> entityModel, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            PivotParameters pivotParameters, FetchJoinInformation... joins) {
+        return new ModelBasedCsvPivotExportTemplate<>(getService(entityModel), entityModel, SortUtils.translateSortOrders(sortOrders),
+                convertFilter(entityModel, predicate), entityModel.getDisplayNamePlural(VaadinUtils.getLocale()), pivotParameters,
+                joins);
+    }
+
+    private <ID extends Serializable, T extends AbstractEntity<ID>> ModelBasedExcelExportTemplate<ID, T> createExcelTemplate(
+            EntityModel<T> entityModel, ExportMode mode, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            CustomXlsStyleGenerator<ID, T> customGenerator, FetchJoinInformation... joins) {
+        return new ModelBasedExcelExportTemplate<>(getService(entityModel), entityModel, mode, SortUtils.translateSortOrders(sortOrders),
+                convertFilter(entityModel, predicate), entityModel.getDisplayNamePlural(VaadinUtils.getLocale()), customGenerator,
+                joins);
+    }
+
+    private <ID extends Serializable, T extends AbstractEntity<ID>> ModelBasedExcelExportTemplate<ID, T> createExcelFixedTemplate(
+            EntityModel<T> entityModel, ExportMode mode, CustomXlsStyleGenerator<ID, T> customGenerator) {
+        return new ModelBasedExcelExportTemplate<>(null, entityModel, mode, null, null,
+                entityModel.getDisplayNamePlural(VaadinUtils.getLocale()), customGenerator);
+    }
+
+    private <ID extends Serializable, T extends AbstractEntity<ID>> ModelBasedExcelPivotExportTemplate<ID, T> createExcelPivotTemplate(
+            EntityModel<T> entityModel, SerializablePredicate<T> predicate, List<SortOrder<?>> sortOrders,
+            CustomXlsStyleGenerator<ID, T> customGenerator, PivotParameters pivotParameters, FetchJoinInformation... joins) {
+        return new ModelBasedExcelPivotExportTemplate<>(getService(entityModel), entityModel, SortUtils.translateSortOrders(sortOrders),
+                convertFilter(entityModel, predicate), entityModel.getDisplayNamePlural(VaadinUtils.getLocale()), customGenerator,
                 pivotParameters, joins);
-        return template.process();
+    }
+
+    private <T> Filter convertFilter(EntityModel<T> entityModel, SerializablePredicate<T> predicate) {
+        FilterConverter<T> converter = new FilterConverter<>(entityModel);
+        return converter.convert(predicate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ID extends Serializable, T extends AbstractEntity<ID>> BaseService<ID, T> getService(EntityModel<T> entityModel) {
+        return (BaseService<ID, T>) ServiceLocatorFactory.getServiceLocator().getServiceForEntity(entityModel.getEntityClass());
     }
 
 }
@@ -13,11 +13,9 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,7 +33,6 @@ import com.ocs.dynamo.ui.composite.export.CustomXlsStyleGenerator;
 import com.ocs.dynamo.ui.composite.type.ExportMode;
 import com.ocs.dynamo.ui.utils.FormatUtils;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
-import com.ocs.dynamo.util.SystemPropertyUtils;
 import com.ocs.dynamo.utils.ClassUtils;
 import com.opencsv.CSVWriter;
 
@@ -65,41 +62,39 @@ public class ModelBasedCsvExportTemplate<ID extends Serializable, T extends Abst
     }
 
     @Override
-    protected byte[] generate(DataSetIterator<ID, T> iterator) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-                CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
-                        SystemPropertyUtils.getCsvSeparator().charAt(0), SystemPropertyUtils.getCsvQuoteChar().charAt(0),
-                        SystemPropertyUtils.getCsvEscapeChar().charAt(0), String.format("%n"))) {
+    protected void generate(DataSetIterator<ID, T> iterator, OutputStream out) throws IOException {
+        // the writer is not closed since the output stream is owned by the caller
+        CSVWriter writer = createWriter(out);
+        EntityModelFactory emf = ServiceLocatorFactory.getServiceLocator().getEntityModelFactory();
 
-            // add header row
-            List<String> headers = new ArrayList<>();
+        // add header row
+        List<String> headers = new ArrayList<>();
+        for (AttributeModel am : getEntityModel().getAttributeModels()) {
+            if (show(am)) {
+                headers.add(am.getDisplayName(VaadinUtils.getLocale()));
+            }
+        }
+        writer.writeNext(headers.toArray(new String[0]));
+
+        // iterate over the rows
+        int rowCount = 0;
+        T entity = iterator.next();
+        while (entity != null) {
+            List<String> row = new ArrayList<>();
             for (AttributeModel am : getEntityModel().getAttributeModels()) {
                 if (show(am)) {
-                    headers.add(am.getDisplayName(VaadinUtils.getLocale()));
+                    Object value = ClassUtils.getFieldValue(entity, am.getPath());
+                    String str = FormatUtils.formatPropertyValue(emf, am, value, ", ");
+                    row.add(str);
                 }
             }
-            writer.writeNext(headers.toArray(new String[0]));
-
-            // iterate over the rows
-            T entity = iterator.next();
-            while (entity != null) {
-                List<String> row = new ArrayList<>();
-                for (AttributeModel am : getEntityModel().getAttributeModels()) {
-                    if (show(am)) {
-                        Object value = ClassUtils.getFieldValue(entity, am.getPath());
-                        EntityModelFactory emf = ServiceLocatorFactory.getServiceLocator().getEntityModelFactory();
-                        String str = FormatUtils.formatPropertyValue(emf, am, value, ", ");
-                        row.add(str);
-                    }
-                }
-                if (!row.isEmpty()) {
-                    writer.writeNext(row.toArray(new String[0]));
-                }
-                entity = iterator.next();
+            if (!row.isEmpty()) {
+                writer.writeNext(row.toArray(new String[0]));
+                flushIfNeeded(writer, ++rowCount);
             }
-            writer.flush();
-            return out.toByteArray();
+            entity = iterator.next();
         }
+        writer.flush();
     }
 
 }
@@ -13,11 +13,9 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -31,7 +29,6 @@ import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.composite.export.PivotParameters;
 import com.ocs.dynamo.ui.composite.type.ExportMode;
-import com.ocs.dynamo.util.SystemPropertyUtils;
 import com.ocs.dynamo.utils.ClassUtils;
 import com.opencsv.CSVWriter;
 
@@ -66,89 +63,87 @@ public class ModelBasedCsvPivotExportTemplate<ID extends Serializable, T extends
     }
 
     @Override
-    protected byte[] generate(DataSetIterator<ID, T> iterator) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-                CSVWriter writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
-                        SystemPropertyUtils.getCsvSeparator().charAt(0), SystemPropertyUtils.getCsvQuoteChar().charAt(0),
-                        SystemPropertyUtils.getCsvEscapeChar().charAt(0), String.format("%n"))) {
-
-            // add header row
-
-            // add fixed columns
-            List<String> headers = new ArrayList<>();
-            for (String fc : pivotParameters.getFixedColumnKeys()) {
-                headers.add(pivotParameters.getFixedHeaderMapper().apply(fc));
-            }
-
-            // add variable columns
-            for (Object fc : pivotParameters.getPossibleColumnKeys()) {
-                for (String property : pivotParameters.getPivotedProperties()) {
-                    String value = pivotParameters.getHeaderMapper().apply(fc, property);
-                    headers.add(value);
-                }
-            }
-            writer.writeNext(headers.toArray(new String[0]));
+    protected void generate(DataSetIterator<ID, T> iterator, OutputStream out) throws IOException {
+        // the writer is not closed since the output stream is owned by the caller
+        CSVWriter writer = createWriter(out);
 
-            String prevRowKey = null;
-            List<String> row = null;
-            int colIndex = 0;
-            int propIndex = 0;
+        // add header row
 
-            // iterate over the rows
-            T entity = iterator.next();
-            while (entity != null) {
+        // add fixed columns
+        List<String> headers = new ArrayList<>();
+        for (String fc : pivotParameters.getFixedColumnKeys()) {
+            headers.add(pivotParameters.getFixedHeaderMapper().apply(fc));
+        }
 
-                String rowKey = ClassUtils.getFieldValueAsString(entity, pivotParameters.getRowKeyProperty());
-                if (!Objects.equals(prevRowKey, rowKey)) {
+        // add variable columns
+        for (Object fc : pivotParameters.getPossibleColumnKeys()) {
+            for (String property : pivotParameters.getPivotedProperties()) {
+                String value = pivotParameters.getHeaderMapper().apply(fc, property);
+                headers.add(value);
+            }
+        }
+        writer.writeNext(headers.toArray(new String[0]));
 
-                    if (row != null) {
-                        addEmtpyColumnValues(row);
-                        writer.writeNext(row.toArray(new String[0]));
-                    }
+        String prevRowKey = null;
+        List<String> row = null;
+        int colIndex = 0;
+        int propIndex = 0;
 
-                    row = new ArrayList<>();
+        // iterate over the rows
+        int rowCount = 0;
+        T entity = iterator.next();
+        while (entity != null) {
 
-                    for (String fc : pivotParameters.getFixedColumnKeys()) {
-                        Object value = ClassUtils.getFieldValueAsString(entity, fc);
-                        row.add(value.toString());
-                    }
+            String rowKey = ClassUtils.getFieldValueAsString(entity, pivotParameters.getRowKeyProperty());
+            if (!Objects.equals(prevRowKey, rowKey)) {
 
-                    colIndex = 0;
-                    propIndex = 0;
+                if (row != null) {
+                    addEmtpyColumnValues(row);
+                    writer.writeNext(row.toArray(new String[0]));
+                    flushIfNeeded(writer, ++rowCount);
                 }
 
-                Object object = pivotParameters.getPossibleColumnKeys().get(colIndex);
-                if (!columnValueMatches(entity, object)) {
-                    // appropriate value is missing, write empty cell
-                    row.add("");
-                } else {
-                    // get cell value
+                row = new ArrayList<>();
 
-                    String prop = pivotParameters.getPivotedProperties().get(propIndex);
-                    Object value = ClassUtils.getFieldValue(entity, prop);
-                    row.add(value == null ? "" : value.toString());
+                for (String fc : pivotParameters.getFixedColumnKeys()) {
+                    Object value = ClassUtils.getFieldValueAsString(entity, fc);
+                    row.add(value.toString());
                 }
 
-                if (propIndex == pivotParameters.getPivotedProperties().size() - 1) {
-                    propIndex = 0;
-                    colIndex = colIndex + 1;
-                } else {
-                    propIndex++;
-                }
+                colIndex = 0;
+                propIndex = 0;
+            }
+
+            Object object = pivotParameters.getPossibleColumnKeys().get(colIndex);
+            if (!columnValueMatches(entity, object)) {
+                // appropriate value is missing, write empty cell
+                row.add("");
+            } else {
+                // get cell value
 
-                entity = iterator.next();
-                prevRowKey = rowKey;
+                String prop = pivotParameters.getPivotedProperties().get(propIndex);
+                Object value = ClassUtils.getFieldValue(entity, prop);
+                row.add(value == null ? "" : value.toString());
             }
 
-            // add last row
-            if (row != null) {
-                addEmtpyColumnValues(row);
-                writer.writeNext(row.toArray(new String[0]));
+            if (propIndex == pivotParameters.getPivotedProperties().size() - 1) {
+                propIndex = 0;
+                colIndex = colIndex + 1;
+            } else {
+                propIndex++;
             }
 
-            writer.flush();
-            return out.toByteArray();
+            entity = iterator.next();
+            prevRowKey = rowKey;
         }
+
+        // add last row
+        if (row != null) {
+            addEmtpyColumnValues(row);
+            writer.writeNext(row.toArray(new String[0]));
+        }
+
+        writer.flush();
     }
 
     /**
@@ -13,8 +13,8 @@
  */
 package com.ocs.dynamo.ui.composite.export.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 
 import org.apache.poi.ss.usermodel.Cell;
@@ -62,13 +62,12 @@ public class ModelBasedExcelExportTemplate<ID extends Serializable, T extends Ab
     }
 
     @Override
-    protected byte[] generate(DataSetIterator<ID, T> iterator) throws IOException {
+    protected void generate(DataSetIterator<ID, T> iterator, OutputStream out) throws IOException {
         setWorkbook(createWorkbook(iterator.size()));
-        Sheet sheet = getWorkbook().createSheet(getTitle());
+        Sheet sheet = createSheet(getTitle());
         setGenerator(createGenerator(getWorkbook()));
 
         boolean resize = canResize();
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
 
         // add header row
         Row titleRow = sheet.createRow(0);
@@ -106,8 +105,7 @@ public class ModelBasedExcelExportTemplate<ID extends Serializable, T extends Ab
         }
         resizeColumns(sheet);
 
-        getWorkbook().write(stream);
-        return stream.toByteArray();
+        writeWorkbook(out);
     }
 
 
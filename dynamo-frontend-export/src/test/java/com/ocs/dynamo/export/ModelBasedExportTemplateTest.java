@@ -1,8 +1,10 @@
 package com.ocs.dynamo.export;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZoneId;
@@ -140,4 +142,18 @@ public class ModelBasedExportTemplateTest extends FrontendIntegrationTest {
                 "\"11\";\"01/04/2014\";\"2014-14\";\"34,00\";\"Bob\";\"4,00%\";\"11:12:13\";\"false\";\"On\";\"44,44\";\"Value A\";\"1.234\";\"some\";\"abab\";\"12:13:14\";\"http://www.google.nl\";\"14-08-2015 11:12:13+0200\"",
                 lines[1].trim());
     }
+
+    @Test
+    public void testCsvToOutputStream() {
+        ModelBasedCsvExportTemplate<Integer, TestEntity> template = new ModelBasedCsvExportTemplate<Integer, TestEntity>(testEntityService,
+                entityModelFactory.getModel(TestEntity.class), ExportMode.ONLY_VISIBLE_IN_GRID,
+                new SortOrder[] { new SortOrder("name", Direction.ASC) }, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.process(out);
+
+        String[] lines = new String(out.toByteArray()).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].contains("\"Bob\""));
+        assertTrue(lines[2].contains("\"Harry\""));
+    }
 }
@@ -32,8 +32,8 @@ public class ExportDialogTest extends BaseMockitoTest {
     public void test() {
         EntityModel<TestEntity> em = emf.getModel(TestEntity.class);
 
-        when(exportService.exportCsv(em, ExportMode.FULL, null, null)).thenReturn(new byte[] { 1, 2, 3 });
-        when(exportService.exportExcel(em, ExportMode.FULL, null, null, null)).thenReturn(new byte[] { 1, 2, 3 });
+        when(exportService.streamCsv(em, ExportMode.FULL, null, null)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
+        when(exportService.streamExcel(em, ExportMode.FULL, null, null, null)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
 
         ExportDialog<Integer, TestEntity> dialog = new ExportDialog<>(exportService, em, ExportMode.FULL, null, null, null);
         dialog.build();
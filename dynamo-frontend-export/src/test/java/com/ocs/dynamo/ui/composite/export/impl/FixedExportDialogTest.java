@@ -32,8 +32,8 @@ public class FixedExportDialogTest extends BaseMockitoTest {
     public void test() {
         EntityModel<TestEntity> em = emf.getModel(TestEntity.class);
 
-        when(exportService.exportCsvFixed(em, ExportMode.FULL, null)).thenReturn(new byte[] { 1, 2, 3 });
-        when(exportService.exportExcelFixed(em, ExportMode.FULL, null, null)).thenReturn(new byte[] { 1, 2, 3 });
+        when(exportService.streamCsvFixed(em, ExportMode.FULL, null)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
+        when(exportService.streamExcelFixed(em, ExportMode.FULL, null, null)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
 
         FixedExportDialog<Integer, TestEntity> dialog = new FixedExportDialog<>(exportService, em, ExportMode.FULL, null, null);
         dialog.build();
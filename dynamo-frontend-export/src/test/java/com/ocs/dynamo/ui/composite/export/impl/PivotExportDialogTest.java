@@ -33,8 +33,8 @@ public class PivotExportDialogTest extends BaseMockitoTest {
         EntityModel<TestEntity> em = emf.getModel(TestEntity.class);
         PivotParameters pars = new PivotParameters();
 
-        when(exportService.exportCsvPivot(em, null, null, pars)).thenReturn(new byte[] { 1, 2, 3 });
-        when(exportService.exportExcelPivot(em, null, null, null, pars)).thenReturn(new byte[] { 1, 2, 3 });
+        when(exportService.streamCsvPivot(em, null, null, pars)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
+        when(exportService.streamExcelPivot(em, null, null, null, pars)).thenReturn((out, session) -> out.write(new byte[] { 1, 2, 3 }));
 
         PivotedExportDialog<Integer, TestEntity> dialog = new PivotedExportDialog<>(exportService, em, null, null, null,
                 new PivotParameters());
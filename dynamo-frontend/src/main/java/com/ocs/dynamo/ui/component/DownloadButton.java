@@ -22,6 +22,7 @@ import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamResourceWriter;
 
 /**
  * A button that starts a file download when clicked.
@@ -52,15 +53,38 @@ public class DownloadButton extends HorizontalLayout {
 	 */
 	private Supplier<InputStream> createContent;
 
+	/**
+	 * Writer that directly writes the file content to the response
+	 */
+	private StreamResourceWriter writer;
+
 	/**
 	 * Constructor
 	 *
 	 * @param caption the caption of the button
 	 */
 	public DownloadButton(String caption, Supplier<InputStream> createContent, Supplier<String> createFileName) {
+		this(caption, createContent, null, createFileName);
+	}
+
+	/**
+	 * Constructor for a button that streams the file content directly to the
+	 * response rather than first creating it in memory
+	 *
+	 * @param caption        the caption of the button
+	 * @param writer         the writer that writes the file content
+	 * @param createFileName supplier for creating the file name
+	 */
+	public DownloadButton(String caption, StreamResourceWriter writer, Supplier<String> createFileName) {
+		this(caption, null, writer, createFileName);
+	}
+
+	private DownloadButton(String caption, Supplier<InputStream> createContent, StreamResourceWriter writer,
+			Supplier<String> createFileName) {
 		setMargin(false);
 		this.createFileName = createFileName;
 		this.createContent = createContent;
+		this.writer = writer;
 
 		anchor = new Anchor();
 		update();
@@ -77,6 +101,10 @@ public class DownloadButton extends HorizontalLayout {
 	 * Updates the button after the content to download has been changed
 	 */
 	public final void update() {
+		if (writer != null) {
+			anchor.setHref(new StreamResource(this.createFileName.get(), writer));
+			return;
+		}
 		anchor.setHref(new StreamResource(this.createFileName.get(), () -> {
 			InputStream inputStream = this.createContent.get();
 			if (inputStream == null) {
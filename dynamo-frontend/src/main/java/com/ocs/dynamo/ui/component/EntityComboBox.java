@@ -20,14 +20,18 @@ import com.ocs.dynamo.domain.AbstractEntity;
 import com.ocs.dynamo.domain.model.AttributeModel;
 import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.filter.AndPredicate;
+import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.filter.FilterConverter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.Refreshable;
+import com.ocs.dynamo.ui.provider.LazyLookupDataProvider;
+import com.ocs.dynamo.ui.utils.LookupUtils;
 import com.ocs.dynamo.ui.utils.SortUtils;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
 import com.ocs.dynamo.utils.EntityModelUtils;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.provider.SortOrder;
 import com.vaadin.flow.function.SerializablePredicate;
 
@@ -38,7 +42,13 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 		implements Refreshable, Cascadable<T> {
 
 	public enum SelectMode {
-		ALL, FILTERED, FIXED;
+		ALL, FILTERED, FIXED,
+
+		/**
+		 * Pages and filters in the database, only the selected value is kept in
+		 * memory
+		 */
+		LAZY;
 	}
 
 	private static final long serialVersionUID = 3041574615271340579L;
@@ -83,6 +93,11 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 	 */
 	private EntityModel<T> targetEntityModel;
 
+	/**
+	 * The data provider that is used in lazy mode
+	 */
+	private LazyLookupDataProvider<ID, T> lazyProvider;
+
 	/**
 	 * Constructor
 	 *
@@ -113,23 +128,34 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 		}
 
 		setFilter(filter);
+		setItemLabelGenerator(t -> EntityModelUtils.getDisplayPropertyValue(t, targetEntityModel));
+		setSizeFull();
+
+		if (SelectMode.LAZY.equals(mode) && sharedProvider == null) {
+			lazyProvider = new LazyLookupDataProvider<>(service, targetEntityModel, () -> this.filter,
+					SortUtils.translateSortOrders(sortOrders));
+			setDataProvider(lazyProvider);
+			return;
+		}
+
 		ListDataProvider<T> provider = sharedProvider;
 		if (provider == null) {
 			if (SelectMode.ALL.equals(mode)) {
 				// add all items (but sorted)
-				provider = new ListDataProvider<>(service.findAll(SortUtils.translateSortOrders(sortOrders)));
+				com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+				provider = new ListDataProvider<>(
+						LookupUtils.findItems(service, null, orders, () -> service.findAll(orders)));
 			} else if (SelectMode.FILTERED.equals(mode)) {
 				// add a filtered selection of items
-				items = service.find(new FilterConverter<T>(targetEntityModel).convert(filter),
-						SortUtils.translateSortOrders(sortOrders));
+				com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+				Filter searchFilter = new FilterConverter<T>(targetEntityModel).convert(filter);
+				items = LookupUtils.findItems(service, searchFilter, orders, () -> service.find(searchFilter, orders));
 				provider = new ListDataProvider<>(items);
 			} else if (SelectMode.FIXED.equals(mode)) {
 				provider = new ListDataProvider<>(items);
 			}
 		}
 		setDataProvider(new IgnoreDiacriticsCaptionFilter<T>(true, false), provider);
-		setItemLabelGenerator(t -> EntityModelUtils.getDisplayPropertyValue(t, targetEntityModel));
-		setSizeFull();
 	}
 
 	/**
@@ -181,6 +207,11 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 	 */
 	@SuppressWarnings("unchecked")
 	public void addEntity(T entity) {
+		if (lazyProvider != null) {
+			// the entity has been stored in the database, so just reload
+			lazyProvider.refreshAll();
+			return;
+		}
 		ListDataProvider<T> provider = (ListDataProvider<T>) this.getDataProvider();
 		provider.getItems().add(entity);
 		provider.refreshAll();
@@ -204,6 +235,9 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 
 	@SuppressWarnings("unchecked")
 	public int getDataProviderSize() {
+		if (lazyProvider != null) {
+			return lazyProvider.size(new Query<>());
+		}
 		ListDataProvider<T> provider = (ListDataProvider<T>) this.getDataProvider();
 		return provider.getItems().size();
 	}
@@ -214,6 +248,9 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 
 	@SuppressWarnings("unchecked")
 	public T getFirstItem() {
+		if (lazyProvider != null) {
+			return lazyProvider.fetch(new Query<>(0, 1, null, null, null)).findFirst().orElse(null);
+		}
 		ListDataProvider<T> provider = (ListDataProvider<T>) this.getDataProvider();
 		return provider.getItems().iterator().next();
 	}
@@ -230,22 +267,24 @@ public class EntityComboBox<ID extends Serializable, T extends AbstractEntity<ID
 	@Override
 	public void refresh() {
 		clear();
+		if (lazyProvider != null) {
+			lazyProvider.refreshAll();
+			return;
+		}
 		ListDataProvider<T> provider = (ListDataProvider<T>) getDataProvider();
 		if (SelectMode.ALL.equals(selectMode)) {
 			// add all items (but sorted)
 			provider.getItems().clear();
-			provider.getItems().addAll(service.findAll(SortUtils.translateSortOrders(sortOrders)));
+			com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+			provider.getItems().addAll(
+					LookupUtils.findItems(service, null, orders, () -> service.findAll(orders)));
 		} else if (SelectMode.FILTERED.equals(selectMode)) {
 			// add a filtered selection of items
 			provider.getItems().clear();
 			com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
-			if (orders != null) {
-				List<T> list = service.find(new FilterConverter<T>(targetEntityModel).convert(filter), orders);
-				provider.getItems().addAll(list);
-			} else {
-				List<T> list = service.find(new FilterConverter<T>(targetEntityModel).convert(filter));
-				provider.getItems().addAll(list);
-			}
+			Filter searchFilter = new FilterConverter<T>(targetEntityModel).convert(filter);
+			provider.getItems().addAll(LookupUtils.findItems(service, searchFilter, orders,
+					() -> orders == null ? service.find(searchFilter) : service.find(searchFilter, orders)));
 		}
 		provider.refreshAll();
 	}
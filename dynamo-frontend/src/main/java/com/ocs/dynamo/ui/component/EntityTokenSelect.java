@@ -22,13 +22,17 @@ import com.ocs.dynamo.domain.AbstractEntity;
 import com.ocs.dynamo.domain.model.AttributeModel;
 import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.filter.AndPredicate;
+import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.filter.FilterConverter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.Refreshable;
+import com.ocs.dynamo.ui.provider.LazyLookupDataProvider;
+import com.ocs.dynamo.ui.utils.LookupUtils;
 import com.ocs.dynamo.ui.utils.SortUtils;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
 import com.ocs.dynamo.utils.EntityModelUtils;
 import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.provider.SortOrder;
 import com.vaadin.flow.function.SerializablePredicate;
 
@@ -44,7 +48,13 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
         implements Refreshable, Cascadable<T> {
 
     public enum SelectMode {
-        ALL, FILTERED, FIXED;
+        ALL, FILTERED, FIXED,
+
+        /**
+         * Pages and filters in the database, only the selected values are kept in
+         * memory
+         */
+        LAZY;
     }
 
     private static final long serialVersionUID = 3041574615271340579L;
@@ -83,6 +93,11 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
 
     private EntityModel<T> targetEntityModel;
 
+    /**
+     * The data provider that is used in lazy mode
+     */
+    private LazyLookupDataProvider<ID, T> lazyProvider;
+
     /**
      * Constructor
      * 
@@ -108,21 +123,33 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
             this.setLabel(attributeModel.getDisplayName(VaadinUtils.getLocale()));
         }
 
+        setItemLabelGenerator(t -> {
+            String value = EntityModelUtils.getDisplayPropertyValue(t, targetEntityModel);
+            return value == null ? "" : value;
+        });
+
+        if (SelectMode.LAZY.equals(mode)) {
+            lazyProvider = new LazyLookupDataProvider<>(service, targetEntityModel, () -> this.filter,
+                    SortUtils.translateSortOrders(sortOrders));
+            setDataProvider(lazyProvider);
+            return;
+        }
+
         ListDataProvider<T> provider = null;
         if (SelectMode.ALL.equals(mode)) {
             // add all items (but sorted)
-            provider = new ListDataProvider<>(service.findAll(SortUtils.translateSortOrders(sortOrders)));
+            com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+            provider = new ListDataProvider<>(
+                    LookupUtils.findItems(service, null, orders, () -> service.findAll(orders)));
         } else if (SelectMode.FILTERED.equals(mode)) {
             // add a filtered selection of items
-            items = service.find(new FilterConverter<T>(targetEntityModel).convert(filter), SortUtils.translateSortOrders(sortOrders));
+            com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+            Filter searchFilter = new FilterConverter<T>(targetEntityModel).convert(filter);
+            items = LookupUtils.findItems(service, searchFilter, orders, () -> service.find(searchFilter, orders));
             provider = new ListDataProvider<>(items);
         } else if (SelectMode.FIXED.equals(mode)) {
             provider = new ListDataProvider<>(items);
         }
-        setItemLabelGenerator(t -> {
-            String value = EntityModelUtils.getDisplayPropertyValue(t, targetEntityModel);
-            return value == null ? "" : value;
-        });
         setDataProvider(provider);
     }
 
@@ -171,6 +198,23 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
         this(targetEntityModel, attributeModel, null, SelectMode.FIXED, null, items);
     }
 
+    /**
+     * Adds an entity to the list of items
+     * 
+     * @param entity the entity to add
+     */
+    @SuppressWarnings("unchecked")
+    public void addEntity(T entity) {
+        if (lazyProvider != null) {
+            // the entity has been stored in the database, so just reload
+            lazyProvider.refreshAll();
+            return;
+        }
+        ListDataProvider<T> provider = (ListDataProvider<T>) getDataProvider();
+        provider.getItems().add(entity);
+        provider.refreshAll();
+    }
+
     @Override
     public void clearAdditionalFilter() {
         this.additionalFilter = filter;
@@ -189,6 +233,9 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
 
     @SuppressWarnings("unchecked")
     public int getDataProviderSize() {
+        if (lazyProvider != null) {
+            return lazyProvider.size(new Query<>());
+        }
         ListDataProvider<T> bic = (ListDataProvider<T>) this.getDataProvider();
         return bic.getItems().size();
     }
@@ -209,22 +256,24 @@ public class EntityTokenSelect<ID extends Serializable, T extends AbstractEntity
     @Override
     public void refresh() {
         clear();
+        if (lazyProvider != null) {
+            lazyProvider.refreshAll();
+            return;
+        }
         ListDataProvider<T> provider = (ListDataProvider<T>) getDataProvider();
         if (SelectMode.ALL.equals(selectMode)) {
             // add all items (but sorted)
             provider.getItems().clear();
-            provider.getItems().addAll(service.findAll(SortUtils.translateSortOrders(sortOrders)));
+            com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
+            provider.getItems().addAll(
+                    LookupUtils.findItems(service, null, orders, () -> service.findAll(orders)));
         } else if (SelectMode.FILTERED.equals(selectMode)) {
             // add a filtered selection of items
             provider.getItems().clear();
             com.ocs.dynamo.dao.SortOrder[] orders = SortUtils.translateSortOrders(sortOrders);
-            if (orders != null) {
-                List<T> list = service.find(new FilterConverter<T>(targetEntityModel).convert(filter), orders);
-                provider.getItems().addAll(list);
-            } else {
-                List<T> list = service.find(new FilterConverter<T>(targetEntityModel).convert(filter));
-                provider.getItems().addAll(list);
-            }
+            Filter searchFilter = new FilterConverter<T>(targetEntityModel).convert(filter);
+            provider.getItems().addAll(LookupUtils.findItems(service, searchFilter, orders,
+                    () -> orders == null ? service.find(searchFilter) : service.find(searchFilter, orders)));
         }
         provider.refreshAll();
     }
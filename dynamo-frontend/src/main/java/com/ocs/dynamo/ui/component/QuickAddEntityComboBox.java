@@ -97,10 +97,8 @@ public class QuickAddEntityComboBox<ID extends Serializable, T extends AbstractE
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	protected void afterNewEntityAdded(T entity) {
-		ListDataProvider<T> provider = (ListDataProvider<T>) comboBox.getDataProvider();
-		provider.getItems().add(entity);
+		comboBox.addEntity(entity);
 		comboBox.setValue(entity);
 	}
 
@@ -131,7 +129,8 @@ public class QuickAddEntityComboBox<ID extends Serializable, T extends AbstractE
 	@Override
 	@SuppressWarnings("unchecked")
 	public ListDataProvider<T> getSharedProvider() {
-		return (ListDataProvider<T>) comboBox.getDataProvider();
+		// a lazy provider cannot be shared
+		return comboBox.getDataProvider() instanceof ListDataProvider ? (ListDataProvider<T>) comboBox.getDataProvider() : null;
 	}
 
 	@Override
@@ -93,11 +93,9 @@ public class QuickAddListSingleSelect<ID extends Serializable, T extends Abstrac
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	protected void afterNewEntityAdded(T entity) {
 		// add to the container
-		ListDataProvider<T> provider = (ListDataProvider<T>) listSelect.getDataProvider();
-		provider.getItems().add(entity);
+		listSelect.addEntity(entity);
 		listSelect.setValue(entity);
 	}
 
@@ -131,7 +129,8 @@ public class QuickAddListSingleSelect<ID extends Serializable, T extends Abstrac
 	@Override
 	@SuppressWarnings("unchecked")
 	public ListDataProvider<T> getSharedProvider() {
-		return (ListDataProvider<T>) listSelect.getDataProvider();
+		// a lazy provider cannot be shared
+		return listSelect.getDataProvider() instanceof ListDataProvider ? (ListDataProvider<T>) listSelect.getDataProvider() : null;
 	}
 
 	@Override
@@ -205,6 +204,10 @@ public class QuickAddListSingleSelect<ID extends Serializable, T extends Abstrac
 	protected void setPresentationValue(T value) {
 		if (listSelect != null) {
 			// select the item if it's included in the item list
+			if (!(listSelect.getDataProvider() instanceof ListDataProvider)) {
+				listSelect.setValue(value);
+				return;
+			}
 			ListDataProvider<T> provider = (ListDataProvider<T>) listSelect.getDataProvider();
 			if (provider.getItems().contains(value)) {
 				listSelect.setValue(value);
@@ -26,7 +26,6 @@ import com.ocs.dynamo.ui.Refreshable;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
-import com.vaadin.flow.data.provider.ListDataProvider;
 import com.vaadin.flow.data.provider.SortOrder;
 import com.vaadin.flow.function.SerializablePredicate;
 
@@ -81,11 +80,9 @@ public class QuickAddTokenSelect<ID extends Serializable, T extends AbstractEnti
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	protected void afterNewEntityAdded(T entity) {
 		// add to the container
-		ListDataProvider<T> provider = (ListDataProvider<T>) tokenSelect.getDataProvider();
-		provider.getItems().add(entity);
+		tokenSelect.addEntity(entity);
 		tokenSelect.select(entity);
 	}
 
@@ -14,7 +14,9 @@
 package com.ocs.dynamo.ui.composite.grid;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -116,12 +118,13 @@ public abstract class InMemoryTreeGrid<T, ID, C extends AbstractEntity<ID>, ID2,
 
         // retrieve the parent rows to display
         final List<P> parentCollection = getParentCollection();
+        final Map<P, List<C>> childMap = getChildren(parentCollection);
         for (P parent : parentCollection) {
 
             T t = createParentRow(parent);
             data.addItem(null, t);
 
-            List<C> children = getChildren(parent);
+            List<C> children = childMap.getOrDefault(parent, Collections.emptyList());
             for (C child : children) {
 
                 T t2 = createChildRow(child, parent);
@@ -237,6 +240,22 @@ public abstract class InMemoryTreeGrid<T, ID, C extends AbstractEntity<ID>, ID2,
      */
     protected abstract List<C> getChildren(P parent);
 
+    /**
+     * Returns the children of all provided parent entities. By default this calls
+     * {@link #getChildren(AbstractEntity)} for every parent; override this method
+     * to retrieve the children of all parents using a single query instead
+     * 
+     * @param parents the parent entities
+     * @return the children, grouped by parent
+     */
+    protected Map<P, List<C>> getChildren(List<P> parents) {
+        Map<P, List<C>> result = new LinkedHashMap<>();
+        for (P parent : parents) {
+            result.put(parent, getChildren(parent));
+        }
+        return result;
+    }
+
     /**
      * Returns the custom style to use for a certain row
      * 
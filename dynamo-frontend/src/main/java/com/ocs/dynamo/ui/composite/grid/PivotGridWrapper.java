@@ -155,9 +155,13 @@ public class PivotGridWrapper<ID extends Serializable, T extends AbstractEntity<
 
 	protected PivotDataProvider<ID, T> constructDataProvider() {
 
-		if (QueryType.PAGING.equals(getQueryType())) {
-			wrappedProvider = new PagingDataProvider<>(getService(), getEntityModel(),
+		if (QueryType.PAGING.equals(getQueryType()) || QueryType.KEYSET.equals(getQueryType())
+				|| QueryType.PROJECTION.equals(getQueryType())) {
+			PagingDataProvider<ID, T> pagingProvider = new PagingDataProvider<>(getService(), getEntityModel(),
 					getFormOptions().isShowNextButton() || getFormOptions().isShowPrevButton(), getJoins());
+			pagingProvider.setKeysetPaging(QueryType.KEYSET.equals(getQueryType()));
+			pagingProvider.setProjection(QueryType.PROJECTION.equals(getQueryType()));
+			wrappedProvider = pagingProvider;
 		} else {
 			wrappedProvider = new IdBasedDataProvider<>(getService(), getEntityModel(), getJoins());
 		}
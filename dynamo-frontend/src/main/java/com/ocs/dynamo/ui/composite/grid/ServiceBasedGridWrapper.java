@@ -69,9 +69,13 @@ public class ServiceBasedGridWrapper<ID extends Serializable, T extends Abstract
     @Override
     protected DataProvider<T, SerializablePredicate<T>> constructDataProvider() {
         BaseDataProvider<ID, T> provider;
-        if (QueryType.PAGING.equals(getQueryType())) {
-            provider = new PagingDataProvider<>(getService(), getEntityModel(),
+        if (QueryType.PAGING.equals(getQueryType()) || QueryType.KEYSET.equals(getQueryType())
+                || QueryType.PROJECTION.equals(getQueryType())) {
+            PagingDataProvider<ID, T> pagingProvider = new PagingDataProvider<>(getService(), getEntityModel(),
                     getFormOptions().isShowNextButton() || getFormOptions().isShowPrevButton(), getJoins());
+            pagingProvider.setKeysetPaging(QueryType.KEYSET.equals(getQueryType()));
+            pagingProvider.setProjection(QueryType.PROJECTION.equals(getQueryType()));
+            provider = pagingProvider;
         } else {
             provider = new IdBasedDataProvider<>(getService(), getEntityModel(), getJoins());
         }
@@ -14,11 +14,14 @@
 package com.ocs.dynamo.ui.provider;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.IdList;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrder.Direction;
 import com.ocs.dynamo.dao.SortOrders;
@@ -90,6 +93,17 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
      */
     protected List<ID> ids;
 
+    /**
+     * Index from ID to the position of that ID in the list of IDs. Built lazily
+     * when needed
+     */
+    private transient Map<ID, Integer> idIndex;
+
+    /**
+     * The list of IDs for which the index was built
+     */
+    private transient List<ID> indexedIds;
+
     /**
      * Code to carry out after the count query completes
      */
@@ -177,7 +191,7 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
     }
 
     public ID getNextItemId() {
-        int index = ids.indexOf(currentlySelectedId);
+        int index = indexOfId(currentlySelectedId);
         if (index < ids.size() - 1) {
             currentlySelectedId = ids.get(index + 1);
             return currentlySelectedId;
@@ -186,7 +200,7 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
     }
 
     public ID getPreviousItemId() {
-        int index = ids.indexOf(currentlySelectedId);
+        int index = indexOfId(currentlySelectedId);
         if (index > 0) {
             currentlySelectedId = ids.get(index - 1);
             return currentlySelectedId;
@@ -213,7 +227,7 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
         if (ids == null) {
             return false;
         }
-        int index = ids.indexOf(currentlySelectedId);
+        int index = indexOfId(currentlySelectedId);
         return index < ids.size() - 1;
     }
 
@@ -225,7 +239,7 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
         if (ids == null) {
             return false;
         }
-        int index = ids.indexOf(currentlySelectedId);
+        int index = indexOfId(currentlySelectedId);
         return index > 0;
     }
 
@@ -237,6 +251,33 @@ public abstract class BaseDataProvider<ID extends Serializable, T extends Abstra
      */
     public abstract int indexOf(ID id);
 
+    /**
+     * Looks up the position of an ID in the list of IDs, using a hash index that
+     * is (re)built whenever the list of IDs has been replaced. An {@link IdList}
+     * uses its own index
+     * 
+     * @param id the ID to look for
+     * @return the position of the ID, or -1 if it cannot be found
+     */
+    protected int indexOfId(ID id) {
+        if (ids == null) {
+            return -1;
+        }
+        if (ids instanceof IdList) {
+            // ID lists maintain their own (primitive) index
+            return ids.indexOf(id);
+        }
+        if (idIndex == null || indexedIds != ids) {
+            Map<ID, Integer> index = new HashMap<>(ids.size() * 4 / 3 + 1);
+            for (int i = 0; i < ids.size(); i++) {
+                index.putIfAbsent(ids.get(i), i);
+            }
+            idIndex = index;
+            indexedIds = ids;
+        }
+        return idIndex.getOrDefault(id, -1);
+    }
+
     @Override
     public boolean isInMemory() {
         return false;
@@ -16,6 +16,7 @@ package com.ocs.dynamo.ui.provider;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import com.ocs.dynamo.dao.FetchJoinInformation;
@@ -23,7 +24,6 @@ import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.AbstractEntity;
 import com.ocs.dynamo.domain.model.EntityModel;
 import com.ocs.dynamo.filter.Filter;
-import com.ocs.dynamo.filter.FilterConverter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
 import com.vaadin.flow.data.provider.Query;
@@ -31,7 +31,9 @@ import com.vaadin.flow.function.SerializablePredicate;
 
 /**
  * A data provider that first looks up the IDs of the matching entities and then
- * uses those IDs for pagination
+ * uses those IDs for pagination. The IDs are retrieved once per combination of
+ * filter and sort order (when the size is requested, or when the filter or sort
+ * order has changed) and after that every page is sliced from this snapshot
  * 
  * @author Bas Rutten
  *
@@ -48,6 +50,27 @@ public class IdBasedDataProvider<ID extends Serializable, T extends AbstractEnti
      */
     private boolean showNotification = true;
 
+    /**
+     * Whether the current snapshot of IDs is still valid
+     */
+    private boolean snapshotValid;
+
+    /**
+     * The filter that was used to retrieve the current snapshot of IDs
+     */
+    private transient Filter snapshotFilter;
+
+    /**
+     * The sort orders that were used to retrieve the current snapshot of IDs
+     */
+    private transient SortOrders snapshotSortOrders;
+
+    /**
+     * The maximum number of results that applied when the current snapshot of IDs
+     * was retrieved
+     */
+    private Integer snapshotMaxResults;
+
     /**
      * Constructor
      * 
@@ -61,26 +84,23 @@ public class IdBasedDataProvider<ID extends Serializable, T extends AbstractEnti
 
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
-
-        // when sort order changes, IDs have to be fetched again
         SortOrders so = createSortOrder(query);
-        showNotification = false;
-        size(query);
-        showNotification = true;
-
-        List<ID> results = new ArrayList<>();
-        int index = query.getOffset();
+        Filter filter = getFilterConverter().convert(query.getFilter().orElse(null));
 
-        // Try to load the IDs when they have not been loaded yet
-        if (ids == null) {
-            size(query);
+        // when the filter or sort order changes, IDs have to be fetched again
+        if (!isSnapshotValid(filter, so)) {
+            showNotification = false;
+            loadIds(filter, so);
+            showNotification = true;
         }
+
         // construct a page worth of IDs
+        List<ID> results = new ArrayList<>();
+        int index = query.getOffset();
         if (ids != null && !ids.isEmpty()) {
-            while (index < ids.size() && results.size() < query.getLimit()) {
-                ID id = ids.get(index);
-                results.add(id);
-                index++;
+            int end = Math.min(ids.size(), index + query.getLimit());
+            if (index < end) {
+                results.addAll(ids.subList(index, end));
             }
         }
         List<T> result = getService().fetchByIds(results, so, getJoins());
@@ -92,13 +112,35 @@ public class IdBasedDataProvider<ID extends Serializable, T extends AbstractEnti
         return ids == null ? 0 : ids.size();
     }
 
-    @Override
-    public int size(Query<T, SerializablePredicate<T>> query) {
-        SortOrders so = createSortOrder(query);
+    /**
+     * Invalidates the snapshot of IDs so that it is retrieved again during the next
+     * size or fetch request
+     */
+    public void invalidateSnapshot() {
+        snapshotValid = false;
+    }
 
-        FilterConverter<T> converter = getFilterConverter();
-        Filter filter = converter.convert(query.getFilter().orElse(null));
+    /**
+     * Checks whether the current snapshot of IDs was retrieved using the provided
+     * filter and sort orders and can be reused
+     * 
+     * @param filter the filter
+     * @param so     the sort orders
+     * @return
+     */
+    private boolean isSnapshotValid(Filter filter, SortOrders so) {
+        return snapshotValid && ids != null && Objects.equals(filter, snapshotFilter) && so.equals(snapshotSortOrders)
+                && Objects.equals(getMaxResults(), snapshotMaxResults);
+    }
 
+    /**
+     * Retrieves the IDs of the entities that match the filter and stores them as
+     * the current snapshot
+     * 
+     * @param filter the filter
+     * @param so     the sort orders
+     */
+    private void loadIds(Filter filter, SortOrders so) {
         if (getMaxResults() != null) {
             Long count = getService().count(filter, false);
             if (showNotification && count >= getMaxResults()) {
@@ -106,21 +148,40 @@ public class IdBasedDataProvider<ID extends Serializable, T extends AbstractEnti
             }
         }
         ids = getService().findIds(filter, getMaxResults(), so.toArray());
+        snapshotFilter = filter;
+        snapshotSortOrders = so;
+        snapshotMaxResults = getMaxResults();
+        snapshotValid = true;
+
         if (getAfterCountCompleted() != null) {
             getAfterCountCompleted().accept(ids.size());
         }
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidateSnapshot();
+        super.refreshAll();
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        // the size is requested whenever the grid (re)starts a query, so always
+        // retrieve a fresh snapshot
+        SortOrders so = createSortOrder(query);
+        Filter filter = getFilterConverter().convert(query.getFilter().orElse(null));
+        loadIds(filter, so);
         return ids.size();
     }
 
     @Override
     public ID firstItemId() {
-        return ids == null ? null : ids.get(0);
+        return ids == null || ids.isEmpty() ? null : ids.get(0);
     }
 
     @Override
     public int indexOf(ID id) {
-        return ids.indexOf(id);
+        return indexOfId(id);
     }
-    
-    
+
 }
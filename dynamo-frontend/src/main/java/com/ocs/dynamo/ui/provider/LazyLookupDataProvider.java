@@ -0,0 +1,133 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.ui.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.dao.SortOrders;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.domain.model.EntityModel;
+import com.ocs.dynamo.filter.And;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.filter.FilterConverter;
+import com.ocs.dynamo.filter.Like;
+import com.ocs.dynamo.service.BaseService;
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.SerializableSupplier;
+
+/**
+ * Data provider for lookup components (combo boxes, token selects) that pages
+ * and filters in the database rather than loading the complete table into
+ * memory. The text that is typed by the user is matched against the display
+ * property of the entity
+ *
+ * @author Bas Rutten
+ *
+ * @param <ID> the type of the ID of the entity
+ * @param <T>  the type of the entity
+ */
+public class LazyLookupDataProvider<ID extends Serializable, T extends AbstractEntity<ID>>
+        extends AbstractBackEndDataProvider<T, String> {
+
+    private static final long serialVersionUID = -1702543318806349637L;
+
+    private final BaseService<ID, T> service;
+
+    private final EntityModel<T> entityModel;
+
+    /**
+     * Supplier for the (cascaded) search filter of the component
+     */
+    private final SerializableSupplier<SerializablePredicate<T>> filterSupplier;
+
+    private final SortOrder[] sortOrders;
+
+    /**
+     * Constructor
+     *
+     * @param service        the service used to retrieve the entities
+     * @param entityModel    the entity model of the entities
+     * @param filterSupplier supplier for the search filter to apply in addition
+     *                       to the text filter
+     * @param sortOrders     the sort orders to apply
+     */
+    public LazyLookupDataProvider(BaseService<ID, T> service, EntityModel<T> entityModel,
+            SerializableSupplier<SerializablePredicate<T>> filterSupplier, SortOrder... sortOrders) {
+        this.service = service;
+        this.entityModel = entityModel;
+        this.filterSupplier = filterSupplier;
+        this.sortOrders = sortOrders;
+    }
+
+    @Override
+    protected Stream<T> fetchFromBackEnd(Query<T, String> query) {
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+        if (limit <= 0) {
+            return Stream.empty();
+        }
+
+        Filter filter = createFilter(query.getFilter().orElse(null));
+        SortOrders orders = new SortOrders(sortOrders);
+        if (offset % limit == 0) {
+            return service.fetch(filter, offset / limit, limit, orders).stream();
+        }
+
+        // offset is not aligned with the page size, retrieve the (at most two) pages
+        // that contain the requested rows and take the rows from those
+        int page = offset / limit;
+        List<T> list = new ArrayList<>(service.fetch(filter, page, limit, orders));
+        if (list.size() == limit) {
+            list.addAll(service.fetch(filter, page + 1, limit, orders));
+        }
+        return list.stream().skip(offset % limit).limit(limit);
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<T, String> query) {
+        return (int) service.count(createFilter(query.getFilter().orElse(null)), false);
+    }
+
+    /**
+     * Creates the database filter by combining the search filter of the component
+     * with a "like" filter on the display property
+     *
+     * @param text the text typed by the user
+     * @return
+     */
+    private Filter createFilter(String text) {
+        List<Filter> filters = new ArrayList<>();
+        SerializablePredicate<T> predicate = filterSupplier == null ? null : filterSupplier.get();
+        if (predicate != null) {
+            filters.add(new FilterConverter<T>(entityModel).convert(predicate));
+        }
+        if (!StringUtils.isEmpty(text) && entityModel.getDisplayProperty() != null) {
+            filters.add(new Like(entityModel.getDisplayProperty(), "%" + text + "%", false));
+        }
+
+        if (filters.isEmpty()) {
+            return null;
+        }
+        return filters.size() == 1 ? filters.get(0) : new And(filters.toArray(new Filter[0]));
+    }
+
+}
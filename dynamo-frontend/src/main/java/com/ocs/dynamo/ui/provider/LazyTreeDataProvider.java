@@ -0,0 +1,183 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.ui.provider;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.ocs.dynamo.constants.DynamoConstants;
+import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.QueryFunction;
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.dao.SortOrder.Direction;
+import com.ocs.dynamo.dao.SortOrders;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.domain.model.EntityModel;
+import com.ocs.dynamo.filter.And;
+import com.ocs.dynamo.filter.Compare;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.filter.FilterConverter;
+import com.ocs.dynamo.filter.In;
+import com.ocs.dynamo.filter.IsNull;
+import com.ocs.dynamo.service.BaseService;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.data.provider.hierarchy.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import com.vaadin.flow.function.SerializablePredicate;
+
+/**
+ * A hierarchical data provider for entities that refer to their parent. The
+ * children of a node are only retrieved (a page at a time) when the node is
+ * expanded. Whether the nodes have children is determined using a single
+ * grouped count query for every page of nodes rather than a query per node
+ *
+ * @author Bas Rutten
+ *
+ * @param <ID> the type of the primary key
+ * @param <T>  the type of the entity
+ */
+public class LazyTreeDataProvider<ID extends Serializable, T extends AbstractEntity<ID>>
+        extends AbstractBackEndHierarchicalDataProvider<T, SerializablePredicate<T>> {
+
+    private static final long serialVersionUID = -2867160383529446124L;
+
+    private final BaseService<ID, T> service;
+
+    private final EntityModel<T> entityModel;
+
+    private final FetchJoinInformation[] joins;
+
+    /**
+     * The name of the property that refers to the parent
+     */
+    private final String parentProperty;
+
+    /**
+     * The number of children per node, determined for every page of nodes that is
+     * retrieved
+     */
+    private final Map<ID, Long> childCounts = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param service        the service
+     * @param entityModel    the entity model
+     * @param parentProperty the name of the property that refers to the parent
+     * @param joins          the joins to use when querying
+     */
+    public LazyTreeDataProvider(BaseService<ID, T> service, EntityModel<T> entityModel, String parentProperty,
+            FetchJoinInformation... joins) {
+        this.service = service;
+        this.entityModel = entityModel;
+        this.parentProperty = parentProperty;
+        this.joins = joins;
+    }
+
+    /**
+     * Creates the filter for retrieving the children of the parent of the query
+     *
+     * @param query the query
+     * @return
+     */
+    private Filter createFilter(HierarchicalQuery<T, SerializablePredicate<T>> query) {
+        Filter parentFilter = query.getParent() == null ? new IsNull(parentProperty)
+                : new Compare.Equal(parentProperty, query.getParent());
+        Filter filter = new FilterConverter<>(entityModel).convert(query.getFilter().orElse(null));
+        return filter == null ? parentFilter : new And(parentFilter, filter);
+    }
+
+    /**
+     * Creates the sort orders for a query
+     *
+     * @param query the query
+     * @return
+     */
+    private SortOrders createSortOrders(HierarchicalQuery<T, SerializablePredicate<T>> query) {
+        SortOrders so = new SortOrders();
+        for (QuerySortOrder order : query.getSortOrders()) {
+            so.addSortOrder(new SortOrder(order.getSorted(),
+                    SortDirection.ASCENDING.equals(order.getDirection()) ? Direction.ASC : Direction.DESC));
+        }
+        if (so.getNrOfSortOrders() == 0) {
+            so.addSortOrder(new SortOrder(DynamoConstants.ID, Direction.ASC));
+        }
+        return so;
+    }
+
+    @Override
+    protected Stream<T> fetchChildrenFromBackEnd(HierarchicalQuery<T, SerializablePredicate<T>> query) {
+        int pageSize = query.getLimit();
+        int page = query.getOffset() / pageSize;
+        List<T> nodes = service.fetch(createFilter(query), page, pageSize, createSortOrders(query), joins);
+        determineChildCounts(nodes);
+        return nodes.stream();
+    }
+
+    /**
+     * Determines the number of children of the provided nodes using a single
+     * grouped count query
+     *
+     * @param nodes the nodes
+     */
+    @SuppressWarnings("unchecked")
+    private void determineChildCounts(List<T> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        String parentId = parentProperty + "." + DynamoConstants.ID;
+        List<ID> ids = nodes.stream().map(AbstractEntity::getId).collect(Collectors.toList());
+        ids.forEach(id -> childCounts.put(id, 0L));
+
+        List<?> rows = service.findSelect(new In(parentId, ids),
+                new String[] { parentId, QueryFunction.AF_COUNT.with(DynamoConstants.ID) }, null, null);
+        for (Object row : rows) {
+            Object[] values = (Object[]) row;
+            childCounts.put((ID) values[0], ((Number) values[1]).longValue());
+        }
+    }
+
+    @Override
+    public int getChildCount(HierarchicalQuery<T, SerializablePredicate<T>> query) {
+        return (int) service.count(createFilter(query), false);
+    }
+
+    @Override
+    public Object getId(T item) {
+        return item.getId();
+    }
+
+    @Override
+    public boolean hasChildren(T item) {
+        Long count = childCounts.get(item.getId());
+        if (count == null) {
+            count = service.count(new Compare.Equal(parentProperty, item), false);
+            childCounts.put(item.getId(), count);
+        }
+        return count > 0;
+    }
+
+    @Override
+    public void refreshAll() {
+        childCounts.clear();
+        super.refreshAll();
+    }
+
+}
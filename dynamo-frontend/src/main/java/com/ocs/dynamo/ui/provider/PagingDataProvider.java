@@ -14,16 +14,31 @@
 package com.ocs.dynamo.ui.provider;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Stream;
 
+import javax.persistence.Column;
+import javax.persistence.Transient;
+
+import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.KeysetPageable;
+import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.domain.model.AttributeModel;
+import com.ocs.dynamo.domain.model.AttributeType;
 import com.ocs.dynamo.domain.model.EntityModel;
+import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.filter.FilterConverter;
 import com.ocs.dynamo.service.BaseService;
 import com.ocs.dynamo.ui.utils.VaadinUtils;
+import com.ocs.dynamo.utils.ClassUtils;
 import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.function.SerializablePredicate;
 
@@ -38,6 +53,12 @@ public class PagingDataProvider<ID extends Serializable, T extends AbstractEntit
 
     private static final long serialVersionUID = 8238057223431007376L;
 
+    /**
+     * The maximum number of page boundaries for which the key values are
+     * remembered
+     */
+    private static final int MAX_KEYSET_BOUNDARIES = 200;
+
     /**
      * The number of items in the provider. This is set by doing a count query
      */
@@ -48,6 +69,40 @@ public class PagingDataProvider<ID extends Serializable, T extends AbstractEntit
      */
     private boolean iterationRequired;
 
+    /**
+     * Whether to use keyset (seek) paging rather than offset paging. This is only
+     * done when none of the sort properties can be empty, since the seek predicate
+     * does not match rows that have an empty sort key
+     */
+    private boolean keysetPaging;
+
+    /**
+     * The sort key values of the last row before a certain offset, used for keyset
+     * paging
+     */
+    private transient Map<Integer, Object[]> keysetBoundaries;
+
+    /**
+     * The filter for which the keyset boundaries were collected
+     */
+    private transient Filter keysetFilter;
+
+    /**
+     * The sort orders for which the keyset boundaries were collected
+     */
+    private transient SortOrders keysetSortOrders;
+
+    /**
+     * Whether to retrieve only the properties that are displayed in the grid
+     * rather than the full entities
+     */
+    private boolean projection;
+
+    /**
+     * The properties to select when using projection queries
+     */
+    private transient String[] projectionProperties;
+
     /**
      * Constructor
      * 
@@ -69,9 +124,169 @@ public class PagingDataProvider<ID extends Serializable, T extends AbstractEntit
         int pageSize = getMaxResults() != null && offset + query.getLimit() > getMaxResults() ? getMaxResults() - offset : query.getLimit();
         SortOrders sortOrders = createSortOrder(query);
         Filter filter = converter.convert(query.getFilter().orElse(null));
+        if (projection) {
+            return fetchProjection(filter, page, pageSize, sortOrders).stream();
+        }
+        if (keysetPaging && isNotNullable(sortOrders)) {
+            return fetchKeyset(filter, offset, page, pageSize, sortOrders).stream();
+        }
         return getService().fetch(filter, page, pageSize, sortOrders, getJoins()).stream();
     }
 
+    /**
+     * Fetches a page using keyset paging. This is possible when the page directly
+     * follows a page that was fetched before (e.g. when scrolling down), otherwise
+     * the page is retrieved using the offset
+     * 
+     * @param filter     the filter
+     * @param offset     the offset of the first row to fetch
+     * @param page       the page number
+     * @param pageSize   the page size
+     * @param sortOrders the sort orders
+     * @return
+     */
+    private List<T> fetchKeyset(Filter filter, int offset, int page, int pageSize, SortOrders sortOrders) {
+        if (keysetBoundaries == null || !Objects.equals(filter, keysetFilter) || !sortOrders.equals(keysetSortOrders)) {
+            clearKeysetBoundaries();
+            keysetFilter = filter;
+            keysetSortOrders = sortOrders;
+        }
+
+        Object[] keyValues = offset == 0 ? null : keysetBoundaries.get(offset);
+        KeysetPageable pageable = new KeysetPageable(page, pageSize, sortOrders, keyValues);
+        List<T> results = getService().fetch(filter, pageable, getJoins());
+
+        if (!results.isEmpty()) {
+            Object[] lastValues = extractKeyValues(results.get(results.size() - 1), pageable.getSortOrders());
+            if (lastValues != null) {
+                keysetBoundaries.put(offset + results.size(), lastValues);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Fetches a page by selecting only the properties that are displayed in the
+     * grid. Every row is turned into a new (unmanaged) instance of the entity class
+     * on which only the ID and the selected properties are set, so no entities are
+     * hydrated and nothing is added to the persistence context. The full entity
+     * must be loaded (using the ID) before it is edited
+     * 
+     * @param filter     the filter
+     * @param page       the page number
+     * @param pageSize   the page size
+     * @param sortOrders the sort orders
+     * @return
+     */
+    private List<T> fetchProjection(Filter filter, int page, int pageSize, SortOrders sortOrders) {
+        String[] properties = getProjectionProperties();
+        List<?> rows = getService().findSelect(filter, properties, page, pageSize, sortOrders);
+
+        List<T> results = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] values = row instanceof Object[] ? (Object[]) row : new Object[] { row };
+            T entity = ClassUtils.instantiateClass(getEntityModel().getEntityClass());
+            for (int i = 0; i < properties.length; i++) {
+                ClassUtils.setFieldValue(entity, properties[i], values[i]);
+            }
+            results.add(entity);
+        }
+        return results;
+    }
+
+    /**
+     * Determines the properties to select when using projection queries: the ID
+     * and all persistent basic attributes that are visible in the grid. Attributes
+     * of other types (e.g. master or detail attributes) are not retrieved
+     * 
+     * @return
+     */
+    private String[] getProjectionProperties() {
+        if (projectionProperties == null) {
+            Class<T> entityClass = getEntityModel().getEntityClass();
+            List<String> properties = new ArrayList<>();
+            properties.add(DynamoConstants.ID);
+            for (AttributeModel am : getEntityModel().getAttributeModels()) {
+                if (am.isVisibleInGrid() && AttributeType.BASIC.equals(am.getAttributeType()) && !am.getPath().contains(".")
+                        && !DynamoConstants.ID.equals(am.getPath()) && ClassUtils.getField(entityClass, am.getPath()) != null
+                        && ClassUtils.getAnnotation(entityClass, am.getPath(), Transient.class) == null) {
+                    properties.add(am.getPath());
+                }
+            }
+            projectionProperties = properties.toArray(new String[0]);
+        }
+        return projectionProperties;
+    }
+
+    /**
+     * Checks whether none of the sort properties can be empty, based on the
+     * &#64;NotNull and &#64;Column annotations. Nested properties are regarded as
+     * nullable since the relation might be empty
+     * 
+     * @param sortOrders the sort orders
+     * @return
+     */
+    private boolean isNotNullable(SortOrders sortOrders) {
+        Class<T> entityClass = getEntityModel().getEntityClass();
+        for (SortOrder order : sortOrders.getOrders()) {
+            String property = order.getProperty();
+            if (DynamoConstants.ID.equals(property)) {
+                continue;
+            }
+            if (property.contains(".")) {
+                return false;
+            }
+
+            AttributeModel am = getEntityModel().getAttributeModel(property);
+            Column column = ClassUtils.getAnnotation(entityClass, property, Column.class);
+            boolean notNull = (am != null && (am.isRequired() || am.getType().isPrimitive()))
+                    || (column != null && !column.nullable());
+            if (!notNull) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the values of the sort properties from an entity
+     * 
+     * @param entity     the entity
+     * @param sortOrders the sort orders
+     * @return the values, or <code>null</code> if they cannot be determined (in
+     *         which case the next page will be fetched using the offset)
+     */
+    private Object[] extractKeyValues(T entity, SortOrders sortOrders) {
+        SortOrder[] orders = sortOrders.toArray();
+        Object[] values = new Object[orders.length];
+        try {
+            for (int i = 0; i < orders.length; i++) {
+                values[i] = ClassUtils.getFieldValue(entity, orders[i].getProperty());
+                if (values[i] == null) {
+                    return null;
+                }
+            }
+        } catch (OCSRuntimeException ex) {
+            return null;
+        }
+        return values;
+    }
+
+    /**
+     * Clears the remembered keyset boundaries
+     */
+    private void clearKeysetBoundaries() {
+        keysetBoundaries = new LinkedHashMap<>() {
+
+            private static final long serialVersionUID = -3093478512373845416L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                return size() > MAX_KEYSET_BOUNDARIES;
+            }
+        };
+    }
+
     @Override
     public int getSize() {
         return size;
@@ -82,6 +297,11 @@ public class PagingDataProvider<ID extends Serializable, T extends AbstractEntit
         FilterConverter<T> converter = new FilterConverter<>(getEntityModel());
         Filter filter = converter.convert(query.getFilter().orElse(null));
 
+        if (keysetPaging) {
+            // the data set might have changed, so the previous boundaries are no longer valid
+            clearKeysetBoundaries();
+        }
+
         size = (int) getService().count(filter, false);
         if (getMaxResults() != null && size >= getMaxResults()) {
             showNotification(getMessageService().getMessage("ocs.too.many.results", VaadinUtils.getLocale(), getMaxResults()));
@@ -107,7 +327,23 @@ public class PagingDataProvider<ID extends Serializable, T extends AbstractEntit
 
     @Override
     public int indexOf(ID id) {
-        return ids == null ? -1 : ids.indexOf(id);
+        return indexOfId(id);
+    }
+
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
+
+    public void setKeysetPaging(boolean keysetPaging) {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public boolean isProjection() {
+        return projection;
+    }
+
+    public void setProjection(boolean projection) {
+        this.projection = projection;
     }
 
 }
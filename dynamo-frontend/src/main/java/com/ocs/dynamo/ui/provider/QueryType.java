@@ -20,5 +20,19 @@ package com.ocs.dynamo.ui.provider;
  */
 public enum QueryType {
 
-    NONE, PAGING, ID_BASED;
+    NONE, PAGING, ID_BASED,
+
+    /**
+     * Paging that uses the sort key values of the last row of the previous page
+     * (keyset or seek paging) rather than an offset, so that retrieving a page
+     * deep in the result set does not get slower the further the user scrolls
+     */
+    KEYSET,
+
+    /**
+     * Paging that only selects the properties that are displayed in the grid
+     * rather than loading the full entities. The entity is loaded separately when
+     * it is selected
+     */
+    PROJECTION;
 }
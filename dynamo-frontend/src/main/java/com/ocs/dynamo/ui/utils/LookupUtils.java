@@ -0,0 +1,59 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.ui.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.service.BaseService;
+import com.ocs.dynamo.service.LookupCache;
+import com.ocs.dynamo.service.ServiceLocatorFactory;
+
+/**
+ * Utility methods for retrieving the items of lookup components
+ *
+ * @author Bas Rutten
+ *
+ */
+public final class LookupUtils {
+
+    private LookupUtils() {
+    }
+
+    /**
+     * Retrieves the items to display in a lookup component. The items are taken
+     * from the application wide lookup cache when one is available. In that case
+     * the entities are shared with other sessions and must be treated as
+     * read-only
+     *
+     * @param service the service used to retrieve the items
+     * @param filter  the filter that is applied by the loader
+     * @param orders  the sort orders that are applied by the loader
+     * @param loader  the function that retrieves the items from the service
+     * @return a modifiable copy of the list of items, for use by a single
+     *         component
+     */
+    public static <ID, T extends AbstractEntity<ID>> List<T> findItems(BaseService<ID, T> service, Filter filter,
+            SortOrder[] orders, Supplier<List<T>> loader) {
+        LookupCache cache = ServiceLocatorFactory.getServiceLocator().getLookupCache();
+        if (cache == null || service.getEntityClass() == null) {
+            return loader.get();
+        }
+        return new ArrayList<>(cache.find(service.getEntityClass(), filter, orders, loader));
+    }
+}
@@ -15,10 +15,13 @@ package com.ocs.dynamo.ui.component;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import java.util.List;
 
@@ -26,13 +29,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
 import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.TestEntity;
 import com.ocs.dynamo.domain.model.AttributeModel;
 import com.ocs.dynamo.domain.model.EntityModelFactory;
 import com.ocs.dynamo.domain.model.impl.EntityModelFactoryImpl;
+import com.ocs.dynamo.filter.And;
 import com.ocs.dynamo.filter.EqualsPredicate;
 import com.ocs.dynamo.service.TestEntityService;
 import com.ocs.dynamo.test.BaseMockitoTest;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
 
 public class EntityComboBoxTest extends BaseMockitoTest {
 
@@ -98,4 +105,26 @@ public class EntityComboBoxTest extends BaseMockitoTest {
         verify(service, times(1)).find(any(com.ocs.dynamo.filter.Filter.class), isNull());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLazy() {
+        EntityComboBox<Integer, TestEntity> select = new EntityComboBox<>(factory.getModel(TestEntity.class), null, service,
+                EntityComboBox.SelectMode.LAZY, new EqualsPredicate<TestEntity>("name", "Bob"), null, null);
+        assertEquals(EntityComboBox.SelectMode.LAZY, select.getSelectMode());
+
+        // nothing is loaded up front
+        verifyNoInteractions(service);
+
+        when(service.count(any(com.ocs.dynamo.filter.Filter.class), eq(false))).thenReturn(5L);
+        assertEquals(5, select.getDataProviderSize());
+
+        // the typed text is combined with the search filter and passed to the database
+        DataProvider<TestEntity, String> provider = (DataProvider<TestEntity, String>) select.getDataProvider();
+        provider.fetch(new Query<>(0, 50, null, null, "bo")).count();
+        verify(service).fetch(any(And.class), eq(0), eq(50), any(SortOrders.class));
+
+        select.refresh();
+        verify(service, never()).find(any(com.ocs.dynamo.filter.Filter.class), isNull());
+    }
+
 }
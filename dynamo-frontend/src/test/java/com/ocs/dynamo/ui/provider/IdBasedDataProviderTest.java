@@ -9,6 +9,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -143,6 +144,30 @@ public class IdBasedDataProviderTest extends BaseMockitoTest {
 		assertNotNull(so.getOrderFor("name"));
 	}
 
+	/**
+	 * Test that the IDs are only retrieved once and that subsequent fetches slice
+	 * the cached snapshot, until the provider is refreshed
+	 */
+	@Test
+	public void testFetchReusesSnapshot() {
+		when(service.findIds(isNull(), isNull(), any()))
+				.thenReturn(List.of(1, 2, 3, 4, 5, 6, 7));
+		provider = new IdBasedDataProvider<>(service, emf.getModel(TestEntity.class));
+		provider.size(query);
+		provider.fetch(query);
+
+		when(query.getOffset()).thenReturn(5);
+		provider.fetch(query);
+		verify(service).fetchByIds(eq(List.of(6, 7)), nullable(SortOrders.class), any());
+		verify(service, times(1)).findIds(isNull(), isNull(), any());
+
+		// refreshing invalidates the snapshot
+		provider.refreshAll();
+		provider.fetch(query);
+		verify(service, times(2)).findIds(isNull(), isNull(), any());
+		assertEquals(5, provider.indexOf(6));
+	}
+
 	@Test
 	public void testNextItemId() {
 
@@ -0,0 +1,85 @@
+package com.ocs.dynamo.ui.provider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import com.ocs.dynamo.dao.SortOrders;
+import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.domain.model.EntityModelFactory;
+import com.ocs.dynamo.domain.model.impl.EntityModelFactoryImpl;
+import com.ocs.dynamo.service.TestEntityService;
+import com.ocs.dynamo.test.BaseMockitoTest;
+import com.vaadin.flow.data.provider.Query;
+
+public class LazyLookupDataProviderTest extends BaseMockitoTest {
+
+    private LazyLookupDataProvider<Integer, TestEntity> provider;
+
+    @Mock
+    private TestEntityService service;
+
+    private EntityModelFactory emf = new EntityModelFactoryImpl();
+
+    private TestEntity e3 = new TestEntity(3, "Stuart", 13L);
+
+    private TestEntity e4 = new TestEntity(4, "Pete", 14L);
+
+    private TestEntity e5 = new TestEntity(5, "Sally", 15L);
+
+    @BeforeEach
+    public void setUp() {
+        provider = new LazyLookupDataProvider<>(service, emf.getModel(TestEntity.class), null);
+    }
+
+    private List<TestEntity> fetch(int offset, int limit) {
+        return provider.fetch(new Query<>(offset, limit, List.of(), null, null)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFetchAligned() {
+        when(service.fetch(isNull(), eq(1), eq(2), any(SortOrders.class), any())).thenReturn(List.of(e3, e4));
+
+        assertEquals(List.of(e3, e4), fetch(2, 2));
+        verify(service, never()).fetch(isNull(), eq(2), anyInt(), any(SortOrders.class), any());
+    }
+
+    @Test
+    public void testFetchNoRows() {
+        assertEquals(List.of(), fetch(0, 0));
+        verify(service, never()).fetch(any(), anyInt(), anyInt(), any(SortOrders.class), any());
+    }
+
+    @Test
+    public void testFetchNotAligned() {
+        when(service.fetch(isNull(), eq(1), eq(2), any(SortOrders.class), any())).thenReturn(List.of(e3, e4));
+        when(service.fetch(isNull(), eq(2), eq(2), any(SortOrders.class), any())).thenReturn(List.of(e5));
+
+        // only the two pages that contain the requested rows are retrieved
+        assertEquals(List.of(e4, e5), fetch(3, 2));
+        verify(service, never()).fetch(isNull(), eq(0), anyInt(), any(SortOrders.class), any());
+    }
+
+    @Test
+    public void testFetchNotAligned_LastPage() {
+        when(service.fetch(isNull(), eq(1), eq(3), any(SortOrders.class), any())).thenReturn(List.of(e4, e5));
+
+        // the last page is not complete, so there is no need to retrieve the next one
+        assertEquals(List.of(e5), fetch(4, 3));
+        verify(service, never()).fetch(isNull(), eq(2), anyInt(), any(SortOrders.class), any());
+        verify(service, never()).fetch(isNull(), eq(0), anyInt(), any(SortOrders.class), any());
+    }
+
+}
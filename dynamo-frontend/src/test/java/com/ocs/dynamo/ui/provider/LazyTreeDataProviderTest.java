@@ -0,0 +1,89 @@
+package com.ocs.dynamo.ui.provider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import com.ocs.dynamo.dao.SortOrders;
+import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.domain.model.EntityModelFactory;
+import com.ocs.dynamo.domain.model.impl.EntityModelFactoryImpl;
+import com.ocs.dynamo.filter.Compare;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.filter.IsNull;
+import com.ocs.dynamo.service.TestEntityService;
+import com.ocs.dynamo.test.BaseMockitoTest;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import com.vaadin.flow.function.SerializablePredicate;
+
+public class LazyTreeDataProviderTest extends BaseMockitoTest {
+
+    private LazyTreeDataProvider<Integer, TestEntity> provider;
+
+    @Mock
+    private TestEntityService service;
+
+    private EntityModelFactory emf = new EntityModelFactoryImpl();
+
+    private TestEntity e1 = new TestEntity(1, "Bob", 11L);
+
+    private TestEntity e2 = new TestEntity(2, "Kevin", 12L);
+
+    @BeforeEach
+    public void setUp() {
+        provider = new LazyTreeDataProvider<>(service, emf.getModel(TestEntity.class), "parent");
+    }
+
+    private HierarchicalQuery<TestEntity, SerializablePredicate<TestEntity>> createQuery(TestEntity parent) {
+        return new HierarchicalQuery<>(0, 10, List.of(), null, null, parent);
+    }
+
+    @Test
+    public void testFetchRoots() {
+        when(service.fetch(any(IsNull.class), eq(0), eq(10), any(SortOrders.class), any()))
+                .thenReturn(List.of(e1, e2));
+        when(service.findSelect(any(Filter.class), any(String[].class), isNull(), isNull()))
+                .thenReturn(List.<Object>of(new Object[] { 1, 3L }));
+
+        List<TestEntity> roots = provider.fetchChildren(createQuery(null)).collect(Collectors.toList());
+        assertEquals(2, roots.size());
+
+        // the child counts of the whole page are retrieved at once
+        assertTrue(provider.hasChildren(e1));
+        assertFalse(provider.hasChildren(e2));
+        verify(service, never()).count(any(), anyBoolean());
+    }
+
+    @Test
+    public void testFetchChildren() {
+        TestEntity child = new TestEntity(3, "Stuart", 3L);
+        when(service.fetch(any(Compare.Equal.class), eq(0), eq(10), any(SortOrders.class), any()))
+                .thenReturn(List.of(child));
+        when(service.count(any(Compare.Equal.class), eq(false))).thenReturn(1L);
+
+        assertEquals(1, provider.getChildCount(createQuery(e1)));
+        List<TestEntity> children = provider.fetchChildren(createQuery(e1)).collect(Collectors.toList());
+        assertEquals(1, children.size());
+        assertFalse(provider.hasChildren(child));
+
+        // a node that was not retrieved through the provider is counted separately
+        assertTrue(provider.hasChildren(e1));
+        verify(service, times(2)).count(any(Compare.Equal.class), eq(false));
+    }
+
+}
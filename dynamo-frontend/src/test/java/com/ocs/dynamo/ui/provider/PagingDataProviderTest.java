@@ -1,22 +1,29 @@
 package com.ocs.dynamo.ui.provider;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
+import com.ocs.dynamo.dao.KeysetPageable;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.TestEntity;
 import com.ocs.dynamo.domain.model.EntityModelFactory;
@@ -129,4 +136,57 @@ public class PagingDataProviderTest extends BaseMockitoTest {
         assertNotNull(so.getOrderFor("name"));
     }
 
+    @Test
+    public void testKeysetPaging() {
+        when(service.count(nullable(Filter.class), eq(false))).thenReturn(3L);
+        provider = new PagingDataProvider<>(service, emf.getModel(TestEntity.class), false);
+        provider.setKeysetPaging(true);
+        provider.size(query);
+
+        // the name is not nullable, so keyset paging is used
+        when(query.getSortOrders()).thenReturn(List.of(new QuerySortOrder("name", SortDirection.ASCENDING)));
+        provider.fetch(query);
+        verify(service).fetch(isNull(), any(KeysetPageable.class), any());
+
+        // the age is nullable, so the offset is used instead
+        when(query.getSortOrders()).thenReturn(List.of(new QuerySortOrder("age", SortDirection.ASCENDING)));
+        provider.fetch(query);
+        verify(service).fetch(isNull(), eq(0), eq(5), any(SortOrders.class), any());
+    }
+
+    @Test
+    public void testProjection() {
+        when(service.count(nullable(Filter.class), eq(false))).thenReturn(1L);
+        when(service.findSelect(isNull(), any(String[].class), eq(0), eq(5), any(SortOrders.class))).thenAnswer(invocation -> {
+            String[] props = invocation.getArgument(1);
+            Object[] row = new Object[props.length];
+            for (int i = 0; i < props.length; i++) {
+                row[i] = "id".equals(props[i]) ? 12 : "name".equals(props[i]) ? "Bob" : null;
+            }
+            return List.<Object>of(row);
+        });
+
+        provider = new PagingDataProvider<>(service, emf.getModel(TestEntity.class), false);
+        provider.setProjection(true);
+        provider.size(query);
+
+        List<TestEntity> result = provider.fetch(query).collect(Collectors.toList());
+        assertEquals(1, result.size());
+        assertEquals(12, result.get(0).getId().intValue());
+        assertEquals("Bob", result.get(0).getName());
+        assertNull(result.get(0).getTestDomain());
+
+        // only the ID and the basic grid attributes are selected
+        ArgumentCaptor<String[]> captor = ArgumentCaptor.forClass(String[].class);
+        verify(service).findSelect(isNull(), captor.capture(), eq(0), eq(5), any(SortOrders.class));
+        List<String> props = Arrays.asList(captor.getValue());
+        assertTrue(props.contains("id"));
+        assertTrue(props.contains("name"));
+        assertFalse(props.contains("testDomain"));
+        assertFalse(props.contains("testEntities"));
+
+        // no entities are fetched
+        verify(service, never()).fetch(any(), eq(0), eq(5), any(SortOrders.class), any());
+    }
+
 }
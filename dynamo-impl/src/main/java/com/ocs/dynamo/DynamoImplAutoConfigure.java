@@ -13,14 +13,22 @@
  */
 package com.ocs.dynamo;
 
+import javax.persistence.EntityManagerFactory;
+
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.domain.model.EntityModelFactory;
 import com.ocs.dynamo.domain.model.impl.EntityModelFactoryImpl;
+import com.ocs.dynamo.domain.model.impl.EntityModelPreWarmer;
+import com.ocs.dynamo.service.LookupCache;
 import com.ocs.dynamo.service.MessageService;
+import com.ocs.dynamo.service.impl.LookupCacheImpl;
 import com.ocs.dynamo.service.impl.MessageServiceImpl;
+import com.ocs.dynamo.util.SystemPropertyUtils;
 
 /**
  * Auto configuration for Dynamo implementation classes
@@ -41,4 +49,17 @@ public class DynamoImplAutoConfigure {
     public EntityModelFactory entityModelFactory() {
         return new EntityModelFactoryImpl();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = DynamoConstants.SP_PREWARM_ENTITY_MODELS, havingValue = "true")
+    public EntityModelPreWarmer entityModelPreWarmer(EntityModelFactory entityModelFactory,
+            EntityManagerFactory entityManagerFactory) {
+        return new EntityModelPreWarmer(entityModelFactory, entityManagerFactory);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(value = LookupCache.class)
+    public LookupCache lookupCache() {
+        return new LookupCacheImpl(SystemPropertyUtils.getLookupCacheMaxEntries());
+    }
 }
@@ -14,10 +14,25 @@
 package com.ocs.dynamo.dao.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.PersistenceContext;
@@ -26,14 +41,31 @@ import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Lists;
 import com.ocs.dynamo.dao.BaseDao;
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.IdList;
+import com.ocs.dynamo.dao.KeysetPageable;
 import com.ocs.dynamo.dao.Pageable;
+import com.ocs.dynamo.dao.PageableImpl;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.domain.comparator.AttributeComparator;
+import com.ocs.dynamo.domain.model.annotation.Model;
 import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.service.LookupCache;
+import com.ocs.dynamo.util.SystemPropertyUtils;
 import com.querydsl.core.types.dsl.EntityPathBase;
 import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
@@ -51,6 +83,19 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * The type of the primary key, determined lazily
+     */
+    private Class<?> idClass;
+
+    /**
+     * Whether the query results for the entity are cached, determined lazily
+     */
+    private Boolean cacheable;
+
+    @Autowired(required = false)
+    private LookupCache lookupCache;
+
     /**
      * Adds a parameter to a query but only if the provided value is not null
      *
@@ -71,8 +116,12 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
 
     @Override
     public long count(Filter filter, boolean distinct) {
-        TypedQuery<Long> query = JpaQueryBuilder.createCountQuery(entityManager, getEntityClass(), filter, distinct);
-        return query.getSingleResult();
+        long count = 0;
+        for (Filter part : splitFilter(filter)) {
+            TypedQuery<Long> query = JpaQueryBuilder.createCountQuery(entityManager, getEntityClass(), part, distinct);
+            count += query.getSingleResult();
+        }
+        return count;
     }
 
     /**
@@ -115,6 +164,51 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
     public void delete(T t) {
         t = entityManager.merge(t);
         entityManager.remove(t);
+        invalidateLookupCache();
+    }
+
+    @Override
+    public void deleteAll(List<T> list) {
+        int batchSize = getBatchSize();
+        for (int i = 0; i < list.size(); i++) {
+            delete(list.get(i));
+            if (batchSize > 0 && (i + 1) % batchSize == 0 && i + 1 < list.size()) {
+                flushAndClear();
+            }
+        }
+    }
+
+    @Override
+    public long deleteByFilter(Filter filter) {
+        int deleted = 0;
+        for (Filter part : splitFilter(filter)) {
+            deleted += JpaQueryBuilder.createDeleteQuery(entityManager, getEntityClass(), part).executeUpdate();
+        }
+        invalidateLookupCache();
+        return deleted;
+    }
+
+    @Override
+    public void detach(List<T> list) {
+        for (T t : list) {
+            if (entityManager.contains(t)) {
+                entityManager.detach(t);
+            }
+        }
+    }
+
+    @Override
+    public void evictCache() {
+        if (!isCacheable()) {
+            return;
+        }
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        Cache cache = entityManagerFactory.getCache();
+        if (cache != null) {
+            cache.evict(getEntityClass());
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(JpaQueryBuilder.getCacheRegion(getEntityClass()));
     }
 
     @Override
@@ -131,15 +225,62 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
      * Constructs a fetch query - watch out, paging combined with
      * 
      * @param filter     the filter to apply
-     * @param pageable   object containing the paging data
+     * @param pageable   object containing the paging data. When this is a
+     *                   {@link KeysetPageable} that holds the key values of the
+     *                   previous page, a seek predicate is used instead of an
+     *                   offset
      * @param sortOrders list of sort orders to apply
      * @param joins      the joins to apply - if null then the default joins will be
      *                   used
      * @return
      */
     private List<T> fetch(Filter filter, Pageable pageable, SortOrders sortOrders, FetchJoinInformation... joins) {
-        TypedQuery<T> query = JpaQueryBuilder.createSelectQuery(filter, entityManager, getEntityClass(),
-                (joins == null || joins.length == 0) ? getFetchJoins() : joins, sortOrders == null ? null : sortOrders.toArray());
+        FetchJoinInformation[] fetchJoins = (joins == null || joins.length == 0) ? getFetchJoins() : joins;
+        List<Filter> parts = splitFilter(filter);
+        if (parts.size() == 1) {
+            return fetchPart(filter, pageable, sortOrders, fetchJoins);
+        }
+
+        // every part must supply all rows up to the end of the requested page
+        boolean seek = pageable instanceof KeysetPageable && ((KeysetPageable) pageable).isSeek();
+        Pageable partPageable = pageable == null || seek ? pageable
+                : new PageableImpl(0, pageable.getOffset() + pageable.getPageSize(), sortOrders);
+        List<T> result = new ArrayList<>();
+        for (Filter part : parts) {
+            result.addAll(fetchPart(part, partPageable, sortOrders, fetchJoins));
+        }
+
+        if (sortOrders != null && sortOrders.getNrOfSortOrders() > 0) {
+            result.sort(createComparator(sortOrders));
+        }
+        if (pageable != null) {
+            int from = Math.min(seek ? 0 : pageable.getOffset(), result.size());
+            result = new ArrayList<>(result.subList(from, Math.min(from + pageable.getPageSize(), result.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Executes a fetch query for a filter that does not have to be split up
+     * 
+     * @param filter     the filter to apply
+     * @param pageable   the paging data
+     * @param sortOrders the sort orders to apply
+     * @param fetchJoins the joins to apply
+     * @return
+     */
+    private List<T> fetchPart(Filter filter, Pageable pageable, SortOrders sortOrders,
+            FetchJoinInformation[] fetchJoins) {
+        if (pageable instanceof KeysetPageable && ((KeysetPageable) pageable).isSeek()) {
+            // seek directly to the first row of the page
+            TypedQuery<T> query = JpaQueryBuilder.createSelectQuery(filter, entityManager, getEntityClass(), fetchJoins,
+                    (KeysetPageable) pageable);
+            query.setMaxResults(pageable.getPageSize());
+            return query.getResultList();
+        }
+
+        TypedQuery<T> query = JpaQueryBuilder.createSelectQuery(filter, entityManager, getEntityClass(), fetchJoins,
+                sortOrders == null ? null : sortOrders.toArray());
 
         if (pageable != null) {
             query.setFirstResult(pageable.getOffset());
@@ -162,19 +303,80 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
 
     @Override
     public List<T> fetchByIds(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins) {
+        return fetchByIds(ids, sortOrders, false, joins);
+    }
+
+    /**
+     * Fetches the entities with the provided IDs. When the number of IDs exceeds
+     * the maximum "in" list size, the IDs are split up over multiple queries and
+     * the results are merged according to the sort orders
+     * 
+     * @param ids        the IDs
+     * @param sortOrders the sort orders
+     * @param readOnly   whether to fetch the entities in read-only mode
+     * @param joins      the fetch joins
+     * @return
+     */
+    private List<T> fetchByIds(List<ID> ids, SortOrders sortOrders, boolean readOnly, FetchJoinInformation... joins) {
         if (ids.isEmpty()) {
             return new ArrayList<>();
         }
-        TypedQuery<T> query = JpaQueryBuilder.createFetchQuery(entityManager, getEntityClass(), ids, sortOrders,
-                (joins != null && joins.length > 0) ? joins : getFetchJoins());
-        return query.getResultList();
+
+        int max = SystemPropertyUtils.getMaxInListSize();
+        List<List<ID>> chunks = max > 0 && ids.size() > max
+                ? Lists.partition(new ArrayList<>(new LinkedHashSet<>(ids)), max)
+                : Collections.singletonList(ids);
+
+        List<T> result = new ArrayList<>();
+        for (List<ID> chunk : chunks) {
+            TypedQuery<T> query = JpaQueryBuilder.createFetchQuery(entityManager, getEntityClass(), chunk, sortOrders,
+                    (joins != null && joins.length > 0) ? joins : getFetchJoins());
+            if (readOnly) {
+                query.setHint(QueryHints.HINT_READONLY, true);
+            }
+            result.addAll(query.getResultList());
+        }
+
+        if (chunks.size() > 1 && sortOrders != null && sortOrders.getNrOfSortOrders() > 0) {
+            result.sort(createComparator(sortOrders));
+        }
+        return result;
+    }
+
+    @Override
+    public List<T> fetchByIdsReadOnly(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins) {
+        return fetchByIds(ids, sortOrders, true, joins);
+    }
+
+    /**
+     * Creates a comparator that orders entities in memory according to the
+     * provided sort orders
+     * 
+     * @param sortOrders the sort orders
+     * @return
+     */
+    protected Comparator<T> createComparator(SortOrders sortOrders) {
+        Comparator<T> comparator = null;
+        for (SortOrder order : sortOrders.getOrders()) {
+            Comparator<T> next = new AttributeComparator<>(order.getProperty());
+            if (!order.isAscending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
     }
 
     @Override
     public T fetchByUniqueProperty(String propertyName, Object value, boolean caseSensitive, FetchJoinInformation... joins) {
-        CriteriaQuery<T> cq = JpaQueryBuilder.createUniquePropertyFetchQuery(entityManager, getEntityClass(),
-                (joins == null || joins.length == 0) ? getFetchJoins() : joins, propertyName, value, caseSensitive);
+        FetchJoinInformation[] fetchJoins = (joins == null || joins.length == 0) ? getFetchJoins() : joins;
+        CriteriaQuery<T> cq = JpaQueryBuilder.createUniquePropertyFetchQuery(entityManager, getEntityClass(), fetchJoins,
+                propertyName, value, caseSensitive);
         TypedQuery<T> query = entityManager.createQuery(cq);
+        // the query cache only stores the root entities, so fetched relations would not be restored
+        if (isCacheable() && (fetchJoins == null || fetchJoins.length == 0)) {
+            JpaQueryBuilder.setCacheHints(query, getEntityClass());
+        }
         try {
             return query.getSingleResult();
         } catch (NoResultException ex) {
@@ -191,6 +393,13 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         return query.getResultList();
     }
 
+    @Override
+    public List<?> findSelect(Filter filter, String[] selectProperties, Filter having, SortOrders orders) {
+        TypedQuery<Object[]> query = JpaQueryBuilder.createSelectQuery(filter, getEntityManager(), getEntityClass(), selectProperties,
+                having, orders);
+        return query.getResultList();
+    }
+
     @Override
     public List<?> findSelect(Filter filter, String[] selectProperties, Pageable pageable) {
         SortOrders sortOrders = pageable == null ? null : pageable.getSortOrders();
@@ -253,6 +462,9 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         CriteriaQuery<T> cq = JpaQueryBuilder.createUniquePropertyQuery(entityManager, getEntityClass(), propertyName, value,
                 caseSensitive);
         TypedQuery<T> query = entityManager.createQuery(cq);
+        if (isCacheable()) {
+            JpaQueryBuilder.setCacheHints(query, getEntityClass());
+        }
         try {
             return query.getSingleResult();
         } catch (NoResultException ex) {
@@ -287,24 +499,94 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         return getEntityManager().createNativeQuery(query).getResultList();
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * The IDs are read using a forward-only cursor directly into an {@link IdList}
+     * that, for Integer and Long keys, stores them as primitive values
+     */
     @Override
     @SuppressWarnings("unchecked")
     public List<ID> findIds(Filter filter, Integer maxResults, SortOrder... sortOrders) {
+        List<Filter> parts = splitFilter(filter);
+        if (parts.size() > 1) {
+            return findIds(parts, maxResults, sortOrders);
+        }
+
         TypedQuery<Tuple> query = JpaQueryBuilder.createIdQuery(entityManager, getEntityClass(), filter, sortOrders);
         if (maxResults != null) {
             query = query.setMaxResults(maxResults);
         }
-        List<Tuple> temp = query.getResultList();
-        List<ID> result = new ArrayList<>();
 
-        for (Tuple t : temp) {
-            ID id = (ID) t.get(0);
-            result.add(id);
+        IdList<ID> result = IdList.forType(getIdClass());
+        try (ScrollableResults results = query.unwrap(org.hibernate.query.Query.class).scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                result.add((ID) extractId(results.get(0)));
+            }
+        }
+        result.trimToSize();
+        return result;
+    }
+
+    /**
+     * Retrieves the IDs for a filter that has been split up into multiple parts.
+     * The sort values are part of the rows of an ID query, so the rows of the parts
+     * can be merged in memory
+     * 
+     * @param parts      the parts of the filter
+     * @param maxResults the maximum number of results
+     * @param sortOrders the sort orders
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private List<ID> findIds(List<Filter> parts, Integer maxResults, SortOrder... sortOrders) {
+        List<Tuple> rows = new ArrayList<>();
+        for (Filter part : parts) {
+            TypedQuery<Tuple> query = JpaQueryBuilder.createIdQuery(entityManager, getEntityClass(), part, sortOrders);
+            if (maxResults != null) {
+                query.setMaxResults(maxResults);
+            }
+            rows.addAll(query.getResultList());
+        }
+
+        if (sortOrders != null && sortOrders.length > 0) {
+            rows.sort((r1, r2) -> {
+                for (int i = 0; i < sortOrders.length; i++) {
+                    int result = AttributeComparator.compareValues(r1.get(i + 1), r2.get(i + 1));
+                    if (result != 0) {
+                        return sortOrders[i].isAscending() ? result : -result;
+                    }
+                }
+                return 0;
+            });
         }
 
+        IdList<ID> result = IdList.forType(getIdClass());
+        for (Tuple row : rows) {
+            if (maxResults != null && result.size() >= maxResults) {
+                break;
+            }
+            result.add((ID) row.get(0));
+        }
+        result.trimToSize();
         return result;
     }
 
+    /**
+     * Extracts the ID from a row of an ID query
+     * 
+     * @param value the first value of the row
+     * @return
+     */
+    private Object extractId(Object value) {
+        if (value instanceof Tuple) {
+            return ((Tuple) value).get(0);
+        } else if (value instanceof Object[]) {
+            return ((Object[]) value)[0];
+        }
+        return value;
+    }
+
     @Override
     public List<ID> findIds(Filter filter, SortOrder... sortOrders) {
         return findIds(filter, null, sortOrders);
@@ -316,6 +598,26 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         entityManager.clear();
     }
 
+    /**
+     * Returns the number of entities after which the persistence context is flushed
+     * and cleared during bulk operations. For the statements to actually be
+     * batched, "hibernate.jdbc.batch_size" must be set as well
+     * 
+     * @return
+     */
+    protected int getBatchSize() {
+        return SystemPropertyUtils.getBatchSize();
+    }
+
+    /**
+     * Returns the JDBC fetch size that is used when streaming query results
+     * 
+     * @return
+     */
+    protected int getFetchSize() {
+        return SystemPropertyUtils.getFetchSize();
+    }
+
     /**
      * Returns the query DSL root
      * 
@@ -327,6 +629,38 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         return entityManager;
     }
 
+    /**
+     * Indicates whether the results of the lookups by unique property are stored
+     * in the query cache. This is the case when the entity is marked as cacheable
+     * using the {@link Model} annotation
+     * 
+     * @return
+     */
+    protected boolean isCacheable() {
+        if (cacheable == null) {
+            Model model = getEntityClass().getAnnotation(Model.class);
+            cacheable = model != null && model.cacheable();
+        }
+        return cacheable;
+    }
+
+    /**
+     * Returns the type of the primary key of the entity managed by this DAO
+     * 
+     * @return
+     */
+    protected Class<?> getIdClass() {
+        if (idClass == null) {
+            try {
+                idClass = entityManager.getMetamodel().entity(getEntityClass()).getIdType().getJavaType();
+            } catch (IllegalArgumentException ex) {
+                // not a managed entity
+                idClass = Object.class;
+            }
+        }
+        return idClass;
+    }
+
     /**
      * Returns the fetch joins that must be included in a query to fetch the IDs.
      * This method return an empty array by default - override when needed
@@ -358,6 +692,54 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         return Optional.ofNullable(getFirstValue(list));
     }
 
+    /**
+     * Splits a filter up into parts that each stay below the maximum number of
+     * parameters per statement
+     * 
+     * @param filter the filter
+     * @return
+     */
+    private List<Filter> splitFilter(Filter filter) {
+        return JpaQueryBuilder.splitFilter(entityManager, getEntityClass(), filter);
+    }
+
+    /**
+     * Removes the cached lookup lists for the entity class. When a transaction is
+     * active, this is postponed until after the commit (so that other sessions
+     * cannot cache the old state in the meantime) and done only once per entity
+     * class, no matter how many entities are written in the transaction
+     */
+    protected void invalidateLookupCache() {
+        LookupCache cache = lookupCache;
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(getEntityClass());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(cache);
+        if (pending == null) {
+            Set<Class<?>> classes = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(cache, classes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    classes.forEach(cache::invalidate);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+                }
+            });
+            pending = classes;
+        }
+        pending.add(getEntityClass());
+    }
+
     @Override
     public List<T> save(List<T> list) {
         for (int i = 0; i < list.size(); i++) {
@@ -375,7 +757,156 @@ public abstract class BaseDaoImpl<ID, T extends AbstractEntity<ID>> implements B
         } else {
             t = entityManager.merge(t);
         }
+        invalidateLookupCache();
         return t;
     }
 
+    @Override
+    public List<T> saveAll(List<T> list) {
+        if (list.isEmpty()) {
+            return list;
+        }
+
+        int batchSize = getBatchSize();
+        for (int i = 0; i < list.size(); i++) {
+            list.set(i, save(list.get(i)));
+            // the last batch is left in the persistence context
+            if (batchSize > 0 && (i + 1) % batchSize == 0 && i + 1 < list.size()) {
+                flushAndClear();
+            }
+        }
+        return list;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> stream(Filter filter, SortOrders sortOrders, FetchJoinInformation... joins) {
+        FetchJoinInformation[] fetchJoins = joins == null ? new FetchJoinInformation[0] : joins;
+        for (FetchJoinInformation join : fetchJoins) {
+            // a forward-only cursor cannot combine the rows of a collection fetch join
+            if (!JpaQueryBuilder.isSingleValued(entityManager, getEntityClass(), join.getProperty())) {
+                throw new OCSRuntimeException("Fetch join on collection " + join.getProperty()
+                        + " is not supported when streaming");
+            }
+        }
+
+        StreamDetacher detacher = new StreamDetacher();
+        List<Filter> parts = splitFilter(filter);
+        if (parts.size() > 1 && sortOrders != null && sortOrders.getNrOfSortOrders() > 0) {
+            // the parts can only be merged in memory, so only the (sorted) IDs are
+            // retrieved up front and the entities are fetched in chunks
+            List<ID> ids = findIds(filter, sortOrders.toArray());
+            return Lists.partition(ids, SystemPropertyUtils.getMaxInListSize()).stream()
+                    .flatMap(chunk -> JpaQueryBuilder
+                            .createFetchQuery(entityManager, getEntityClass(), chunk, sortOrders, fetchJoins)
+                            .getResultList().stream())
+                    .map(detacher::detach);
+        }
+
+        return parts.stream().flatMap(part -> {
+            TypedQuery<T> query = JpaQueryBuilder.createSelectQuery(part, entityManager, getEntityClass(), fetchJoins,
+                    sortOrders == null ? null : sortOrders.toArray());
+            return stream(query, results -> detacher.detach((T) results.get(0)));
+        });
+    }
+
+    /**
+     * Executes a query using a forward-only cursor and exposes the results as a
+     * stream. The cursor is closed when the stream is closed
+     * 
+     * @param query  the query to execute
+     * @param mapper the function that maps the current row to a stream element
+     * @return
+     */
+    private <R> Stream<R> stream(TypedQuery<?> query, Function<ScrollableResults, R> mapper) {
+        ScrollableResults results = query.unwrap(org.hibernate.query.Query.class).setFetchSize(getFetchSize())
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Spliterator<R> spliterator = new Spliterators.AbstractSpliterator<R>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super R> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                action.accept(mapper.apply(results));
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(results::close);
+    }
+
+    /**
+     * Detaches the entities that are loaded while streaming, so that the
+     * persistence context does not grow. Entities that were already managed when
+     * the stream was created (e.g. because the caller holds them) are left alone,
+     * and nothing is flushed
+     * 
+     * @author bas.rutten
+     *
+     */
+    private final class StreamDetacher {
+
+        private final Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final int batchSize = getBatchSize();
+
+        private long count;
+
+        StreamDetacher() {
+            managed.addAll(getPersistenceContext().getEntitiesByKey().values());
+        }
+
+        /**
+         * Detaches an entity that is handed out by the stream. Every batch, the
+         * other entities that were loaded along with the streamed entities (e.g.
+         * through eager relations) are detached as well
+         * 
+         * @param t the entity
+         * @return
+         */
+        T detach(T t) {
+            if (!managed.contains(t)) {
+                entityManager.detach(t);
+            }
+            if (batchSize > 0 && ++count % batchSize == 0) {
+                for (Object entity : new ArrayList<>(getPersistenceContext().getEntitiesByKey().values())) {
+                    if (!managed.contains(entity) && entityManager.contains(entity)) {
+                        entityManager.detach(entity);
+                    }
+                }
+            }
+            return t;
+        }
+
+        private org.hibernate.engine.spi.PersistenceContext getPersistenceContext() {
+            return entityManager.unwrap(SharedSessionContractImplementor.class).getPersistenceContext();
+        }
+    }
+
+    @Override
+    public Stream<Object[]> streamSelect(Filter filter, String[] selectProperties, SortOrders sortOrders) {
+        TypedQuery<Object[]> query = JpaQueryBuilder.createSelectQuery(filter, entityManager, getEntityClass(),
+                selectProperties, sortOrders);
+        return stream(query, ScrollableResults::get);
+    }
+
+    @Override
+    public long update(Filter filter, Map<String, Object> assignments) {
+        int updated = 0;
+        for (Filter part : splitFilter(filter)) {
+            updated += JpaQueryBuilder.createUpdateQuery(entityManager, getEntityClass(), part, assignments)
+                    .executeUpdate();
+        }
+
+        // the bulk update bypasses the second-level cache
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        if (cache != null) {
+            cache.evict(getEntityClass());
+        }
+        invalidateLookupCache();
+        return updated;
+    }
+
 }
@@ -13,19 +13,27 @@
  */
 package com.ocs.dynamo.dao.impl;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.function.Function;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
 import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Fetch;
 import javax.persistence.criteria.FetchParent;
@@ -37,16 +45,23 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Selection;
 import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.jpa.QueryHints;
 
 import com.google.common.collect.Lists;
 import com.ocs.dynamo.constants.DynamoConstants;
+import com.ocs.dynamo.dao.impl.QueryTemplateCache.QueryTemplate;
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.KeysetPageable;
 import com.ocs.dynamo.dao.QueryFunction;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.exception.OCSRuntimeException;
+import com.ocs.dynamo.filter.AbstractJunctionFilter;
 import com.ocs.dynamo.filter.And;
 import com.ocs.dynamo.filter.Between;
 import com.ocs.dynamo.filter.Compare;
@@ -58,6 +73,7 @@ import com.ocs.dynamo.filter.Like;
 import com.ocs.dynamo.filter.Modulo;
 import com.ocs.dynamo.filter.Not;
 import com.ocs.dynamo.filter.Or;
+import com.ocs.dynamo.util.SystemPropertyUtils;
 
 /**
  * @author patrick.deenen
@@ -66,6 +82,21 @@ import com.ocs.dynamo.filter.Or;
  */
 public final class JpaQueryBuilder {
 
+	/**
+	 * Prefix for the names of the parameters that hold the keyset paging values
+	 */
+	private static final String KEYSET_PARAMETER = "keyset_";
+
+	/**
+	 * Prefix for the names of the parameters that hold filter values
+	 */
+	private static final String FILTER_PARAMETER = "par";
+
+	/**
+	 * Prefix for the names of the query cache regions
+	 */
+	private static final String QUERY_CACHE_REGION = "query.";
+
 	/**
 	 * Adds fetch join information to a query root
 	 * 
@@ -140,6 +171,95 @@ public final class JpaQueryBuilder {
 		return addSortInformation(builder, cq, root, (List<Selection<?>>) null, sortOrders);
 	}
 
+	/**
+	 * Appends the shape of a filter (the operator tree and the property IDs, but
+	 * not the values) to a template key and collects the parameter values of the
+	 * filter. The values are collected in the same order in which
+	 * <code>createPredicate</code> registers the parameters
+	 * 
+	 * @param filter the filter
+	 * @param shape  the builder to which to append the shape
+	 * @param values the parameter values
+	 * @return <code>false</code> if the filter results in a query that cannot be
+	 *         reused as a template (e.g. since a value is rendered as a literal)
+	 */
+	private static boolean appendFilterShape(Filter filter, StringBuilder shape, Map<String, Object> values) {
+		if (filter == null) {
+			shape.append('-');
+			return true;
+		}
+
+		if (filter instanceof And || filter instanceof Or) {
+			shape.append(filter instanceof And ? "and(" : "or(");
+			for (Filter f : ((AbstractJunctionFilter) filter).getFilters()) {
+				if (!appendFilterShape(f, shape, values)) {
+					return false;
+				}
+				shape.append(',');
+			}
+			shape.append(')');
+			return true;
+		} else if (filter instanceof Not) {
+			shape.append("not(");
+			boolean result = appendFilterShape(((Not) filter).getFilter(), shape, values);
+			shape.append(')');
+			return result;
+		} else if (filter instanceof Between) {
+			Between between = (Between) filter;
+			shape.append("between(").append(between.getPropertyId()).append(',')
+					.append(getValueShape(between.getStartValue())).append(',')
+					.append(getValueShape(between.getEndValue())).append(')');
+			values.put(FILTER_PARAMETER + values.size(), between.getStartValue());
+			values.put(FILTER_PARAMETER + values.size(), between.getEndValue());
+			return true;
+		} else if (filter instanceof Compare) {
+			Compare compare = (Compare) filter;
+			Object value = normalizeCompareValue(compare.getValue());
+			if (value instanceof Class<?>) {
+				return false;
+			}
+			shape.append("compare(").append(compare.getOperation()).append(',').append(compare.getPropertyId())
+					.append(',').append(getValueShape(value)).append(')');
+			if (value != null) {
+				values.put(FILTER_PARAMETER + values.size(), value);
+			}
+			return true;
+		} else if (filter instanceof IsNull) {
+			shape.append("isNull(").append(((IsNull) filter).getPropertyId()).append(')');
+			return true;
+		} else if (filter instanceof Like) {
+			Like like = (Like) filter;
+			if (like.getValue() == null) {
+				return false;
+			}
+			shape.append("like(").append(like.getPropertyId()).append(',').append(like.isCaseSensitive())
+					.append(')');
+			values.put(FILTER_PARAMETER + values.size(),
+					like.isCaseSensitive() ? like.getValue() : like.getValue().toLowerCase());
+			return true;
+		} else if (filter instanceof In) {
+			In in = (In) filter;
+			int count = 0;
+			if (in.getValues() != null && !in.getValues().isEmpty()) {
+				for (List<?> inList : createInLists(in.getValues())) {
+					values.put(FILTER_PARAMETER + values.size(), inList);
+					count++;
+				}
+			}
+			shape.append("in(").append(in.getPropertyId()).append(',').append(count).append(')');
+			return true;
+		} else if (filter instanceof Modulo) {
+			// modulo values are rendered as literals and are therefore part of the shape
+			Modulo modulo = (Modulo) filter;
+			shape.append("mod(").append(modulo.getPropertyId()).append(',').append(modulo.getModExpression())
+					.append(',').append(modulo.getModValue()).append(',').append(modulo.getResult()).append(')');
+			return true;
+		}
+
+		// member of (Contains) and unknown filters are never cached
+		return false;
+	}
+
 	/**
 	 * Creates a predicate based on an "And" filter
 	 * 
@@ -175,46 +295,36 @@ public final class JpaQueryBuilder {
 	 * @return
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private static Predicate createComparePredicate(CriteriaBuilder builder, Root<?> root, Filter filter) {
+	private static Predicate createComparePredicate(CriteriaBuilder builder, Root<?> root, Filter filter,
+			Map<String, Object> parameters) {
 		Compare compare = (Compare) filter;
 		Path path = getPropertyPath(root, compare.getPropertyId(), true);
 		Expression<Comparable> property = path;
-		Object value = compare.getValue();
-
-		// number representation may contain locale specific separators.
-		// Here, we remove
-		// those and make sure a period is used in all cases
-		if (value instanceof String) {
-
-			// strip out any "%" sign from decimal fields
-			value = ((String) value).replace('%', ' ').trim();
-
-			String str = (String) value;
-			if (str != null && StringUtils.isNumeric(str.replaceAll("\\.", "").replaceAll(",", ""))) {
-				// first remove all periods (which may be used as
-				// thousand
-				// separators), then replace comma by period
-				str = str.replaceAll("\\.", "").replace(',', '.');
-				value = str;
-			}
+		Object value = normalizeCompareValue(compare.getValue());
 
+		if (value instanceof Class<?>) {
+			// When instance of class the use type expression
+			return Compare.Operation.EQUAL.equals(compare.getOperation())
+					? builder.equal(path.type(), builder.literal(value))
+					: null;
+		}
+		if (value == null) {
+			return Compare.Operation.EQUAL.equals(compare.getOperation()) ? builder.equal(property, value) : null;
 		}
 
+		Expression<Comparable> par = createParameter(builder, path, value, parameters);
+		property = getComparedExpression(property, par);
 		switch (compare.getOperation()) {
 		case EQUAL:
-			if (value instanceof Class<?>) {
-				// When instance of class the use type expression
-				return builder.equal(path.type(), builder.literal(value));
-			}
-			return builder.equal(property, value);
+			return builder.equal(property, par);
 		case GREATER:
-			return builder.greaterThan(property, (Comparable) value);
+			return builder.greaterThan(property, par);
 		case GREATER_OR_EQUAL:
-			return builder.greaterThanOrEqualTo(property, (Comparable) value);
+			return builder.greaterThanOrEqualTo(property, par);
 		case LESS:
-			return builder.lessThan(property, (Comparable) value);
+			return builder.lessThan(property, par);
 		case LESS_OR_EQUAL:
-			return builder.lessThanOrEqualTo(property, (Comparable) value);
+			return builder.lessThanOrEqualTo(property, par);
 		default:
 			return null;
 		}
@@ -231,18 +341,45 @@ public final class JpaQueryBuilder {
 	 */
 	public static <T> TypedQuery<Long> createCountQuery(EntityManager entityManager, Class<T> entityClass,
 			Filter filter, boolean distinct) {
-		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-		CriteriaQuery<Long> cq = builder.createQuery(Long.class);
-		Root<T> root = cq.from(entityClass);
+		Map<String, Object> values = createParameterMap();
+		String key = createTemplateKey(filter, values, "count", entityClass.getName(), distinct);
+		return createQuery(entityManager, Long.class, key, values, pars -> {
+			CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+			CriteriaQuery<Long> cq = builder.createQuery(Long.class);
+			Root<T> root = cq.from(entityClass);
+
+			cq.select(distinct ? builder.countDistinct(root) : builder.count(root));
+
+			Predicate p = createPredicate(filter, builder, root, pars);
+			if (p != null) {
+				cq.where(p);
+			}
+			return cq;
+		});
+	}
 
-		cq.select(distinct ? builder.countDistinct(root) : builder.count(root));
+	/**
+	 * Creates a bulk delete query for the entities that match the provided filter
+	 * 
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param filter        the filter to apply
+	 * @return
+	 */
+	public static <T> Query createDeleteQuery(EntityManager entityManager, Class<T> entityClass, Filter filter) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaDelete<T> cd = builder.createCriteriaDelete(entityClass);
+		Root<T> root = cd.from(entityClass);
 
 		Map<String, Object> pars = createParameterMap();
 		Predicate p = createPredicate(filter, builder, root, pars);
+		if (!root.getJoins().isEmpty()) {
+			throw new OCSRuntimeException("Collection properties are not supported in a bulk delete");
+		}
 		if (p != null) {
-			cq.where(p);
+			cd.where(p);
 		}
-		TypedQuery<Long> query = entityManager.createQuery(cq);
+		Query query = entityManager.createQuery(cd);
 		setParameters(query, pars);
 		return query;
 	}
@@ -310,7 +447,7 @@ public final class JpaQueryBuilder {
 		addSortInformation(builder, cq, root, sortOrders == null ? null : sortOrders.toArray());
 		TypedQuery<T> query = entityManager.createQuery(cq);
 
-		query.setParameter(DynamoConstants.IDS, ids);
+		query.setParameter(DynamoConstants.IDS, padInList(ids));
 		return query;
 	}
 
@@ -368,42 +505,227 @@ public final class JpaQueryBuilder {
 	 */
 	public static <T> TypedQuery<Tuple> createIdQuery(EntityManager entityManager, Class<T> entityClass, Filter filter,
 			SortOrder... sortOrders) {
-		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-		CriteriaQuery<Tuple> cq = builder.createTupleQuery();
-		Root<T> root = cq.from(entityClass);
+		Map<String, Object> values = createParameterMap();
+		String key = createTemplateKey(filter, values, "ids", entityClass.getName(), getSortShape(sortOrders));
+		return createQuery(entityManager, Tuple.class, key, values, pars -> {
+			CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+			CriteriaQuery<Tuple> cq = builder.createTupleQuery();
+			Root<T> root = cq.from(entityClass);
+
+			// select only the ID
+			List<Selection<?>> selection = new ArrayList<>();
+			selection.add(root.get(DynamoConstants.ID));
+
+			// Set where clause
+			Predicate p = createPredicate(filter, builder, root, pars);
+			if (p != null) {
+				cq.where(p);
+			}
 
-		// select only the ID
-		List<Selection<?>> selection = new ArrayList<>();
-		selection.add(root.get(DynamoConstants.ID));
+			// When joins are added (by getPropertyPath) do distinct query
+			if (!root.getJoins().isEmpty()) {
+				cq.distinct(true);
+			}
 
-		// Set where clause
-		Map<String, Object> pars = createParameterMap();
-		Predicate p = createPredicate(filter, builder, root, pars);
-		if (p != null) {
-			cq.where(p);
+			// add order clause - this is also important in case of an ID query
+			// since we do need to return the correct IDs!
+			return addSortInformation(builder, cq, root, selection, sortOrders);
+		});
+	}
+
+	/**
+	 * Splits the values for an "in" expression into lists that do not exceed the
+	 * maximum "in" list size, padding each list to a power of two. Note that all
+	 * lists end up in the same statement, so this does not reduce the total number
+	 * of parameters. It is only used for "in" filters that cannot be split up over
+	 * multiple statements by {@link #splitFilter(EntityManager, Class, Filter)}
+	 * 
+	 * @param values the values
+	 * @return
+	 */
+	public static <V> List<List<V>> createInLists(Collection<V> values) {
+		int max = SystemPropertyUtils.getMaxInListSize();
+		List<List<V>> result = new ArrayList<>();
+		if (max <= 0 || values.size() <= max) {
+			result.add(padInList(values));
+			return result;
 		}
 
-		// When joins are added (by getPropertyPath) do distinct query
-		if (!root.getJoins().isEmpty()) {
-			cq.distinct(true);
+		for (List<V> partition : Lists.partition(new ArrayList<>(values), max)) {
+			result.add(padInList(partition));
 		}
+		return result;
+	}
 
-		// add order clause - this is also important in case of an ID query
-		// since we do need to return the correct IDs!
-		cq = addSortInformation(builder, cq, root, selection, sortOrders);
-		TypedQuery<Tuple> query = entityManager.createQuery(cq);
-		setParameters(query, pars);
-		return query;
+	/**
+	 * Finds an "in" filter that holds more values than the maximum "in" list size
+	 * and that can be split up over multiple statements. This is the case when the
+	 * filter is only nested inside "and" filters and refers to a single valued
+	 * property, so that every row matches at most one of the parts
+	 * 
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param filter        the filter to search
+	 * @param max           the maximum "in" list size
+	 * @return the filter, or <code>null</code> if there is none
+	 */
+	private static In findSplittableIn(EntityManager entityManager, Class<?> entityClass, Filter filter, int max) {
+		if (filter instanceof In) {
+			In in = (In) filter;
+			if (in.getValues() != null && in.getValues().size() > max
+					&& isSingleValued(entityManager, entityClass, in.getPropertyId())) {
+				return in;
+			}
+		} else if (filter instanceof And) {
+			for (Filter f : ((And) filter).getFilters()) {
+				In in = findSplittableIn(entityManager, entityClass, f, max);
+				if (in != null) {
+					return in;
+				}
+			}
+		}
+		return null;
 	}
 
+	/**
+	 * Checks whether a (nested) property path only traverses single valued
+	 * attributes
+	 * 
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param propertyId    the property path
+	 * @return
+	 */
+	static boolean isSingleValued(EntityManager entityManager, Class<?> entityClass, String propertyId) {
+		try {
+			ManagedType<?> type = entityManager.getMetamodel().managedType(entityClass);
+			String[] parts = propertyId.split("\\.");
+			for (int i = 0; i < parts.length; i++) {
+				Attribute<?, ?> attribute = type.getAttribute(parts[i]);
+				if (attribute.isCollection()) {
+					return false;
+				}
+				if (i < parts.length - 1) {
+					Type<?> next = ((SingularAttribute<?, ?>) attribute).getType();
+					if (!(next instanceof ManagedType)) {
+						return false;
+					}
+					type = (ManagedType<?>) next;
+				}
+			}
+			return true;
+		} catch (IllegalArgumentException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Replaces a filter inside a filter tree that consists of "and" filters
+	 * 
+	 * @param filter      the filter tree
+	 * @param target      the filter to replace
+	 * @param replacement the replacement
+	 * @return the resulting filter tree
+	 */
+	private static Filter replaceFilter(Filter filter, Filter target, Filter replacement) {
+		if (filter == target) {
+			return replacement;
+		} else if (filter instanceof And) {
+			return new And(((And) filter).getFilters().stream().map(f -> replaceFilter(f, target, replacement))
+					.collect(Collectors.toList()));
+		}
+		return filter;
+	}
+
+	/**
+	 * Splits a filter up into multiple filters so that no query contains an "in"
+	 * list that exceeds the maximum "in" list size. Many databases limit the number
+	 * of parameters in a single statement (e.g. SQL Server allows at most 2100), so
+	 * the parts must be executed as separate statements. Every row matches at most
+	 * one of the parts, so the results of the parts can simply be merged.
+	 * 
+	 * Only "in" filters that are nested inside "and" filters and that refer to a
+	 * single valued property can be split up. Other "in" filters are rendered as a
+	 * disjunction of "in" lists inside a single statement
+	 * 
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param filter        the filter
+	 * @return the filters to execute, a single one when no split is needed
+	 */
+	public static List<Filter> splitFilter(EntityManager entityManager, Class<?> entityClass, Filter filter) {
+		int max = SystemPropertyUtils.getMaxInListSize();
+		In in = max <= 0 ? null : findSplittableIn(entityManager, entityClass, filter, max);
+		if (in == null) {
+			List<Filter> result = new ArrayList<>();
+			result.add(filter);
+			return result;
+		}
+
+		// split up the values and repeat for any other long "in" list
+		List<Filter> result = new ArrayList<>();
+		for (List<?> part : Lists.partition(new ArrayList<>(new LinkedHashSet<>(in.getValues())), max)) {
+			result.addAll(splitFilter(entityManager, entityClass,
+					replaceFilter(filter, in, new In(in.getPropertyId(), part))));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the seek predicate for keyset paging. Since the criteria API does not
+	 * support row value comparisons, the predicate "(k1, k2, id) > (?, ?, ?)" is
+	 * expanded to "k1 > ? or (k1 = ? and k2 > ?) or (k1 = ? and k2 = ? and id >
+	 * ?)", which also allows for mixed sort directions. Rows for which a sort key
+	 * is NULL never match, so keyset paging must only be used for sort properties
+	 * that cannot be NULL
+	 * 
+	 * @param builder    the criteria builder
+	 * @param root       the query root
+	 * @param keyValues  the sort key values of the last row of the previous page
+	 * @param parameters the query parameter mapping
+	 * @param sortOrders the sort orders
+	 * @return
+	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private static Predicate createLikePredicate(CriteriaBuilder builder, Root<?> root, Filter filter) {
+	private static Predicate createKeysetPredicate(CriteriaBuilder builder, Root<?> root, Object[] keyValues,
+			Map<String, Object> parameters, SortOrder... sortOrders) {
+		if (sortOrders == null || sortOrders.length != keyValues.length) {
+			throw new OCSRuntimeException("Keyset paging requires a key value for every sort order");
+		}
+
+		List<Expression<Comparable>> paths = new ArrayList<>();
+		List<ParameterExpression<Comparable>> pars = new ArrayList<>();
+		for (int i = 0; i < sortOrders.length; i++) {
+			paths.add((Expression) getPropertyPath(root, sortOrders[i].getProperty(), true));
+			String parName = KEYSET_PARAMETER + i;
+			pars.add((ParameterExpression) builder.parameter(keyValues[i].getClass(), parName));
+			parameters.put(parName, keyValues[i]);
+		}
+
+		List<Predicate> alternatives = new ArrayList<>();
+		for (int i = 0; i < sortOrders.length; i++) {
+			List<Predicate> conjunction = new ArrayList<>();
+			for (int j = 0; j < i; j++) {
+				conjunction.add(builder.equal(paths.get(j), pars.get(j)));
+			}
+			conjunction.add(sortOrders[i].isAscending() ? builder.greaterThan(paths.get(i), pars.get(i))
+					: builder.lessThan(paths.get(i), pars.get(i)));
+			alternatives.add(builder.and(conjunction.toArray(new Predicate[0])));
+		}
+		return builder.or(alternatives.toArray(new Predicate[0]));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Predicate createLikePredicate(CriteriaBuilder builder, Root<?> root, Filter filter,
+			Map<String, Object> parameters) {
 		Like like = (Like) filter;
+		Expression<String> path = (Expression) getPropertyPath(root, like.getPropertyId(), true);
 		if (like.isCaseSensitive()) {
-			return builder.like((Expression) getPropertyPath(root, like.getPropertyId(), true), like.getValue());
+			Expression<String> par = createParameter(builder, String.class, like.getValue(), parameters);
+			return builder.like(path, par);
 		} else {
-			return builder.like(builder.lower((Expression) getPropertyPath(root, like.getPropertyId(), true)),
-					like.getValue().toLowerCase());
+			Expression<String> par = createParameter(builder, String.class, like.getValue().toLowerCase(), parameters);
+			return builder.like(builder.lower(path), par);
 		}
 	}
 
@@ -456,6 +778,143 @@ public final class JpaQueryBuilder {
 		return predicate;
 	}
 
+	/**
+	 * Registers a named parameter for a filter value. Parameters are numbered in
+	 * the order in which they are encountered, so filters that have the same
+	 * structure always result in the same query string (and can share the query
+	 * plan)
+	 * 
+	 * @param builder    the criteria builder
+	 * @param type       the type of the parameter
+	 * @param value      the value of the parameter
+	 * @param parameters the query parameter mapping
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> ParameterExpression<V> createParameter(CriteriaBuilder builder, Class<?> type, Object value,
+			Map<String, Object> parameters) {
+		// the size of the map only grows, so the name is always unique
+		String parName = FILTER_PARAMETER + parameters.size();
+		parameters.put(parName, value);
+		return (ParameterExpression<V>) builder.parameter(type, parName);
+	}
+
+	/**
+	 * Registers a named parameter for a value that is compared to a property. The
+	 * value is converted to the type of the property if needed, since (unlike
+	 * literals) parameter values must match the expected type
+	 * 
+	 * @param builder    the criteria builder
+	 * @param path       the property path
+	 * @param value      the value
+	 * @param parameters the query parameter mapping
+	 * @return
+	 */
+	private static <V> ParameterExpression<V> createParameter(CriteriaBuilder builder, Path<?> path, Object value,
+			Map<String, Object> parameters) {
+		return createConvertedParameter(builder, path.getJavaType(), value, parameters);
+	}
+
+	/**
+	 * Registers a named parameter for a value, converting the value to the provided
+	 * type if needed
+	 * 
+	 * @param builder    the criteria builder
+	 * @param type       the expected type of the parameter (may be
+	 *                   <code>null</code>)
+	 * @param value      the value
+	 * @param parameters the query parameter mapping
+	 * @return
+	 */
+	private static <V> ParameterExpression<V> createConvertedParameter(CriteriaBuilder builder, Class<?> type,
+			Object value, Map<String, Object> parameters) {
+		Class<?> wrapper = org.apache.commons.lang3.ClassUtils.primitiveToWrapper(type);
+		if (wrapper == null || value == null) {
+			return createParameter(builder, value == null ? Object.class : value.getClass(), value, parameters);
+		}
+
+		Object converted = value;
+		if (!wrapper.isInstance(value) && Number.class.isAssignableFrom(wrapper)) {
+			converted = convertNumber(value, wrapper);
+		}
+		return createParameter(builder, wrapper.isInstance(converted) ? wrapper : converted.getClass(), converted,
+				parameters);
+	}
+
+	/**
+	 * Converts a number (or the string representation of a number) to the
+	 * provided numeric type. A value that has a fractional part (or that is out of
+	 * range) is not narrowed to an integral type, since that would change the
+	 * outcome of the comparison, but is returned as a BigDecimal instead
+	 * 
+	 * @param value the value to convert
+	 * @param type  the desired type
+	 * @return the converted value, or the original value if it cannot be
+	 *         converted
+	 */
+	private static Object convertNumber(Object value, Class<?> type) {
+		BigDecimal decimal;
+		try {
+			decimal = value instanceof Number ? new BigDecimal(value.toString()) : new BigDecimal(value.toString().trim());
+		} catch (NumberFormatException ex) {
+			return value;
+		}
+
+		try {
+			if (Integer.class.equals(type)) {
+				return decimal.intValueExact();
+			} else if (Long.class.equals(type)) {
+				return decimal.longValueExact();
+			} else if (BigDecimal.class.equals(type)) {
+				return decimal;
+			} else if (Double.class.equals(type)) {
+				return decimal.doubleValue();
+			} else if (Float.class.equals(type)) {
+				return decimal.floatValue();
+			} else if (Short.class.equals(type)) {
+				return decimal.shortValueExact();
+			} else if (Byte.class.equals(type)) {
+				return decimal.byteValueExact();
+			} else if (BigInteger.class.equals(type)) {
+				return decimal.toBigIntegerExact();
+			}
+		} catch (ArithmeticException ex) {
+			return decimal;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the expression to compare a parameter with. A value with a fractional
+	 * part is not converted to the integral type of a property but remains a
+	 * BigDecimal, in which case the property is cast to a BigDecimal as well
+	 * 
+	 * @param property the property expression
+	 * @param par      the parameter
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Expression<Comparable> getComparedExpression(Expression<Comparable> property, Expression<?> par) {
+		Class<?> type = org.apache.commons.lang3.ClassUtils.primitiveToWrapper(property.getJavaType());
+		if (type != null && Number.class.isAssignableFrom(type) && !BigDecimal.class.equals(type)
+				&& BigDecimal.class.equals(par.getJavaType())) {
+			return (Expression) property.as(BigDecimal.class);
+		}
+		return property;
+	}
+
+	/**
+	 * Checks whether a value is a number (or the string representation of a
+	 * number) that has a fractional part
+	 * 
+	 * @param value the value
+	 * @return
+	 */
+	private static boolean isFraction(Object value) {
+		Object decimal = convertNumber(value, BigDecimal.class);
+		return decimal instanceof BigDecimal && ((BigDecimal) decimal).stripTrailingZeros().scale() > 0;
+	}
+
 	/**
 	 * Creates an empty parameter map
 	 * 
@@ -465,6 +924,34 @@ public final class JpaQueryBuilder {
 		return new HashMap<>();
 	}
 
+	/**
+	 * Pads the values for an "in" expression to the next power of two (but never
+	 * beyond the maximum "in" list size) by repeating the last value. Hibernate
+	 * creates a separate SQL statement for every distinct number of values, so
+	 * padding strongly reduces the number of statements that must be prepared
+	 * 
+	 * @param values the values
+	 * @return
+	 */
+	public static <V> List<V> padInList(Collection<V> values) {
+		List<V> result = new ArrayList<>(values);
+		int size = result.size();
+		if (size <= 1) {
+			return result;
+		}
+
+		int padded = Integer.highestOneBit(size - 1) << 1;
+		int max = SystemPropertyUtils.getMaxInListSize();
+		if (max > 0) {
+			padded = Math.min(padded, Math.max(max, size));
+		}
+		V last = result.get(size - 1);
+		while (result.size() < padded) {
+			result.add(last);
+		}
+		return result;
+	}
+
 	/**
 	 * Creates a JPA2 predicate based on a Filter
 	 * 
@@ -489,10 +976,12 @@ public final class JpaQueryBuilder {
 			return builder.not(createPredicate(not.getFilter(), builder, root, parameters));
 		} else if (filter instanceof Between) {
 			Between between = (Between) filter;
-			Expression property = getPropertyPath(root, between.getPropertyId(), true);
-			return builder.between(property, (Comparable) between.getStartValue(), (Comparable) between.getEndValue());
+			Path property = getPropertyPath(root, between.getPropertyId(), true);
+			Expression<Comparable> start = createParameter(builder, property, between.getStartValue(), parameters);
+			Expression<Comparable> end = createParameter(builder, property, between.getEndValue(), parameters);
+			return builder.between(getComparedExpression(getComparedExpression(property, start), end), start, end);
 		} else if (filter instanceof Compare) {
-			return createComparePredicate(builder, root, filter);
+			return createComparePredicate(builder, root, filter, parameters);
 		} else if (filter instanceof IsNull) {
 			IsNull isNull = (IsNull) filter;
 			Path p = getPropertyPath(root, isNull.getPropertyId(), true);
@@ -501,7 +990,7 @@ public final class JpaQueryBuilder {
 			}
 			return builder.isNull(p);
 		} else if (filter instanceof Like) {
-			return createLikePredicate(builder, root, filter);
+			return createLikePredicate(builder, root, filter, parameters);
 		} else if (filter instanceof Contains) {
 			Contains contains = (Contains) filter;
 			return builder.isMember(contains.getValue(),
@@ -509,16 +998,14 @@ public final class JpaQueryBuilder {
 		} else if (filter instanceof In) {
 			In in = (In) filter;
 			if (in.getValues() != null && !in.getValues().isEmpty()) {
+				// split up long lists to stay below the maximum number of parameters
 				Expression<?> exp = getPropertyPath(root, in.getPropertyId(), true);
-				String parName = in.getPropertyId().replace('.', '_');
-				// Support multiple parameters
-				if (parameters.containsKey(parName)) {
-					parName = parName + System.currentTimeMillis();
+				List<Predicate> predicates = new ArrayList<>();
+				for (List<?> inList : createInLists(in.getValues())) {
+					ParameterExpression<Collection> p = createParameter(builder, Collection.class, inList, parameters);
+					predicates.add(exp.in(p));
 				}
-
-				ParameterExpression<Collection> p = builder.parameter(Collection.class, parName);
-				parameters.put(parName, in.getValues());
-				return exp.in(p);
+				return predicates.size() == 1 ? predicates.get(0) : builder.or(predicates.toArray(new Predicate[0]));
 			} else {
 				Expression exp = getPropertyPath(root, in.getPropertyId(), true);
 				return exp.in(Lists.newArrayList(-1));
@@ -530,6 +1017,58 @@ public final class JpaQueryBuilder {
 		throw new UnsupportedOperationException("Filter: " + filter.getClass().getName() + " not recognized");
 	}
 
+	/**
+	 * Creates a query, reusing the rendered query from the template cache when a
+	 * query with the same shape was created before. Otherwise the criteria query
+	 * is built and the rendered query is stored as a template
+	 * 
+	 * @param entityManager the entity manager
+	 * @param resultClass   the result class of the query
+	 * @param key           the template key (<code>null</code> if the query cannot
+	 *                      be cached)
+	 * @param values        the parameter values that were collected while creating
+	 *                      the key
+	 * @param criteria      function that builds the criteria query, registering
+	 *                      the parameters in the provided map
+	 * @return
+	 */
+	private static <R> TypedQuery<R> createQuery(EntityManager entityManager, Class<R> resultClass, String key,
+			Map<String, Object> values, Function<Map<String, Object>, CriteriaQuery<R>> criteria) {
+		if (key != null) {
+			QueryTemplate template = QueryTemplateCache.get(key);
+			if (template != null) {
+				TypedQuery<R> query = entityManager.createQuery(template.getJpql(), resultClass);
+				setTemplateParameters(query, template, values);
+				return query;
+			}
+		}
+
+		Map<String, Object> pars = createParameterMap();
+		TypedQuery<R> query = entityManager.createQuery(criteria.apply(pars));
+		setParameters(query, pars);
+		if (key != null && pars.keySet().equals(values.keySet())) {
+			QueryTemplateCache.put(key, query, pars);
+		}
+		return query;
+	}
+
+	/**
+	 * Creates the key under which the rendered query is stored in the template
+	 * cache
+	 * 
+	 * @param filter the filter
+	 * @param values the map to which to add the parameter values of the filter
+	 * @param parts  the other elements that determine the shape of the query
+	 * @return the key, or <code>null</code> if the query cannot be cached
+	 */
+	private static String createTemplateKey(Filter filter, Map<String, Object> values, Object... parts) {
+		StringBuilder shape = new StringBuilder();
+		for (Object part : parts) {
+			shape.append(part).append('|');
+		}
+		return appendFilterShape(filter, shape, values) ? shape.toString() : null;
+	}
+
 	/**
 	 * Creates a query that simply selects some objects based on some filter
 	 * 
@@ -541,23 +1080,72 @@ public final class JpaQueryBuilder {
 	 */
 	public static <T> TypedQuery<T> createSelectQuery(Filter filter, EntityManager entityManager, Class<T> entityClass,
 			FetchJoinInformation[] fetchJoins, SortOrder... sortOrders) {
-		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-		CriteriaQuery<T> cq = builder.createQuery(entityClass);
-		Root<T> root = cq.from(entityClass);
+		return createSelectQuery(filter, entityManager, entityClass, fetchJoins, null, sortOrders);
+	}
 
-		boolean distinct = addFetchJoinInformation(root, fetchJoins);
-		cq.select(root);
-		cq.distinct(distinct);
+	/**
+	 * Creates a query that selects the next page of objects based on some filter,
+	 * using keyset (seek) paging: instead of skipping rows, only the rows that come
+	 * after the last row of the previous page (according to the sort orders) are
+	 * selected. The caller is still responsible for setting the maximum number of
+	 * results
+	 * 
+	 * @param filter        the filter
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param fetchJoins    the fetch joins to include
+	 * @param pageable      the keyset paging information
+	 * @return
+	 */
+	public static <T> TypedQuery<T> createSelectQuery(Filter filter, EntityManager entityManager, Class<T> entityClass,
+			FetchJoinInformation[] fetchJoins, KeysetPageable pageable) {
+		return createSelectQuery(filter, entityManager, entityClass, fetchJoins,
+				pageable.isSeek() ? pageable.getLastKeyValues() : null, pageable.getSortOrders().toArray());
+	}
 
-		Map<String, Object> pars = createParameterMap();
-		Predicate p = createPredicate(filter, builder, root, pars);
-		if (p != null) {
-			cq.where(p);
+	/**
+	 * Creates a query that selects objects based on some filter, optionally
+	 * restricted to the rows following the provided key values
+	 * 
+	 * @param filter        the filter
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param fetchJoins    the fetch joins to include
+	 * @param keyValues     the sort key values of the last row of the previous page
+	 *                      (may be <code>null</code>)
+	 * @param sortOrders    the sorting information
+	 * @return
+	 */
+	private static <T> TypedQuery<T> createSelectQuery(Filter filter, EntityManager entityManager, Class<T> entityClass,
+			FetchJoinInformation[] fetchJoins, Object[] keyValues, SortOrder... sortOrders) {
+		Map<String, Object> values = createParameterMap();
+		String key = createTemplateKey(filter, values, "select", entityClass.getName(), getFetchShape(fetchJoins),
+				getSortShape(sortOrders), getKeysetShape(keyValues));
+		if (key != null && keyValues != null) {
+			for (int i = 0; i < keyValues.length; i++) {
+				values.put(KEYSET_PARAMETER + i, keyValues[i]);
+			}
 		}
-		cq = addSortInformation(builder, cq, root, sortOrders);
-		TypedQuery<T> query = entityManager.createQuery(cq);
-		setParameters(query, pars);
-		return query;
+
+		return createQuery(entityManager, entityClass, key, values, pars -> {
+			CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+			CriteriaQuery<T> cq = builder.createQuery(entityClass);
+			Root<T> root = cq.from(entityClass);
+
+			boolean distinct = addFetchJoinInformation(root, fetchJoins);
+			cq.select(root);
+			cq.distinct(distinct);
+
+			Predicate p = createPredicate(filter, builder, root, pars);
+			if (keyValues != null) {
+				Predicate seek = createKeysetPredicate(builder, root, keyValues, pars, sortOrders);
+				p = p == null ? seek : builder.and(p, seek);
+			}
+			if (p != null) {
+				cq.where(p);
+			}
+			return addSortInformation(builder, cq, root, sortOrders);
+		});
 	}
 
 	/**
@@ -572,9 +1160,62 @@ public final class JpaQueryBuilder {
 	 * @param sortOrders       the sorting information
 	 * @return
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <T> TypedQuery<Object[]> createSelectQuery(Filter filter, EntityManager entityManager,
 			Class<T> entityClass, String[] selectProperties, SortOrders sortOrders) {
+		return createSelectQuery(filter, entityManager, entityClass, selectProperties, null, sortOrders);
+	}
+
+	/**
+	 * Creates a query that fetches properties instead of entities. Supports
+	 * aggregated functions (see {@link QueryFunction}); when used will
+	 * automatically add group by expressions for all properties in the select list
+	 * without an aggregated function. The "having" filter and the sort orders may
+	 * refer to aggregated values in the same way as the select list (e.g.
+	 * <code>QueryFunction.AF_SUM.with("age")</code>)
+	 * 
+	 * @param filter           the filter
+	 * @param entityManager    the entity manager
+	 * @param entityClass      the entity class
+	 * @param selectProperties the properties to use in the selection
+	 * @param having           the filter to apply to the groups
+	 * @param sortOrders       the sorting information
+	 * @return
+	 */
+	public static <T> TypedQuery<Object[]> createSelectQuery(Filter filter, EntityManager entityManager,
+			Class<T> entityClass, String[] selectProperties, Filter having, SortOrders sortOrders) {
+		SortOrder[] orders = sortOrders == null ? null : sortOrders.toArray();
+
+		// a single selection is not returned as an array when executed as JPQL
+		String key = null;
+		Map<String, Object> values = createParameterMap();
+		if (selectProperties != null && selectProperties.length > 1) {
+			key = createTemplateKey(filter, values, "project", entityClass.getName(),
+					String.join(",", selectProperties), getSortShape(orders));
+			if (key != null) {
+				// the parameters of the "having" filter are registered after those of the filter
+				key = createTemplateKey(having, values, key);
+			}
+		}
+		return createQuery(entityManager, Object[].class, key, values, pars -> createSelectCriteria(filter,
+				entityManager, entityClass, selectProperties, having, pars, orders));
+	}
+
+	/**
+	 * Builds the criteria query for a query that fetches properties instead of
+	 * entities
+	 * 
+	 * @param filter           the filter
+	 * @param entityManager    the entity manager
+	 * @param entityClass      the entity class
+	 * @param selectProperties the properties to use in the selection
+	 * @param having           the filter to apply to the groups
+	 * @param pars             the query parameter mapping
+	 * @param sortOrders       the sorting information
+	 * @return
+	 */
+	private static <T> CriteriaQuery<Object[]> createSelectCriteria(Filter filter, EntityManager entityManager,
+			Class<T> entityClass, String[] selectProperties, Filter having, Map<String, Object> pars,
+			SortOrder... sortOrders) {
 		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
 		CriteriaQuery<Object[]> cq = builder.createQuery(Object[].class);
 		Root<T> root = cq.from(entityClass);
@@ -586,49 +1227,18 @@ public final class JpaQueryBuilder {
 			Selection<?>[] selections = new Selection<?>[selectProperties.length];
 			int i = 0;
 			for (String sp : selectProperties) {
-
-				// Support nested properties
-				String[] ppath = sp.split("\\.");
-				// Test for function
-				QueryFunction f = null;
-				Path path = null;
-				try {
-					if (ppath.length > 1) {
-						f = QueryFunction.valueOf(ppath[ppath.length - 1]);
-						path = getPropertyPath(root, sp.substring(0, sp.lastIndexOf('.')), true);
-					}
-				} catch (Exception e) {
-					// Do nothing; not a supported function; assume property name
-				}
-				if (f != null) {
-					switch (f) {
-					case AF_AVG:
-						selections[i] = builder.avg(path);
-						break;
-					case AF_COUNT:
-						selections[i] = builder.count(path);
-						break;
-					case AF_COUNT_DISTINCT:
-						selections[i] = builder.countDistinct(path);
-						break;
-					case AF_SUM:
-						selections[i] = builder.sum(path);
-						break;
-					default:
-						throw new OCSRuntimeException("Unsupported function");
-					}
+				Expression<?> expression = createSelectExpression(builder, root, sp);
+				if (getQueryFunction(sp) != null) {
 					aggregated = true;
 				} else {
-					path = getPropertyPath(root, sp, true);
-					selections[i] = path;
-					grouping.add(path);
+					grouping.add(expression);
 				}
+				selections[i] = expression;
 				i++;
 			}
 			cq.select(builder.array(selections));
 		}
 
-		Map<String, Object> pars = createParameterMap();
 		Predicate p = createPredicate(filter, builder, root, pars);
 		if (p != null) {
 			cq.where(p);
@@ -636,10 +1246,130 @@ public final class JpaQueryBuilder {
 		if (aggregated) {
 			cq.groupBy(grouping);
 		}
-		cq = addSortInformation(builder, cq, root, sortOrders == null ? null : sortOrders.toArray());
-		TypedQuery<Object[]> query = entityManager.createQuery(cq);
-		setParameters(query, pars);
-		return query;
+		Predicate h = createHavingPredicate(having, builder, root, pars);
+		if (h != null) {
+			cq.having(h);
+		}
+
+		if (sortOrders != null && sortOrders.length > 0) {
+			List<javax.persistence.criteria.Order> orders = new ArrayList<>();
+			for (SortOrder sortOrder : sortOrders) {
+				Expression<?> expression = createSelectExpression(builder, root, sortOrder.getProperty());
+				orders.add(sortOrder.isAscending() ? builder.asc(expression) : builder.desc(expression));
+			}
+			cq.orderBy(orders);
+		}
+		return cq;
+	}
+
+	/**
+	 * Creates the expression for a property in the select list of a query that
+	 * fetches properties. This is either a (nested) property or an aggregated
+	 * function applied to a property
+	 * 
+	 * @param builder  the criteria builder
+	 * @param root     the query root
+	 * @param property the property, optionally followed by the function
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Expression<?> createSelectExpression(CriteriaBuilder builder, Root<?> root, String property) {
+		QueryFunction f = getQueryFunction(property);
+		if (f == null) {
+			return getPropertyPath(root, property, true);
+		}
+
+		Expression path = getPropertyPath(root, property.substring(0, property.lastIndexOf('.')), true);
+		switch (f) {
+		case AF_AVG:
+			return builder.avg(path);
+		case AF_COUNT:
+			return builder.count(path);
+		case AF_COUNT_DISTINCT:
+			return builder.countDistinct(path);
+		case AF_MAX:
+			// unlike "max", "greatest" also supports non-numeric values like dates
+			return builder.greatest(path);
+		case AF_MIN:
+			return builder.least(path);
+		case AF_SUM:
+			return builder.sum(path);
+		default:
+			throw new OCSRuntimeException("Unsupported function");
+		}
+	}
+
+	/**
+	 * Creates the predicate for the "having" clause of a query that fetches
+	 * properties. The property IDs of the filter may refer to aggregated functions
+	 * 
+	 * @param filter     the filter
+	 * @param builder    the criteria builder
+	 * @param root       the query root
+	 * @param parameters the query parameter mapping
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Predicate createHavingPredicate(Filter filter, CriteriaBuilder builder, Root<?> root,
+			Map<String, Object> parameters) {
+		if (filter == null) {
+			return null;
+		}
+
+		if (filter instanceof And || filter instanceof Or) {
+			List<Predicate> predicates = new ArrayList<>();
+			for (Filter f : ((AbstractJunctionFilter) filter).getFilters()) {
+				Predicate predicate = createHavingPredicate(f, builder, root, parameters);
+				if (predicate != null) {
+					predicates.add(predicate);
+				}
+			}
+			Predicate[] array = predicates.toArray(new Predicate[0]);
+			return filter instanceof And ? builder.and(array) : builder.or(array);
+		} else if (filter instanceof Not) {
+			return builder.not(createHavingPredicate(((Not) filter).getFilter(), builder, root, parameters));
+		} else if (filter instanceof Between) {
+			Between between = (Between) filter;
+			Expression property = createSelectExpression(builder, root, between.getPropertyId());
+			Class<?> type = getSelectExpressionType(between.getPropertyId(), property);
+			Expression<Comparable> start = createConvertedParameter(builder, type, between.getStartValue(),
+					parameters);
+			Expression<Comparable> end = createConvertedParameter(builder, type, between.getEndValue(), parameters);
+			return builder.between(getComparedExpression(getComparedExpression(property, start), end), start, end);
+		} else if (filter instanceof Compare) {
+			Compare compare = (Compare) filter;
+			Expression<Comparable> property = (Expression<Comparable>) createSelectExpression(builder, root,
+					compare.getPropertyId());
+			Object value = normalizeCompareValue(compare.getValue());
+			if (value == null) {
+				if (!Compare.Operation.EQUAL.equals(compare.getOperation())) {
+					throw new OCSRuntimeException("Cannot compare " + compare.getPropertyId() + " to an empty value");
+				}
+				return builder.isNull(property);
+			}
+
+			Expression<Comparable> par = createConvertedParameter(builder,
+					getSelectExpressionType(compare.getPropertyId(), property), value, parameters);
+			property = getComparedExpression(property, par);
+			switch (compare.getOperation()) {
+			case EQUAL:
+				return builder.equal(property, par);
+			case GREATER:
+				return builder.greaterThan(property, par);
+			case GREATER_OR_EQUAL:
+				return builder.greaterThanOrEqualTo(property, par);
+			case LESS:
+				return builder.lessThan(property, par);
+			case LESS_OR_EQUAL:
+				return builder.lessThanOrEqualTo(property, par);
+			default:
+				throw new OCSRuntimeException("Operation " + compare.getOperation() + " not supported in having clause");
+			}
+		} else if (filter instanceof IsNull) {
+			return builder.isNull(createSelectExpression(builder, root, ((IsNull) filter).getPropertyId()));
+		}
+
+		throw new OCSRuntimeException("Filter: " + filter.getClass().getName() + " not supported in having clause");
 	}
 
 	/**
@@ -701,6 +1431,184 @@ public final class JpaQueryBuilder {
 		return cq;
 	}
 
+	/**
+	 * Creates a bulk update query for the entities that match the provided filter
+	 * 
+	 * @param entityManager the entity manager
+	 * @param entityClass   the entity class
+	 * @param filter        the filter to apply
+	 * @param assignments   the new values, keyed by property name
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static <T> Query createUpdateQuery(EntityManager entityManager, Class<T> entityClass, Filter filter,
+			Map<String, Object> assignments) {
+		if (assignments == null || assignments.isEmpty()) {
+			throw new OCSRuntimeException("A bulk update requires at least one assignment");
+		}
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<T> cu = builder.createCriteriaUpdate(entityClass);
+		Root<T> root = cu.from(entityClass);
+
+		Map<String, Object> pars = createParameterMap();
+		for (Entry<String, Object> entry : assignments.entrySet()) {
+			Path path = getPropertyPath(root, entry.getKey(), false);
+			if (entry.getValue() == null) {
+				cu.set(path, (Object) null);
+			} else {
+				cu.set(path, (Expression) createParameter(builder, path, entry.getValue(), pars));
+			}
+		}
+
+		Predicate p = createPredicate(filter, builder, root, pars);
+		if (!root.getJoins().isEmpty()) {
+			throw new OCSRuntimeException("Collection properties are not supported in a bulk update");
+		}
+		if (p != null) {
+			cu.where(p);
+		}
+		Query query = entityManager.createQuery(cu);
+		setParameters(query, pars);
+		return query;
+	}
+
+	/**
+	 * Returns the name of the query cache region in which the results of the
+	 * queries for an entity class are stored
+	 * 
+	 * @param entityClass the entity class
+	 * @return
+	 */
+	public static String getCacheRegion(Class<?> entityClass) {
+		return QUERY_CACHE_REGION + entityClass.getName();
+	}
+
+	/**
+	 * Returns the shape of the fetch joins for use in a template key
+	 * 
+	 * @param fetchJoins the fetch joins
+	 * @return
+	 */
+	private static String getFetchShape(FetchJoinInformation... fetchJoins) {
+		StringBuilder shape = new StringBuilder();
+		if (fetchJoins != null) {
+			for (FetchJoinInformation fetchJoin : fetchJoins) {
+				shape.append(fetchJoin.getProperty()).append(':').append(fetchJoin.getJoinType()).append(',');
+			}
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * Returns the shape of the keyset values for use in a template key
+	 * 
+	 * @param keyValues the key values (may be <code>null</code>)
+	 * @return
+	 */
+	private static String getKeysetShape(Object... keyValues) {
+		StringBuilder shape = new StringBuilder();
+		if (keyValues != null) {
+			for (Object value : keyValues) {
+				shape.append(getValueShape(value)).append(',');
+			}
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * Returns the shape of the sort orders for use in a template key
+	 * 
+	 * @param sortOrders the sort orders
+	 * @return
+	 */
+	private static String getSortShape(SortOrder... sortOrders) {
+		StringBuilder shape = new StringBuilder();
+		if (sortOrders != null) {
+			for (SortOrder sortOrder : sortOrders) {
+				shape.append(sortOrder.getProperty()).append(':').append(sortOrder.getDirection()).append(',');
+			}
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * Returns the shape of a parameter value. Values of different types may result
+	 * in different parameter types (e.g. a string that holds a number is converted
+	 * to the type of a numeric property) so the type is part of the shape, as is
+	 * whether a number has a fractional part (which prevents the conversion)
+	 * 
+	 * @param value the value
+	 * @return
+	 */
+	private static String getValueShape(Object value) {
+		String shape;
+		if (value == null) {
+			return "null";
+		} else if (value instanceof String) {
+			shape = convertNumber(value, BigDecimal.class) instanceof BigDecimal ? "number" : "string";
+		} else if (value instanceof Number) {
+			shape = value.getClass().getName();
+		} else {
+			return value.getClass().getName();
+		}
+		return isFraction(value) ? shape + ":fraction" : shape;
+	}
+
+	/**
+	 * Returns the type of the result of an expression in the select list of a
+	 * query that fetches properties. The type of an aggregated value may differ
+	 * from the type of the property (e.g. the sum of integers is a long)
+	 * 
+	 * @param property   the property, optionally followed by the function
+	 * @param expression the expression
+	 * @return
+	 */
+	private static Class<?> getSelectExpressionType(String property, Expression<?> expression) {
+		Class<?> type = org.apache.commons.lang3.ClassUtils.primitiveToWrapper(expression.getJavaType());
+		QueryFunction f = getQueryFunction(property);
+		if (f == null || type == null) {
+			return type;
+		}
+
+		switch (f) {
+		case AF_AVG:
+			return Double.class;
+		case AF_COUNT:
+		case AF_COUNT_DISTINCT:
+			return Long.class;
+		case AF_SUM:
+			if (Integer.class.equals(type) || Short.class.equals(type) || Byte.class.equals(type)) {
+				return Long.class;
+			} else if (Float.class.equals(type)) {
+				return Double.class;
+			}
+			return type;
+		default:
+			return type;
+		}
+	}
+
+	/**
+	 * Returns the aggregated function that is applied to a property (e.g.
+	 * "age.AF_SUM")
+	 * 
+	 * @param property the property
+	 * @return the function, or <code>null</code> if the property does not end with
+	 *         a supported function
+	 */
+	private static QueryFunction getQueryFunction(String property) {
+		int p = property.lastIndexOf('.');
+		if (p > 0) {
+			try {
+				return QueryFunction.valueOf(property.substring(p + 1));
+			} catch (IllegalArgumentException ex) {
+				// not a function; assume property name
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Gets property path.
 	 * 
@@ -772,18 +1680,75 @@ public final class JpaQueryBuilder {
 		return result;
 	}
 
+	/**
+	 * Normalizes the value of a Compare filter. The number representation may
+	 * contain locale specific separators. Here, we remove those and make sure a
+	 * period is used in all cases
+	 * 
+	 * @param value the value
+	 * @return
+	 */
+	private static Object normalizeCompareValue(Object value) {
+		if (value instanceof String) {
+
+			// strip out any "%" sign from decimal fields
+			String str = ((String) value).replace('%', ' ').trim();
+			if (StringUtils.isNumeric(str.replaceAll("\\.", "").replaceAll(",", ""))) {
+				// first remove all periods (which may be used as
+				// thousand
+				// separators), then replace comma by period
+				str = str.replaceAll("\\.", "").replace(',', '.');
+			}
+			return str;
+		}
+		return value;
+	}
+
+	/**
+	 * Marks a query as cacheable, so that its results are stored in the query
+	 * cache region of the entity class. Has no effect when the query cache is not
+	 * enabled
+	 * 
+	 * @param query       the query
+	 * @param entityClass the entity class
+	 */
+	public static void setCacheHints(Query query, Class<?> entityClass) {
+		query.setHint(QueryHints.HINT_CACHEABLE, true);
+		query.setHint(QueryHints.HINT_CACHE_REGION, getCacheRegion(entityClass));
+	}
+
 	/**
 	 * Sets any parameter values on the query
 	 * 
 	 * @param query the query
 	 * @param pars  the parameter values
 	 */
-	public static void setParameters(TypedQuery<?> query, Map<String, Object> pars) {
+	public static void setParameters(Query query, Map<String, Object> pars) {
 		for (Entry<String, Object> entry : pars.entrySet()) {
 			query.setParameter(entry.getKey(), entry.getValue());
 		}
 	}
 
+	/**
+	 * Sets the parameter values on a query that was created from a template. Since
+	 * the values are not compared to the property paths, numbers are converted to
+	 * the parameter types of the template
+	 * 
+	 * @param query    the query
+	 * @param template the template
+	 * @param pars     the parameter values
+	 */
+	private static void setTemplateParameters(TypedQuery<?> query, QueryTemplate template, Map<String, Object> pars) {
+		for (Entry<String, Object> entry : pars.entrySet()) {
+			Object value = entry.getValue();
+			Class<?> type = template.getParameterType(entry.getKey());
+			if (value != null && type != null && Number.class.isAssignableFrom(type) && !type.isInstance(value)) {
+				value = convertNumber(value, type);
+			}
+			query.setParameter(entry.getKey(), value);
+		}
+	}
+
 	/**
 	 * Translates a JoinType
 	 * 
@@ -0,0 +1,182 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.dao.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.persistence.TypedQuery;
+
+/**
+ * Cache of rendered query templates. Building a criteria query (splitting
+ * property paths, creating joins, translating the filter into predicates and
+ * rendering the result to JPQL) is relatively expensive, while most screens
+ * execute the same filter structures over and over again with different values.
+ *
+ * The templates are keyed by the "shape" of the query (the type of query, the
+ * entity class, the operator tree and property IDs of the filter, the sort
+ * orders and fetch joins), but not by the filter values. A template holds the
+ * rendered JPQL and the types of the parameters, so that a subsequent query with
+ * the same shape only has to bind the values
+ *
+ * @author bas.rutten
+ *
+ */
+public final class QueryTemplateCache {
+
+	/**
+	 * The maximum number of templates to keep. When exceeded, the least recently
+	 * used template is removed
+	 */
+	private static final int MAX_SIZE = 1000;
+
+	/**
+	 * Pattern for the named parameters in a JPQL string
+	 */
+	private static final Pattern PARAMETER_PATTERN = Pattern.compile(":(\\w+)");
+
+	private static final Map<String, QueryTemplate> TEMPLATES = Collections
+			.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = -3181409474581297733L;
+
+				@Override
+				protected boolean removeEldestEntry(Entry<String, QueryTemplate> eldest) {
+					return size() > MAX_SIZE;
+				}
+			});
+
+	private static final AtomicLong HITS = new AtomicLong();
+
+	private static final AtomicLong MISSES = new AtomicLong();
+
+	private QueryTemplateCache() {
+		// hidden constructor
+	}
+
+	/**
+	 * Looks up the template for a query shape
+	 *
+	 * @param key the key that describes the shape of the query
+	 * @return the template, or <code>null</code> if there is none
+	 */
+	static QueryTemplate get(String key) {
+		QueryTemplate template = TEMPLATES.get(key);
+		if (template != null) {
+			HITS.incrementAndGet();
+		} else {
+			MISSES.incrementAndGet();
+		}
+		return template;
+	}
+
+	/**
+	 * Stores the template for a query that was built using the criteria API. The
+	 * template is only stored when all parameters of the rendered query are
+	 * explicit parameters (i.e. no values were rendered as literals)
+	 *
+	 * @param key        the key that describes the shape of the query
+	 * @param query      the query
+	 * @param parameters the explicit parameter values of the query
+	 */
+	static void put(String key, TypedQuery<?> query, Map<String, Object> parameters) {
+		String jpql = query.unwrap(org.hibernate.query.Query.class).getQueryString();
+		if (jpql == null) {
+			return;
+		}
+
+		Matcher matcher = PARAMETER_PATTERN.matcher(jpql);
+		while (matcher.find()) {
+			if (!parameters.containsKey(matcher.group(1))) {
+				// implicit (literal) parameter, the query cannot be reproduced from the JPQL
+				return;
+			}
+		}
+
+		Map<String, Class<?>> types = new HashMap<>();
+		parameters.forEach((name, value) -> types.put(name, value == null ? null : value.getClass()));
+		TEMPLATES.put(key, new QueryTemplate(jpql, types));
+	}
+
+	/**
+	 * Removes all templates and resets the statistics
+	 */
+	public static void clear() {
+		TEMPLATES.clear();
+		HITS.set(0);
+		MISSES.set(0);
+	}
+
+	/**
+	 *
+	 * @return the number of times a template was found
+	 */
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/**
+	 *
+	 * @return the number of times no template was found
+	 */
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/**
+	 *
+	 * @return the number of cached templates
+	 */
+	public static int size() {
+		return TEMPLATES.size();
+	}
+
+	/**
+	 * A rendered query along with the types of its parameters
+	 *
+	 * @author bas.rutten
+	 *
+	 */
+	static final class QueryTemplate {
+
+		private final String jpql;
+
+		private final Map<String, Class<?>> parameterTypes;
+
+		QueryTemplate(String jpql, Map<String, Class<?>> parameterTypes) {
+			this.jpql = jpql;
+			this.parameterTypes = Collections.unmodifiableMap(parameterTypes);
+		}
+
+		public String getJpql() {
+			return jpql;
+		}
+
+		/**
+		 *
+		 * @param name the name of the parameter
+		 * @return the type of the value that was bound when the template was created
+		 *         (<code>null</code> if unknown)
+		 */
+		public Class<?> getParameterType(String name) {
+			return parameterTypes.get(name);
+		}
+	}
+}
@@ -13,12 +13,20 @@
  */
 package com.ocs.dynamo.dao.impl;
 
+import com.google.common.collect.Lists;
+import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.TreeDao;
 import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.util.SystemPropertyUtils;
+import com.ocs.dynamo.utils.ClassUtils;
 import com.querydsl.core.types.dsl.EntityPathBase;
 import com.querydsl.jpa.impl.JPAQuery;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Base implementation of a DAO with tree support
@@ -32,6 +40,13 @@ import java.util.List;
 public abstract class TreeDaoImpl<ID, T extends AbstractEntity<ID>> extends BaseDaoImpl<ID, T>
         implements TreeDao<ID, T> {
 
+    /**
+     * @return the name of the property that holds the children of a node
+     */
+    protected String getChildrenProperty() {
+        return "children";
+    }
+
     /**
      * @return the QueryDSL path to the parent
      */
@@ -51,4 +66,48 @@ public abstract class TreeDaoImpl<ID, T extends AbstractEntity<ID>> extends Base
         return query.fetch();
     }
 
+    @Override
+    public List<T> findByParents(Collection<T> parents) {
+        List<T> result = new ArrayList<>();
+        if (parents == null || parents.isEmpty()) {
+            return result;
+        }
+
+        int max = SystemPropertyUtils.getMaxInListSize();
+        List<List<T>> chunks = max > 0 && parents.size() > max ? Lists.partition(new ArrayList<>(parents), max)
+                : Collections.singletonList(new ArrayList<>(parents));
+        for (List<T> chunk : chunks) {
+            JPAQuery<T> query = createQuery();
+            query.where(getParentPath().in(chunk));
+            result.addAll(query.fetch());
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T findSubtree(T root, int depth) {
+        if (root == null) {
+            return null;
+        }
+
+        // load the nodes of every level along with their children
+        FetchJoinInformation children = new FetchJoinInformation(getChildrenProperty());
+        List<ID> ids = Collections.singletonList(root.getId());
+        T result = null;
+        for (int i = 0; i < depth && !ids.isEmpty(); i++) {
+            List<T> nodes = fetchByIds(ids, null, children);
+            if (result == null) {
+                if (nodes.isEmpty()) {
+                    return null;
+                }
+                result = nodes.get(0);
+            }
+            ids = nodes.stream()
+                    .flatMap(node -> ((Collection<T>) ClassUtils.getFieldValue(node, getChildrenProperty())).stream())
+                    .map(AbstractEntity::getId).collect(Collectors.toList());
+        }
+        return result == null ? findById(root.getId()) : result;
+    }
+
 }
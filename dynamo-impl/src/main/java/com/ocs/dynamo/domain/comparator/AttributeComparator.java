@@ -37,11 +37,22 @@ public class AttributeComparator<T extends AbstractEntity<?>> implements Compara
     }
 
     @Override
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     public int compare(T o1, T o2) {
         Object v1 = ClassUtils.getFieldValue(o1, attribute);
         Object v2 = ClassUtils.getFieldValue(o2, attribute);
+        return compareValues(v1, v2);
+    }
 
+    /**
+     * Compares two attribute values. Null values come first and strings are
+     * compared case-insensitively
+     * 
+     * @param v1 the first value
+     * @param v2 the second value
+     * @return
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static int compareValues(Object v1, Object v2) {
         if (v1 == null && v2 == null) {
             return 0;
         } else if (v1 == null) {
@@ -54,6 +65,5 @@ public class AttributeComparator<T extends AbstractEntity<?>> implements Compara
             return ((Comparable) v1).compareTo(v2);
         }
         return 0;
-
     }
 }
@@ -27,8 +27,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
@@ -104,6 +105,19 @@ public class EntityModelFactoryImpl implements EntityModelFactory, EntityModelCo
 
 	private ConcurrentMap<String, EntityModel<?>> cache = new ConcurrentHashMap<>();
 
+	/**
+	 * The models that are being (or have been) constructed, per reference. The
+	 * thread that registers the future constructs the model, other threads that
+	 * need the same model wait for it
+	 */
+	private ConcurrentMap<String, CompletableFuture<EntityModel<?>>> constructions = new ConcurrentHashMap<>();
+
+	/**
+	 * The references of the models that are being constructed by the current
+	 * thread
+	 */
+	private static final ThreadLocal<Set<String>> IN_CONSTRUCTION = ThreadLocal.withInitial(HashSet::new);
+
 	private ConcurrentMap<String, Class<?>> alreadyProcessed = new ConcurrentHashMap<>();
 
 	private EntityModelFactory[] delegatedModelFactories;
@@ -475,7 +489,7 @@ public class EntityModelFactoryImpl implements EntityModelFactory, EntityModelCo
 	 * @param entityClass the class of the entity
 	 * @return
 	 */
-	protected synchronized <T> EntityModel<T> constructModel(String reference, Class<T> entityClass) {
+	protected <T> EntityModel<T> constructModel(String reference, Class<T> entityClass) {
 
 		// Delegate to other factories first
 		EntityModelImpl<T> entityModel = null;
@@ -808,12 +822,62 @@ public class EntityModelFactoryImpl implements EntityModelFactory, EntityModelCo
 		if (!StringUtils.isEmpty(reference) && entityClass != null) {
 			model = (EntityModel<T>) cache.get(reference);
 			if (model == null) {
-				model = constructModel(reference, entityClass);
+				model = getOrConstructModel(reference, entityClass);
 			}
 		}
 		return model;
 	}
 
+	/**
+	 * Returns the model for the provided reference, constructing it if no other
+	 * thread is doing so already. Models for different references are constructed
+	 * in parallel
+	 *
+	 * @param reference   the reference of the model
+	 * @param entityClass the entity class
+	 * @return
+	 */
+	@SuppressWarnings({ "unchecked" })
+	private <T> EntityModel<T> getOrConstructModel(String reference, Class<T> entityClass) {
+		CompletableFuture<EntityModel<?>> future = new CompletableFuture<>();
+		CompletableFuture<EntityModel<?>> existing = constructions.putIfAbsent(reference, future);
+		Set<String> inConstruction = IN_CONSTRUCTION.get();
+
+		if (existing != null) {
+			if (existing.isDone() && !existing.isCompletedExceptionally()) {
+				return (EntityModel<T>) existing.join();
+			}
+			if (!inConstruction.isEmpty()) {
+				// cycle (or potential cross-thread deadlock): a thread that is constructing a
+				// model never waits for another one, but receives a model that is resolved on
+				// first use
+				return new LazyEntityModelWrapper<>(this, reference, entityClass);
+			}
+			try {
+				return (EntityModel<T>) existing.join();
+			} catch (CompletionException ex) {
+				if (ex.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) ex.getCause();
+				}
+				throw new OCSRuntimeException(ex.getMessage(), ex);
+			}
+		}
+
+		inConstruction.add(reference);
+		try {
+			EntityModel<T> model = constructModel(reference, entityClass);
+			future.complete(model);
+			return model;
+		} catch (RuntimeException ex) {
+			// allow a later attempt to construct the model again
+			constructions.remove(reference, future);
+			future.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inConstruction.remove(reference);
+		}
+	}
+
 	/**
 	 * Check if a certain entity model has already been processed
 	 *
@@ -822,15 +886,9 @@ public class EntityModelFactoryImpl implements EntityModelFactory, EntityModelCo
 	 * @return
 	 */
 	protected boolean hasEntityModel(Class<?> type, String reference) {
-		for (Entry<String, Class<?>> e : alreadyProcessed.entrySet()) {
-			if (reference.equals(e.getKey()) && e.getValue().equals(type)) {
-				// only check for starting reference in order to prevent
-				// recursive looping between
-				// two-sided relations
-				return true;
-			}
-		}
-		return false;
+		// only check for starting reference in order to prevent recursive looping
+		// between two-sided relations
+		return type.equals(alreadyProcessed.get(reference));
 	}
 
 	public boolean hasModel(String reference) {
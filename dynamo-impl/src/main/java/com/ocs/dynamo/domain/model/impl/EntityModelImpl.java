@@ -14,8 +14,10 @@
 package com.ocs.dynamo.domain.model.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -24,9 +26,7 @@ import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -70,15 +70,23 @@ public class EntityModelImpl<T> implements EntityModel<T> {
 
     private Map<AttributeModel, Boolean> sortOrder = new LinkedHashMap<>();
 
+    /**
+     * Precomputed lookup structures, built on first use and discarded whenever an
+     * attribute model or group is added
+     */
+    private volatile AttributeIndex index;
+
     @Override
     public void addAttributeGroup(String attributeGroup) {
         if (!attributeModels.containsKey(attributeGroup)) {
             attributeModels.put(attributeGroup, new ArrayList<>());
+            index = null;
         }
     }
 
     public void addAttributeModel(String attributeGroup, AttributeModel model) {
         attributeModels.get(attributeGroup).add(model);
+        index = null;
     }
 
     @Override
@@ -89,23 +97,21 @@ public class EntityModelImpl<T> implements EntityModel<T> {
         } else {
             group.add(model);
         }
+        index = null;
     }
 
     /**
-     * Constructs a stream of all attribute models
+     * Returns the lookup structures, building them if needed
      * 
      * @return
      */
-    private Stream<AttributeModel> constructAttributeModelStream() {
-        return attributeModels.values().stream().flatMap(List::stream).sorted(Comparator.comparing(AttributeModel::getOrder));
-    }
-
-    private List<AttributeModel> filterAttributeModels(Predicate<AttributeModel> p) {
-        return Collections.unmodifiableList(constructAttributeModelStream().filter(p).collect(Collectors.toList()));
-    }
-
-    private AttributeModel findAttributeModel(Predicate<AttributeModel> p) {
-        return constructAttributeModelStream().filter(p).findFirst().orElse(null);
+    private AttributeIndex getIndex() {
+        AttributeIndex result = index;
+        if (result == null) {
+            result = new AttributeIndex(attributeModels);
+            index = result;
+        }
+        return result;
     }
 
     @Override
@@ -115,48 +121,60 @@ public class EntityModelImpl<T> implements EntityModel<T> {
 
     @Override
     public AttributeModel getAttributeModel(String attributeName) {
-        if (!StringUtils.isEmpty(attributeName)) {
+        if (StringUtils.isEmpty(attributeName)) {
+            return null;
+        }
 
-            AttributeModel model = findAttributeModel(m -> m.getName().equals(attributeName));
-            if (model != null) {
-                return model;
-            }
+        AttributeIndex current = getIndex();
+        AttributeModel model = current.byName.get(attributeName);
+        if (model != null) {
+            return model;
+        }
 
+        int p = attributeName.indexOf('.');
+        if (p < 0) {
+            return null;
+        }
+
+        model = current.nested.get(attributeName);
+        if (model == null) {
             // check for nested property
-            String[] names = attributeName.split("\\.");
-            if (names.length > 1) {
-                // Find Attribute model
-                AttributeModel am = getAttributeModel(names[0]);
-                if (am != null) {
-                    // Find nested entity model
-                    EntityModel<?> nem = am.getNestedEntityModel();
-                    if (nem != null) {
-                        return nem.getAttributeModel(attributeName.substring(names[0].length() + 1));
-                    }
+            AttributeModel am = current.byName.get(attributeName.substring(0, p));
+            if (am != null) {
+                // Find nested entity model
+                EntityModel<?> nem = am.getNestedEntityModel();
+                if (nem != null) {
+                    model = nem.getAttributeModel(attributeName.substring(p + 1));
                 }
             }
+            // only remember hits, since the nested model might still be extended
+            if (model != null) {
+                current.nested.put(attributeName, model);
+            }
         }
-        return null;
+        return model;
     }
 
     @Override
     public List<AttributeModel> getAttributeModels() {
-        List<AttributeModel> list = constructAttributeModelStream().collect(Collectors.toList());
-        return Collections.unmodifiableList(list);
+        return getIndex().all;
     }
 
     @Override
     public List<AttributeModel> getAttributeModelsForGroup(String group) {
-        return Collections.unmodifiableList(attributeModels.get(group));
+        return getIndex().byGroup.get(group);
     }
 
     @Override
     public List<AttributeModel> getAttributeModelsForType(AttributeType attributeType, Class<?> type) {
-        return filterAttributeModels(model -> {
-            Class<?> rt = ClassUtils.getResolvedType(getEntityClass(), model.getName(), 0);
-            return (attributeType == null || attributeType.equals(model.getAttributeType()))
-                    && (type == null || type.isAssignableFrom(model.getType()) || (rt != null && type.isAssignableFrom(rt)));
-        });
+        AttributeIndex current = getIndex();
+        return current.byType.computeIfAbsent(Arrays.asList(attributeType, type),
+                key -> Collections.unmodifiableList(current.all.stream().filter(model -> {
+                    Class<?> rt = ClassUtils.getResolvedType(getEntityClass(), model.getName(), 0);
+                    return (attributeType == null || attributeType.equals(model.getAttributeType()))
+                            && (type == null || type.isAssignableFrom(model.getType())
+                                    || (rt != null && type.isAssignableFrom(rt)));
+                }).collect(Collectors.toList())));
     }
 
     @Override
@@ -216,7 +234,7 @@ public class EntityModelImpl<T> implements EntityModel<T> {
 
     @Override
     public AttributeModel getMainAttributeModel() {
-        return findAttributeModel(AttributeModel::isMainAttribute);
+        return getIndex().all.stream().filter(AttributeModel::isMainAttribute).findFirst().orElse(null);
     }
 
     @Override
@@ -226,7 +244,7 @@ public class EntityModelImpl<T> implements EntityModel<T> {
 
     @Override
     public List<AttributeModel> getRequiredForSearchingAttributeModels() {
-        List<AttributeModel> result = constructAttributeModelStream().map(m -> {
+        List<AttributeModel> result = getAttributeModels().stream().map(m -> {
             List<AttributeModel> list = new ArrayList<>();
             if (m.isSearchable() && m.isRequiredForSearching()) {
                 list.add(m);
@@ -322,4 +340,44 @@ public class EntityModelImpl<T> implements EntityModel<T> {
         return attributeModels.keySet().size() == 1 && attributeModels.keySet().iterator().next().equals(EntityModel.DEFAULT_GROUP);
     }
 
+    /**
+     * Immutable lookup structures for the attribute models of an entity model
+     * 
+     * @author bas.rutten
+     *
+     */
+    private static final class AttributeIndex {
+
+        /**
+         * All attribute models, sorted by order
+         */
+        private final List<AttributeModel> all;
+
+        private final Map<String, AttributeModel> byName;
+
+        private final Map<String, List<AttributeModel>> byGroup;
+
+        /**
+         * Resolved nested property paths
+         */
+        private final Map<String, AttributeModel> nested = new ConcurrentHashMap<>();
+
+        private final Map<List<Object>, List<AttributeModel>> byType = new ConcurrentHashMap<>();
+
+        AttributeIndex(Map<String, List<AttributeModel>> attributeModels) {
+            this.all = Collections.unmodifiableList(attributeModels.values().stream().flatMap(List::stream)
+                    .sorted(Comparator.comparing(AttributeModel::getOrder)).collect(Collectors.toList()));
+
+            Map<String, AttributeModel> names = new HashMap<>();
+            for (AttributeModel model : all) {
+                // in case of duplicates, the first one in the ordering wins
+                names.putIfAbsent(model.getName(), model);
+            }
+            this.byName = Collections.unmodifiableMap(names);
+
+            Map<String, List<AttributeModel>> groups = new HashMap<>();
+            attributeModels.forEach((group, models) -> groups.put(group, Collections.unmodifiableList(new ArrayList<>(models))));
+            this.byGroup = Collections.unmodifiableMap(groups);
+        }
+    }
 }
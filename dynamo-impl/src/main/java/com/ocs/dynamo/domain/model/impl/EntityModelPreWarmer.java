@@ -0,0 +1,84 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.domain.model.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import com.ocs.dynamo.domain.model.EntityModelFactory;
+
+/**
+ * Constructs the entity models of all JPA entities in parallel once the
+ * application has started, so that the first users do not have to wait for the
+ * models to be built
+ *
+ * @author bas.rutten
+ *
+ */
+public class EntityModelPreWarmer implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EntityModelPreWarmer.class);
+
+	private final EntityModelFactory entityModelFactory;
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Constructor
+	 *
+	 * @param entityModelFactory   the entity model factory
+	 * @param entityManagerFactory the entity manager factory used to look up the
+	 *                             entity classes
+	 */
+	public EntityModelPreWarmer(EntityModelFactory entityModelFactory, EntityManagerFactory entityManagerFactory) {
+		this.entityModelFactory = entityModelFactory;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		List<Class<?>> entityClasses = entityManagerFactory.getMetamodel().getEntities().stream()
+				.map(EntityType::getJavaType).filter(c -> c != null && c.isAnnotationPresent(Entity.class))
+				.collect(Collectors.toList());
+		preWarm(entityClasses);
+	}
+
+	/**
+	 * Constructs the entity models for the provided classes in parallel
+	 *
+	 * @param entityClasses the entity classes
+	 */
+	public void preWarm(Collection<Class<?>> entityClasses) {
+		long start = System.currentTimeMillis();
+		entityClasses.parallelStream().forEach(clazz -> {
+			try {
+				entityModelFactory.getModel(clazz);
+			} catch (RuntimeException ex) {
+				// the model is constructed again (and the error reported) on first use
+				LOG.warn("Could not construct entity model for {}: {}", clazz.getName(), ex.getMessage());
+			}
+		});
+		LOG.info("Constructed {} entity models in {} ms", entityClasses.size(), System.currentTimeMillis() - start);
+	}
+}
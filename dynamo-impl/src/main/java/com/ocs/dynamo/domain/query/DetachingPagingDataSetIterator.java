@@ -0,0 +1,223 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.domain.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.core.task.TaskDecorator;
+
+import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.SortOrders;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.exception.OCSRuntimeException;
+import com.ocs.dynamo.service.BaseService;
+
+/**
+ * An iterator for traversing large data sets (e.g. for exports or batch jobs)
+ * that keeps the size of the persistence context bounded. Pages are fetched in
+ * read-only mode and are detached from the persistence context as soon as the
+ * next page is requested.
+ *
+ * Optionally, the next page is prefetched on a background thread while the
+ * current page is being processed. Note that the prefetched entities are
+ * retrieved outside of the persistence context of the calling thread, so any
+ * relations that are needed must be included in the fetch joins. Thread-bound
+ * state of the caller (e.g. the security context) is only available to the
+ * background thread when it is copied by a {@link TaskDecorator}.
+ * Close the iterator when it is abandoned before it is exhausted, so that the
+ * background thread is stopped
+ *
+ * @author bas.rutten
+ * @param <ID> the type of the primary key of the entity
+ * @param <T>  the type of the entity
+ */
+public class DetachingPagingDataSetIterator<ID extends Serializable, T extends AbstractEntity<ID>>
+		implements DataSetIterator<ID, T>, AutoCloseable {
+
+	private final BaseService<ID, T> service;
+
+	private final List<ID> idList;
+
+	private final int pageSize;
+
+	private final SortOrders sortOrders;
+
+	private final FetchJoinInformation[] joins;
+
+	// executor used for prefetching, null when prefetching is disabled
+	private ExecutorService executor;
+
+	// decorator that is applied to every prefetch task
+	private TaskDecorator decorator;
+
+	// the page that is being prefetched
+	private Future<List<T>> nextPage;
+
+	// the data in the current page
+	private List<T> page = Collections.emptyList();
+
+	// the index in the current page
+	private int indexInPage;
+
+	// the index of the first record of the next page to read
+	private int nextPageStart;
+
+	/**
+	 * Constructor
+	 *
+	 * @param service    the service used to retrieve the pages
+	 * @param idList     the IDs of the relevant records
+	 * @param pageSize   the page size
+	 * @param prefetch   whether to prefetch the next page on a background thread
+	 * @param sortOrders the sort orders to apply within a page
+	 * @param joins      the relations to fetch
+	 */
+	public DetachingPagingDataSetIterator(BaseService<ID, T> service, List<ID> idList, int pageSize, boolean prefetch,
+			SortOrders sortOrders, FetchJoinInformation... joins) {
+		this.service = service;
+		this.idList = idList;
+		this.pageSize = pageSize;
+		this.sortOrders = sortOrders;
+		this.joins = joins;
+		if (prefetch) {
+			this.executor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "dataset-prefetch");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	@Override
+	public T next() {
+		try {
+			while (indexInPage >= page.size()) {
+				// release the previous page before moving on
+				releasePage(page);
+				if (nextPageStart >= idList.size()) {
+					page = Collections.emptyList();
+					close();
+					return null;
+				}
+				page = takeNextPage();
+				indexInPage = 0;
+			}
+			return page.get(indexInPage++);
+		} catch (RuntimeException ex) {
+			// stop prefetching, the iterator cannot be used any further
+			close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns the next page, either the one that was prefetched or a freshly read
+	 * one, and schedules the prefetch of the page after that
+	 *
+	 * @return
+	 */
+	private List<T> takeNextPage() {
+		List<T> result;
+		if (nextPage != null) {
+			result = await(nextPage);
+			nextPage = null;
+		} else {
+			result = readPage(nextIds());
+		}
+		nextPageStart = Math.min(nextPageStart + pageSize, idList.size());
+
+		if (executor != null && nextPageStart < idList.size()) {
+			List<ID> ids = nextIds();
+			FutureTask<List<T>> task = new FutureTask<>(() -> readPage(ids));
+			executor.execute(decorator == null ? task : decorator.decorate(task));
+			nextPage = task;
+		}
+		return result;
+	}
+
+	private List<ID> nextIds() {
+		return new ArrayList<>(idList.subList(nextPageStart, Math.min(nextPageStart + pageSize, idList.size())));
+	}
+
+	private List<T> await(Future<List<T>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new OCSRuntimeException(ex.getMessage(), ex);
+		} catch (ExecutionException ex) {
+			throw new OCSRuntimeException(ex.getCause().getMessage(), ex.getCause());
+		}
+	}
+
+	/**
+	 * Reads a page of data in read-only mode
+	 *
+	 * @param ids the IDs of the entities to read
+	 * @return
+	 */
+	protected List<T> readPage(List<ID> ids) {
+		return service.fetchByIdsReadOnly(ids, sortOrders, joins);
+	}
+
+	/**
+	 * Releases a page that has been fully processed by detaching its entities
+	 *
+	 * @param entities the entities in the page
+	 */
+	protected void releasePage(List<T> entities) {
+		if (!entities.isEmpty()) {
+			service.detach(entities);
+		}
+	}
+
+	/**
+	 * Sets the decorator that is applied to every prefetch task on the calling
+	 * thread, used to copy thread-bound state to the background thread
+	 *
+	 * @param decorator the decorator
+	 */
+	public void setDecorator(TaskDecorator decorator) {
+		this.decorator = decorator;
+	}
+
+	@Override
+	public int size() {
+		return idList.size();
+	}
+
+	/**
+	 * Stops any prefetching and shuts down the background thread. Called
+	 * automatically once the iterator is exhausted or when reading a page fails
+	 */
+	@Override
+	public void close() {
+		if (nextPage != null) {
+			nextPage.cancel(true);
+			nextPage = null;
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+}
@@ -51,7 +51,10 @@ public abstract class PagingDataSetIterator<ID extends Serializable, T extends A
 
 	/**
 	 * Constructor
-	 * @param idList the IDs of the relevant records
+	 * @param idList the IDs of the relevant records. Preferably an
+	 *               {@link com.ocs.dynamo.dao.IdList} as returned by
+	 *               <code>findIds</code>, which keeps integer and long keys in a
+	 *               primitive array
 	 */
 	public PagingDataSetIterator(List<ID> idList) {
 		this(idList, PAGE_SIZE);
@@ -79,10 +82,8 @@ public abstract class PagingDataSetIterator<ID extends Serializable, T extends A
 
 		// lazily load the next page if needed
 		if (index >= lastRead) {
-			List<ID> ids = new ArrayList<>();
-			for (int i = 0; i < pageSize && index + i < idList.size(); i++) {
-				ids.add(idList.get(index + i));
-			}
+			int from = Math.min(index, idList.size());
+			List<ID> ids = new ArrayList<>(idList.subList(from, Math.min(from + pageSize, idList.size())));
 
 			if (!ids.isEmpty()) {
 				page = readPage(ids);
@@ -13,10 +13,16 @@
  */
 package com.ocs.dynamo.service.impl;
 
+import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
@@ -24,9 +30,12 @@ import javax.validation.ValidatorFactory;
 import javax.validation.constraints.AssertFalse;
 import javax.validation.constraints.AssertTrue;
 
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ocs.dynamo.dao.BaseDao;
@@ -62,6 +71,8 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
     @Autowired
     private MessageService messageService;
 
+    private Boolean validateOverridden;
+
     /**
      * Creates a paging request
      * 
@@ -101,6 +112,18 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
         getDao().delete(t);
     }
 
+    @Override
+    @Transactional
+    public void deleteAll(List<T> list) {
+        getDao().deleteAll(list);
+    }
+
+    @Override
+    @Transactional
+    public long deleteByFilter(Filter filter) {
+        return getDao().deleteByFilter(filter);
+    }
+
     @Override
     public List<T> fetch(Filter filter, FetchJoinInformation... joins) {
         return getDao().fetch(filter, joins);
@@ -116,6 +139,11 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
         return getDao().fetch(filter, constructPageRequest(pageNumber, pageSize, sortOrders == null ? null : sortOrders.toArray()), joins);
     }
 
+    @Override
+    public List<T> fetch(Filter filter, Pageable pageable, FetchJoinInformation... joins) {
+        return getDao().fetch(filter, pageable, joins);
+    }
+
     @Override
     public List<T> fetch(Filter filter, SortOrders orders, FetchJoinInformation... joins) {
         return getDao().fetch(filter, orders, joins);
@@ -136,6 +164,16 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
         return getDao().fetchByIds(ids, sortOrders, joins);
     }
 
+    @Override
+    public List<T> fetchByIdsReadOnly(List<ID> ids, SortOrders sortOrders, FetchJoinInformation... joins) {
+        return getDao().fetchByIdsReadOnly(ids, sortOrders, joins);
+    }
+
+    @Override
+    public void detach(List<T> list) {
+        getDao().detach(list);
+    }
+
     @Override
     public T fetchByUniqueProperty(String propertyName, Object value, boolean caseSensitive, FetchJoinInformation... joins) {
         return getDao().fetchByUniqueProperty(propertyName, value, caseSensitive, joins);
@@ -212,6 +250,11 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
         return getDao().findSelect(filter, selectProperties, sortOrders);
     }
 
+    @Override
+    public List<?> findSelect(Filter filter, String[] selectProperties, Filter having, SortOrders sortOrders) {
+        return getDao().findSelect(filter, selectProperties, having, sortOrders);
+    }
+
     protected abstract BaseDao<ID, T> getDao();
 
     @Override
@@ -255,9 +298,7 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
     @Override
     @Transactional
     public List<T> save(List<T> list) {
-        for (T t : list) {
-            validate(t);
-        }
+        validateAll(list);
         return getDao().save(list);
     }
 
@@ -268,6 +309,31 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
         return getDao().save(t);
     }
 
+    @Override
+    @Transactional
+    public List<T> saveAll(List<T> list) {
+        validateAll(list);
+        return getDao().saveAll(list);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<T> stream(Filter filter, SortOrders sortOrders, FetchJoinInformation... joins) {
+        return getDao().stream(filter, sortOrders, joins);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<Object[]> streamSelect(Filter filter, String[] selectProperties, SortOrders sortOrders) {
+        return getDao().streamSelect(filter, selectProperties, sortOrders);
+    }
+
+    @Override
+    @Transactional
+    public long update(Filter filter, Map<String, Object> assignments) {
+        return getDao().update(filter, assignments);
+    }
+
     /**
      * Validates an entity
      * 
@@ -275,7 +341,78 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
      */
     @Override
     public void validate(T t) {
+        validateConstraints(t);
+        validateUniqueness(t);
+    }
 
+    /**
+     * Validates a list of entities. When parallel validation is enabled, the bean
+     * validation constraints are checked in parallel. This only happens when the
+     * service does not override {@link #validate(AbstractEntity)}, since such an
+     * override would otherwise be skipped. Entities that are proxies or that have
+     * relations that still have to be loaded are validated on the calling thread,
+     * since loading them requires the session of that thread. The uniqueness checks
+     * require database access and are always performed on the calling thread (which
+     * holds the transaction)
+     * 
+     * @param list the entities to validate
+     */
+    protected void validateAll(List<T> list) {
+        if (SystemPropertyUtils.useParallelValidation() && list.size() > 1 && !isValidateOverridden()) {
+            Map<Boolean, List<T>> loaded = list.stream().collect(Collectors.partitioningBy(BaseServiceImpl::isLoaded));
+            loaded.get(Boolean.TRUE).parallelStream().forEach(this::validateConstraints);
+            loaded.get(Boolean.FALSE).forEach(this::validateConstraints);
+            list.forEach(this::validateUniqueness);
+        } else {
+            list.forEach(this::validate);
+        }
+    }
+
+    /**
+     * 
+     * @return whether a subclass overrides {@link #validate(AbstractEntity)}
+     */
+    private boolean isValidateOverridden() {
+        if (validateOverridden == null) {
+            validateOverridden = Arrays.stream(getClass().getMethods())
+                    .anyMatch(m -> "validate".equals(m.getName()) && m.getParameterCount() == 1
+                            && !BaseServiceImpl.class.equals(m.getDeclaringClass()));
+        }
+        return validateOverridden;
+    }
+
+    /**
+     * Checks whether an entity and all of its relations have been loaded, so that
+     * validating it will not access the database
+     * 
+     * @param entity the entity to check
+     * @return
+     */
+    private static boolean isLoaded(Object entity) {
+        if (!Hibernate.isInitialized(entity)) {
+            return false;
+        }
+        for (PropertyDescriptor d : BeanUtils.getPropertyDescriptors(Hibernate.getClass(entity))) {
+            Class<?> type = d.getPropertyType();
+            if (d.getReadMethod() != null && (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                    || AbstractEntity.class.isAssignableFrom(type))) {
+                if (!Hibernate.isInitialized(ClassUtils.getFieldValue(entity, d.getName()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the bean validation constraints of an entity. Must be thread safe
+     * since it might be called in parallel. Constraints must not access relations
+     * that are not part of the entity itself, since these are not checked before
+     * validating in parallel
+     * 
+     * @param t the entity to validate
+     */
+    protected void validateConstraints(T t) {
         Validator validator = factory.getValidator();
         Set<ConstraintViolation<T>> constraintViolations = validator.validate(t);
 
@@ -298,7 +435,14 @@ public abstract class BaseServiceImpl<ID, T extends AbstractEntity<ID>> implemen
 
             throw new OCSValidationException(errors);
         }
+    }
 
+    /**
+     * Checks that no identical entity exists
+     * 
+     * @param t the entity to validate
+     */
+    protected void validateUniqueness(T t) {
         if (identicalEntityExists(t)) {
             throw new OCSNonUniqueException(messageService.getMessage(getEntityClass().getSimpleName() + ".not.unique",
                     new Locale(SystemPropertyUtils.getDefaultLocale())));
@@ -21,6 +21,7 @@ import org.springframework.context.ApplicationContext;
 
 import com.ocs.dynamo.domain.model.EntityModelFactory;
 import com.ocs.dynamo.service.BaseService;
+import com.ocs.dynamo.service.LookupCache;
 import com.ocs.dynamo.service.MessageService;
 import com.ocs.dynamo.service.ServiceLocator;
 
@@ -93,6 +94,11 @@ public abstract class BaseSpringServiceLocator implements ServiceLocator {
 		return getService(EntityModelFactory.class);
 	}
 
+	@Override
+	public LookupCache getLookupCache() {
+		return getService(LookupCache.class);
+	}
+
 	/**
 	 * Returns a service that is used to manage a certain type of entity
 	 * 
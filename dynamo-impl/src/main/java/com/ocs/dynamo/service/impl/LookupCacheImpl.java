@@ -0,0 +1,166 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.domain.AbstractEntity;
+import com.ocs.dynamo.filter.Filter;
+import com.ocs.dynamo.service.LookupCache;
+
+/**
+ * Size bounded lookup cache that evicts the least recently used entry once the
+ * maximum number of entries has been reached.
+ *
+ * Every entity class has a generation counter that is incremented on
+ * invalidation. A list that was loaded while an invalidation took place is
+ * returned to the caller but not stored, so a stale list never ends up in the
+ * cache
+ *
+ * @author bas.rutten
+ *
+ */
+public class LookupCacheImpl implements LookupCache {
+
+    private final int maxEntries;
+
+    private final Map<CacheKey, List<?>> entries;
+
+    private final Map<Class<?>, Long> generations = new LinkedHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries the maximum number of cached lists. When 0, nothing is
+     *                   cached
+     */
+    public LookupCacheImpl(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 2375870128347562361L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, List<?>> eldest) {
+                return size() > LookupCacheImpl.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends AbstractEntity<?>> List<T> find(Class<T> entityClass, Filter filter, SortOrder[] orders,
+            Supplier<List<T>> loader) {
+        if (maxEntries <= 0) {
+            return Collections.unmodifiableList(loader.get());
+        }
+
+        CacheKey key = new CacheKey(entityClass, filter, orders);
+        long generation;
+        synchronized (this) {
+            List<?> cached = entries.get(key);
+            if (cached != null) {
+                return (List<T>) cached;
+            }
+            generation = getGeneration(entityClass);
+        }
+
+        // load outside of the lock so that a slow query does not block other lookups
+        List<T> result = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        synchronized (this) {
+            if (generation == getGeneration(entityClass)) {
+                entries.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    private long getGeneration(Class<?> entityClass) {
+        // register the class so that invalidation of related classes is tracked
+        return generations.computeIfAbsent(entityClass, c -> 0L);
+    }
+
+    @Override
+    public synchronized void invalidate(Class<?> entityClass) {
+        entries.keySet().removeIf(key -> isRelated(key.entityClass, entityClass));
+        generations.merge(entityClass, 1L, Long::sum);
+        for (Map.Entry<Class<?>, Long> entry : generations.entrySet()) {
+            if (entry.getKey() != entityClass && isRelated(entry.getKey(), entityClass)) {
+                entry.setValue(entry.getValue() + 1);
+            }
+        }
+    }
+
+    private static boolean isRelated(Class<?> first, Class<?> second) {
+        return first.isAssignableFrom(second) || second.isAssignableFrom(first);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        generations.replaceAll((clazz, generation) -> generation + 1);
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Key of a cache entry
+     *
+     * @author bas.rutten
+     *
+     */
+    private static final class CacheKey {
+
+        private final Class<?> entityClass;
+
+        private final Filter filter;
+
+        private final List<SortOrder> orders;
+
+        CacheKey(Class<?> entityClass, Filter filter, SortOrder... orders) {
+            this.entityClass = entityClass;
+            this.filter = filter;
+            this.orders = orders == null ? Collections.emptyList() : Arrays.asList(orders.clone());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityClass, filter, orders);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return entityClass.equals(other.entityClass) && Objects.equals(filter, other.filter)
+                    && orders.equals(other.orders);
+        }
+    }
+}
@@ -289,31 +289,15 @@ public final class ClassUtils {
     }
 
     /**
-     * Retrieves a field value
+     * Retrieves a field value. The getter methods are resolved only once per class
+     * and property and then cached, see {@link PropertyAccessorCache}
      *
      * @param obj       the object from which to retrieve the field value
      * @param fieldName the name of the field
      * @return
      */
     public static Object getFieldValue(Object obj, String fieldName) {
-        try {
-            int p = fieldName.indexOf('.');
-            if (p >= 0) {
-                String firstProperty = fieldName.substring(0, p);
-                Object first = MethodUtils.invokeMethod(obj, GET + StringUtils.capitalize(firstProperty));
-                return first == null ? null : getFieldValue(first, fieldName.substring(p + 1));
-            } else {
-                if (hasMethod(obj, GET + StringUtils.capitalize(fieldName))) {
-                    // first check for a getter
-                    return MethodUtils.invokeMethod(obj, GET + StringUtils.capitalize(fieldName));
-                } else {
-                    // next, check for an "is" method in case of a boolean
-                    return MethodUtils.invokeMethod(obj, IS + StringUtils.capitalize(fieldName));
-                }
-            }
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            throw new OCSRuntimeException("Error getting of " + obj + ":" + e.getMessage(), e);
-        }
+        return PropertyAccessorCache.getValue(obj, fieldName);
     }
 
     /**
@@ -512,25 +496,19 @@ public final class ClassUtils {
     }
 
     /**
-     * @param obj
-     * @param fieldName
-     * @param value
+     * Sets a field value. When the field is nested and one of the intermediate
+     * values is null, nothing happens
+     *
+     * @param obj       the object on which to set the field value
+     * @param fieldName the name of the field
+     * @param value     the value to set
      */
     public static void setFieldValue(Object obj, String fieldName, Object value) {
         try {
-            int p = fieldName.indexOf('.');
-            if (p >= 0) {
-                String firstProperty = fieldName.substring(0, p);
-                Object first = MethodUtils.invokeMethod(obj, GET + StringUtils.capitalize(firstProperty));
-                if (first != null) {
-                    setFieldValue(first, fieldName.substring(p + 1), value);
-                }
-            } else {
-                MethodUtils.invokeMethod(obj, SET + StringUtils.capitalize(fieldName), value);
-            }
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            PropertyAccessorCache.setValue(obj, fieldName, value);
+        } catch (OCSRuntimeException e) {
             LOG.error(e.getMessage(), e);
-            throw new OCSRuntimeException(e.getMessage(), e);
+            throw e;
         }
     }
 
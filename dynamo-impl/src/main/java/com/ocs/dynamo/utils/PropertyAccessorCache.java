@@ -0,0 +1,327 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+
+import com.ocs.dynamo.exception.OCSRuntimeException;
+
+/**
+ * Registry of compiled property accessors. For every (class, property path)
+ * combination the getter and setter methods are looked up once and converted to
+ * method handles, after which reading or writing the property no longer
+ * involves any reflective method lookup
+ *
+ * @author Bas Rutten
+ *
+ */
+public final class PropertyAccessorCache {
+
+    private static final String GET = "get";
+
+    private static final String IS = "is";
+
+    private static final String SET = "set";
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Handle that invokes a getter using reflection, for getters that cannot be
+     * converted to a method handle
+     */
+    private static final MethodHandle REFLECTIVE_GETTER = findReflectiveGetter();
+
+    /**
+     * The accessors per class. A ClassValue is used so that the cached entries do
+     * not prevent classes from being unloaded
+     */
+    private static final ClassValue<Map<String, PropertyAccessor>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private PropertyAccessorCache() {
+        // hidden constructor
+    }
+
+    private static MethodHandle findReflectiveGetter() {
+        try {
+            return LOOKUP.findStatic(PropertyAccessorCache.class, "invokeReflectively",
+                    MethodType.methodType(Object.class, String.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static Object invokeReflectively(String methodName, Object obj) throws ReflectiveOperationException {
+        return MethodUtils.invokeMethod(obj, methodName);
+    }
+
+    /**
+     * Returns the accessor for the specified property of the specified class
+     *
+     * @param clazz    the class
+     * @param property the (possibly nested) property path
+     * @return
+     */
+    public static PropertyAccessor getAccessor(Class<?> clazz, String property) {
+        Map<String, PropertyAccessor> accessors = ACCESSORS.get(clazz);
+        PropertyAccessor accessor = accessors.get(property);
+        if (accessor == null) {
+            accessor = accessors.computeIfAbsent(property, p -> new PropertyAccessor(clazz, p));
+        }
+        return accessor;
+    }
+
+    /**
+     * Retrieves the value of a (possibly nested) property
+     *
+     * @param obj      the object from which to retrieve the value
+     * @param property the property path
+     * @return
+     */
+    public static Object getValue(Object obj, String property) {
+        return getAccessor(obj.getClass(), property).getValue(obj);
+    }
+
+    /**
+     * Sets the value of a (possibly nested) property. When one of the
+     * intermediate objects is null, nothing happens
+     *
+     * @param obj      the object on which to set the value
+     * @param property the property path
+     * @param value    the value to set
+     */
+    public static void setValue(Object obj, String property, Object value) {
+        getAccessor(obj.getClass(), property).setValue(obj, value);
+    }
+
+    /**
+     * Compiled accessor for a single (class, property path) combination. Getter
+     * and setter handles are resolved lazily, on first use. For nested paths, the
+     * remainder of the path is resolved against the runtime class of the
+     * intermediate value (which might be a subclass or proxy of the declared type)
+     *
+     * @author Bas Rutten
+     *
+     */
+    public static final class PropertyAccessor {
+
+        private final Class<?> clazz;
+
+        private final String property;
+
+        private final String head;
+
+        private final String tail;
+
+        private volatile MethodHandle getter;
+
+        private volatile SetterHandle setter;
+
+        private PropertyAccessor(Class<?> clazz, String property) {
+            this.clazz = clazz;
+            this.property = property;
+            int p = property.indexOf('.');
+            this.head = p >= 0 ? property.substring(0, p) : property;
+            this.tail = p >= 0 ? property.substring(p + 1) : null;
+        }
+
+        /**
+         * Reads the property value from the provided object
+         *
+         * @param obj the object
+         * @return
+         */
+        public Object getValue(Object obj) {
+            Object value = invokeGetter(obj);
+            if (tail == null || value == null) {
+                return value;
+            }
+            return PropertyAccessorCache.getValue(value, tail);
+        }
+
+        /**
+         * Writes the property value on the provided object
+         *
+         * @param obj   the object
+         * @param value the value to write
+         */
+        public void setValue(Object obj, Object value) {
+            if (tail != null) {
+                Object first = invokeGetter(obj);
+                if (first != null) {
+                    PropertyAccessorCache.setValue(first, tail, value);
+                }
+                return;
+            }
+
+            SetterHandle handle = setter;
+            if (handle == null) {
+                handle = resolveSetter();
+                setter = handle;
+            }
+            try {
+                if (handle.accepts(value)) {
+                    handle.handle.invokeExact(obj, value);
+                } else {
+                    // fall back to reflection, which takes care of overloading and widening
+                    MethodUtils.invokeMethod(obj, SET + StringUtils.capitalize(head), value);
+                }
+            } catch (Throwable e) {
+                throw new OCSRuntimeException("Error setting " + property + " of " + obj + ":" + e.getMessage(), e);
+            }
+        }
+
+        private Object invokeGetter(Object obj) {
+            MethodHandle handle = getter;
+            if (handle == null) {
+                handle = resolveGetter();
+                getter = handle;
+            }
+            try {
+                return handle.invokeExact(obj);
+            } catch (Throwable e) {
+                throw new OCSRuntimeException("Error getting of " + obj + ":" + e.getMessage(), e);
+            }
+        }
+
+        private MethodHandle resolveGetter() {
+            String name = StringUtils.capitalize(head);
+            Method method = findPublicMethod(GET + name, 0);
+            if (method == null) {
+                // next, check for an "is" method in case of a boolean
+                method = findPublicMethod(IS + name, 0);
+            }
+            if (method == null) {
+                throw new OCSRuntimeException("Error getting of " + clazz.getName() + ": No such accessible method: " + GET
+                        + name + "() on object: " + clazz.getName());
+            }
+            MethodHandle handle = unreflect(method);
+            if (handle == null) {
+                handle = MethodHandles.insertArguments(REFLECTIVE_GETTER, 0, method.getName());
+            }
+            return handle.asType(GETTER_TYPE);
+        }
+
+        private SetterHandle resolveSetter() {
+            String name = SET + StringUtils.capitalize(head);
+            Method candidate = null;
+            for (Method method : clazz.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                    if (candidate != null) {
+                        // overloaded setter, let reflection pick the right one per invocation
+                        return SetterHandle.REFLECTIVE;
+                    }
+                    candidate = method;
+                }
+            }
+            if (candidate == null) {
+                throw new OCSRuntimeException("No such accessible method: " + name + "() on object: " + clazz.getName());
+            }
+            MethodHandle handle = unreflect(candidate);
+            if (handle == null) {
+                return SetterHandle.REFLECTIVE;
+            }
+            return new SetterHandle(handle.asType(SETTER_TYPE), candidate.getParameterTypes()[0]);
+        }
+
+        private Method findPublicMethod(String name, int parameterCount) {
+            try {
+                Method method = clazz.getMethod(name);
+                return method.getParameterCount() == parameterCount ? method : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Converts a method to a method handle. A public method of a non-public
+         * class is resolved to the same method on a public super class or interface
+         * first. Only when there is no such method, the method is made accessible,
+         * which is not allowed for classes in modules that are not opened
+         *
+         * @param method the method
+         * @return the handle, or <code>null</code> when the method can only be
+         *         invoked using reflection
+         */
+        private static MethodHandle unreflect(Method method) {
+            Method accessible = MethodUtils.getAccessibleMethod(method);
+            if (accessible != null) {
+                try {
+                    return LOOKUP.unreflect(accessible);
+                } catch (IllegalAccessException e) {
+                    // try to make the method accessible instead
+                }
+            }
+            try {
+                method.setAccessible(true);
+                return LOOKUP.unreflect(method);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A compiled setter, along with the (boxed) type of values it accepts without
+     * conversion
+     *
+     * @author Bas Rutten
+     *
+     */
+    private static final class SetterHandle {
+
+        /**
+         * Used for overloaded setters and for setters that cannot be converted to a
+         * method handle, which are invoked using reflection
+         */
+        private static final SetterHandle REFLECTIVE = new SetterHandle(null, null);
+
+        private final MethodHandle handle;
+
+        private final Class<?> parameterType;
+
+        private final boolean primitive;
+
+        SetterHandle(MethodHandle handle, Class<?> parameterType) {
+            this.handle = handle;
+            this.primitive = parameterType != null && parameterType.isPrimitive();
+            this.parameterType = parameterType == null ? null : org.apache.commons.lang3.ClassUtils.primitiveToWrapper(parameterType);
+        }
+
+        boolean accepts(Object value) {
+            if (handle == null) {
+                return false;
+            }
+            return value == null ? !primitive : parameterType.isInstance(value);
+        }
+    }
+}
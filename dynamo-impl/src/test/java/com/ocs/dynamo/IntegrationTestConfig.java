@@ -1,5 +1,7 @@
 package com.ocs.dynamo;
 
+import java.util.Map;
+
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
@@ -50,6 +52,15 @@ public class IntegrationTestConfig extends BaseIntegrationTestConfig {
         emf.setJpaVendorAdapter(adapter);
         emf.setDataSource(dataSource);
         emf.setJpaVendorAdapter(adapter);
+
+        // in-process second-level and query cache
+        Map<String, Object> properties = emf.getJpaPropertyMap();
+        properties.put("hibernate.cache.use_second_level_cache", true);
+        properties.put("hibernate.cache.use_query_cache", true);
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        properties.put("hibernate.generate_statistics", true);
         return emf;
     }
 
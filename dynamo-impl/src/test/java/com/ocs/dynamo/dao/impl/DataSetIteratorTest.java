@@ -14,14 +14,20 @@
 package com.ocs.dynamo.dao.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskDecorator;
 
 import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.domain.query.DetachingPagingDataSetIterator;
 import com.ocs.dynamo.domain.query.PagingDataSetIterator;
+import com.ocs.dynamo.exception.OCSRuntimeException;
 
 public class DataSetIteratorTest {
 
@@ -92,4 +98,90 @@ public class DataSetIteratorTest {
         assertEquals(12, i);
         assertEquals(3, pagesRead);
     }
+
+    @Test
+    public void testDetaching() {
+        testDetaching(false, null);
+    }
+
+    @Test
+    public void testDetachingWithPrefetch() {
+        testDetaching(true, null);
+    }
+
+    @Test
+    public void testDetachingWithPrefetchDecorator() {
+        AtomicInteger decorated = new AtomicInteger();
+        testDetaching(true, task -> {
+            decorated.incrementAndGet();
+            return task;
+        });
+
+        // the first page is read on the calling thread, the other two are prefetched
+        assertEquals(2, decorated.get());
+    }
+
+    @Test
+    public void testPrefetchFailure() {
+        DetachingPagingDataSetIterator<Integer, TestEntity> detaching = new DetachingPagingDataSetIterator<Integer, TestEntity>(null,
+                ids2, 5, true, null) {
+
+            @Override
+            protected List<TestEntity> readPage(List<Integer> ids) {
+                if (ids.get(0) > 1) {
+                    throw new OCSRuntimeException("Page could not be read");
+                }
+                return createPage(ids);
+            }
+
+            @Override
+            protected void releasePage(List<TestEntity> entities) {
+                // do nothing
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(detaching.next());
+        }
+        assertThrows(OCSRuntimeException.class, detaching::next);
+    }
+
+    private static List<TestEntity> createPage(List<Integer> ids) {
+        List<TestEntity> result = new ArrayList<>();
+        for (Integer i : ids) {
+            TestEntity entity = new TestEntity();
+            entity.setId(i);
+            result.add(entity);
+        }
+        return result;
+    }
+
+    private void testDetaching(boolean prefetch, TaskDecorator decorator) {
+        List<Integer> released = new ArrayList<>();
+        DetachingPagingDataSetIterator<Integer, TestEntity> detaching = new DetachingPagingDataSetIterator<Integer, TestEntity>(null,
+                ids2, 5, prefetch, null) {
+
+            @Override
+            protected List<TestEntity> readPage(List<Integer> ids) {
+                return createPage(ids);
+            }
+
+            @Override
+            protected void releasePage(List<TestEntity> entities) {
+                entities.forEach(e -> released.add(e.getId()));
+            }
+        };
+        detaching.setDecorator(decorator);
+
+        List<Integer> read = new ArrayList<>();
+        TestEntity entity = detaching.next();
+        while (entity != null) {
+            read.add(entity.getId());
+            entity = detaching.next();
+        }
+
+        assertEquals(ids2, read);
+        assertEquals(ids2, released);
+        assertEquals(12, detaching.size());
+    }
 }
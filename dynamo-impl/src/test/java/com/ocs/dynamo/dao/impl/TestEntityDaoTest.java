@@ -17,23 +17,37 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.google.common.collect.Lists;
 import com.ocs.dynamo.BackendIntegrationTest;
+import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
+import com.ocs.dynamo.dao.KeysetPageable;
 import com.ocs.dynamo.dao.PageableImpl;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrder.Direction;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.filter.And;
 import com.ocs.dynamo.filter.Compare;
 import com.ocs.dynamo.filter.Filter;
@@ -50,6 +64,12 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
     @Inject
     TestEntityDao dao;
 
+    @Inject
+    TestEntity2Dao testEntity2Dao;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private TestEntity save(String name, long age) {
         TestEntity entity = new TestEntity();
         entity.setName(name);
@@ -82,6 +102,33 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
         assertNull(t);
     }
 
+    /**
+     * Test that the lookups by unique property of a cacheable entity are served
+     * from the query cache
+     */
+    @Test
+    public void testFindByUniqueProperty_QueryCache() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertNull(testEntity2Dao.findByUniqueProperty("name", "Cached", true));
+        assertEquals(1, statistics.getQueryCachePutCount());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+
+        assertNull(testEntity2Dao.findByUniqueProperty("name", "Cached", true));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // the cache is evicted explicitly (e.g. after a change using native SQL)
+        testEntity2Dao.evictCache();
+        assertNull(testEntity2Dao.findByUniqueProperty("name", "Cached", true));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getQueryCachePutCount());
+
+        // entities that are not marked as cacheable do not use the query cache
+        dao.findByUniqueProperty("name", "Cached", true);
+        assertEquals(2, statistics.getQueryCachePutCount());
+    }
+
     @Test
     public void testDelete() {
 
@@ -116,6 +163,38 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
         assertEquals("Bob", results.get(0).getName());
     }
 
+    @Test
+    public void testFetchKeyset() {
+        save("Kevin", 11L);
+        save("Stuart", 12L);
+        save("Bob", 12L);
+        save("Dave", 14L);
+
+        SortOrders orders = new SortOrders(new SortOrder("age"));
+
+        // first page
+        KeysetPageable pageable = new KeysetPageable(0, 2, orders);
+        List<TestEntity> results = dao.fetch(null, pageable);
+        assertEquals(2, results.size());
+        assertEquals("Kevin", results.get(0).getName());
+        assertEquals("Stuart", results.get(1).getName());
+
+        // second page, using the key values of the last row (age and ID)
+        TestEntity last = results.get(1);
+        pageable = new KeysetPageable(1, 2, orders, last.getAge(), last.getId());
+        results = dao.fetch(null, pageable);
+        assertEquals(2, results.size());
+        assertEquals("Bob", results.get(0).getName());
+        assertEquals("Dave", results.get(1).getName());
+
+        // descending, combined with a filter
+        orders = new SortOrders(new SortOrder("age", Direction.DESC));
+        pageable = new KeysetPageable(1, 2, orders, 12L, last.getId());
+        results = dao.fetch(new Compare.Greater("age", 10L), pageable);
+        assertEquals(1, results.size());
+        assertEquals("Kevin", results.get(0).getName());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testFetchSelect() {
@@ -234,6 +313,72 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
         assertEquals("Piet", list.get(2).getName());
     }
 
+    @Test
+    public void testFetchByIds_Chunked() {
+        save("Jan", 11L);
+        save("Piet", 12L);
+        save("Klaas", 13L);
+
+        System.setProperty(DynamoConstants.SP_MAX_IN_LIST_SIZE, "2");
+        try {
+            // IDs are split up over two queries, results are merged in the requested order
+            List<Integer> ids = dao.findIds(null, new SortOrder("age", Direction.ASC));
+            List<TestEntity> list = dao.fetchByIds(ids, new SortOrders(new SortOrder("name", Direction.DESC)));
+            assertEquals(3, list.size());
+            assertEquals("Piet", list.get(0).getName());
+            assertEquals("Klaas", list.get(1).getName());
+            assertEquals("Jan", list.get(2).getName());
+
+            List<TestEntity> filtered = dao.find(new In("id", ids), new SortOrder("name"));
+            assertEquals(3, filtered.size());
+        } finally {
+            System.clearProperty(DynamoConstants.SP_MAX_IN_LIST_SIZE);
+        }
+    }
+
+    /**
+     * Test that an "in" filter with more values than a single statement allows is
+     * split up over multiple statements
+     */
+    @Test
+    public void testLargeInFilter() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            ids.add(-i);
+        }
+        ids.add(save("Jan", 11L).getId());
+        ids.add(save("Piet", 12L).getId());
+        ids.add(save("Klaas", 13L).getId());
+        save("Kees", 14L);
+
+        Filter filter = new And(new Compare.Greater("age", 10L), new In("id", ids));
+        assertEquals(3, dao.count(filter, false));
+
+        List<TestEntity> list = dao.find(filter, new SortOrder("name"));
+        assertEquals(3, list.size());
+        assertEquals("Jan", list.get(0).getName());
+        assertEquals("Klaas", list.get(1).getName());
+        assertEquals("Piet", list.get(2).getName());
+
+        list = dao.fetch(filter, new PageableImpl(1, 2, new SortOrder("name")));
+        assertEquals(1, list.size());
+        assertEquals("Piet", list.get(0).getName());
+
+        List<Integer> found = dao.findIds(filter, new SortOrder("age", Direction.DESC));
+        assertEquals(Lists.newArrayList(ids.get(2502), ids.get(2501), ids.get(2500)), found);
+
+        try (Stream<TestEntity> stream = dao.stream(filter, new SortOrders(new SortOrder("name")))) {
+            assertEquals(Lists.newArrayList("Jan", "Klaas", "Piet"),
+                    stream.map(TestEntity::getName).collect(Collectors.toList()));
+        }
+        try (Stream<TestEntity> stream = dao.stream(filter, null)) {
+            assertEquals(3, stream.count());
+        }
+
+        assertEquals(3, dao.deleteByFilter(filter));
+        assertEquals(1, dao.count());
+    }
+
     @Test
     public void testFindSelect() {
         save("Pete", 1L);
@@ -266,6 +411,110 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
         assertEquals(2L, obj[1]);
     }
 
+    @Test
+    @Transactional
+    public void testFetchByIdsReadOnlyAndDetach() {
+        save("Jan", 11L);
+        save("Piet", 12L);
+        dao.flushAndClear();
+
+        List<Integer> ids = dao.findIds(null);
+        List<TestEntity> list = dao.fetchByIdsReadOnly(ids, new SortOrders(new SortOrder("name", Direction.ASC)));
+        assertEquals(2, list.size());
+        assertEquals("Jan", list.get(0).getName());
+        assertTrue(getEntityManager().contains(list.get(0)));
+
+        dao.detach(list);
+        assertFalse(getEntityManager().contains(list.get(0)));
+        assertFalse(getEntityManager().contains(list.get(1)));
+    }
+
+    @Test
+    public void testSaveAllAndDeleteAll() {
+        System.setProperty(DynamoConstants.SP_BATCH_SIZE, "2");
+        try {
+            List<TestEntity> list = Lists.newArrayList(new TestEntity("Jan", 11L), new TestEntity("Piet", 12L),
+                    new TestEntity("Klaas", 13L));
+            list = dao.saveAll(list);
+            assertEquals(3, dao.count());
+            assertNotNull(list.get(2).getId());
+
+            // only the full batches are cleared
+            assertFalse(getEntityManager().contains(list.get(0)));
+            assertTrue(getEntityManager().contains(list.get(2)));
+
+            dao.deleteAll(list.subList(0, 2));
+            assertEquals(1, dao.count());
+            assertEquals("Klaas", dao.findAll().get(0).getName());
+        } finally {
+            System.clearProperty(DynamoConstants.SP_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void testDeleteByFilter() {
+        save("Jan", 11L);
+        save("Piet", 12L);
+        save("Klaas", 13L);
+
+        assertEquals(2, dao.deleteByFilter(new Compare.Greater("age", 11)));
+        assertEquals(1, dao.count());
+        assertEquals(0, dao.deleteByFilter(new Compare.Equal("name", "Piet")));
+    }
+
+    @Test
+    public void testStream() {
+        TestEntity jan = save("Jan", 11L);
+        save("Piet", 12L);
+        save("Klaas", 13L);
+        dao.flushAndClear();
+        jan = dao.findById(jan.getId());
+
+        System.setProperty(DynamoConstants.SP_BATCH_SIZE, "2");
+        try (Stream<TestEntity> stream = dao.stream(new Compare.Greater("age", 10L),
+                new SortOrders(new SortOrder("name", Direction.ASC)))) {
+            List<TestEntity> entities = stream.collect(Collectors.toList());
+            assertEquals(Lists.newArrayList("Jan", "Klaas", "Piet"),
+                    entities.stream().map(TestEntity::getName).collect(Collectors.toList()));
+
+            // the streamed entities are detached, the entities of the caller are not
+            assertTrue(getEntityManager().contains(jan));
+            assertFalse(getEntityManager().contains(entities.get(1)));
+            assertFalse(getEntityManager().contains(entities.get(2)));
+        } finally {
+            System.clearProperty(DynamoConstants.SP_BATCH_SIZE);
+        }
+
+        // collection fetch joins are not supported
+        assertThrows(OCSRuntimeException.class,
+                () -> dao.stream(null, null, new FetchJoinInformation("testEntities")));
+
+        try (Stream<Object[]> stream = dao.streamSelect(null, new String[] { "name", "age" },
+                new SortOrders(new SortOrder("age", Direction.DESC)))) {
+            List<Object[]> rows = stream.collect(Collectors.toList());
+            assertEquals(3, rows.size());
+            assertEquals("Klaas", rows.get(0)[0]);
+            assertEquals(13L, rows.get(0)[1]);
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        save("Jan", 11L);
+        save("Piet", 12L);
+        save("Klaas", 13L);
+
+        Map<String, Object> assignments = new HashMap<>();
+        assignments.put("name", "Kees");
+        assignments.put("age", 20);
+        assertEquals(2, dao.update(new Compare.Greater("age", 11), assignments));
+        dao.flushAndClear();
+
+        assertEquals(2, dao.count(new Compare.Equal("name", "Kees"), false));
+        assertEquals(2, dao.count(new Compare.Equal("age", 20L), false));
+        assertEquals(1, dao.count(new Compare.Equal("name", "Jan"), false));
+    }
+
     @Test
     @Transactional
     public void testFlushAndClear() {
@@ -339,4 +588,37 @@ public class TestEntityDaoTest extends BackendIntegrationTest {
         assertEquals(detail, children.get(0));
     }
 
+    @Test
+    public void testFindSubtree() {
+        TestEntity root = save("Root", 50L);
+        TestEntity child1 = root.addChild(new TestEntity("Child 1", 30L));
+        TestEntity child2 = root.addChild(new TestEntity("Child 2", 25L));
+        child1.addChild(new TestEntity("Grandchild", 5L));
+        root = dao.save(root);
+        child1 = root.getChildren().get(0);
+        child2 = root.getChildren().get(1);
+        dao.flushAndClear();
+
+        // children of several parents at once
+        List<TestEntity> children = dao.findByParents(Lists.newArrayList(root, child1, child2));
+        assertEquals(3, children.size());
+        assertTrue(dao.findByParents(Lists.newArrayList()).isEmpty());
+
+        // the subtree can be traversed after the persistence context is cleared
+        TestEntity loaded = dao.findSubtree(root, 2);
+        dao.flushAndClear();
+        assertEquals(2, loaded.getChildren().size());
+        TestEntity loadedChild = loaded.getChildren().stream().filter(c -> c.getName().equals("Child 1")).findFirst()
+                .orElse(null);
+        assertNotNull(loadedChild);
+        assertEquals(1, loadedChild.getChildren().size());
+        assertEquals("Grandchild", loadedChild.getChildren().get(0).getName());
+
+        // only the first level
+        loaded = dao.findSubtree(root, 1);
+        dao.flushAndClear();
+        assertEquals(2, loaded.getChildren().size());
+        assertFalse(Hibernate.isInitialized(loaded.getChildren().get(0).getChildren()));
+    }
+
 }
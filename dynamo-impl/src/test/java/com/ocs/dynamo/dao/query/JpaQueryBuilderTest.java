@@ -13,7 +13,9 @@
  */
 package com.ocs.dynamo.dao.query;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -29,15 +31,20 @@ import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.Lists;
 import com.ocs.dynamo.BackendIntegrationTest;
+import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.QueryFunction;
 import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.dao.SortOrder.Direction;
 import com.ocs.dynamo.dao.SortOrders;
 import com.ocs.dynamo.dao.impl.JpaQueryBuilder;
+import com.ocs.dynamo.dao.impl.QueryTemplateCache;
 import com.ocs.dynamo.domain.TestEntity;
 import com.ocs.dynamo.domain.TestEntity.TestEnum;
 import com.ocs.dynamo.domain.TestEntity2;
+import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.filter.And;
+import com.ocs.dynamo.filter.Between;
 import com.ocs.dynamo.filter.Compare;
 import com.ocs.dynamo.filter.Filter;
 import com.ocs.dynamo.filter.In;
@@ -180,6 +187,85 @@ public class JpaQueryBuilderTest extends BackendIntegrationTest {
 		assertEquals(2, count);
 	}
 
+	@Test
+	public void testCreateCountQuery_TwoIns() {
+		Filter filter = new And(new In("name", Lists.newArrayList("Bob", "Sally")),
+				new In("name", Lists.newArrayList("Sally", "Pete")));
+		TypedQuery<Long> tQuery = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class, filter, false);
+		assertEquals(1, tQuery.getSingleResult().longValue());
+	}
+
+	@Test
+	public void testParametersAreDeterministic() {
+		TypedQuery<Long> q1 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new And(new Compare.Equal("name", "Bob"), new Like("name", "b%", false), new Between("age", 20L, 30L)),
+				false);
+		TypedQuery<Long> q2 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new And(new Compare.Equal("name", "Pete"), new Like("name", "p%", false), new Between("age", 40L, 50L)),
+				false);
+
+		// the values are bound as parameters, so both queries have the same text
+		assertEquals(q1.unwrap(org.hibernate.query.Query.class).getQueryString(),
+				q2.unwrap(org.hibernate.query.Query.class).getQueryString());
+		assertEquals(1, q1.getSingleResult().longValue());
+		assertEquals(1, q2.getSingleResult().longValue());
+
+		// numeric values are converted to the type of the property
+		TypedQuery<Long> q3 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new Compare.Greater("age", 30), false);
+		assertEquals(2, q3.getSingleResult().longValue());
+
+		// a fractional part is not dropped when comparing to an integral property
+		assertEquals(1, JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new Compare.Less("age", 35.0), false).getSingleResult().longValue());
+		assertEquals(2, JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new Compare.Less("age", 35.5), false).getSingleResult().longValue());
+		assertEquals(2, JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new Compare.GreaterOrEqual("age", "34.5"), false).getSingleResult().longValue());
+		assertEquals(2, JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new Between("age", 24.5, 35.5), false).getSingleResult().longValue());
+	}
+
+	@Test
+	public void testQueryTemplateCache() {
+		QueryTemplateCache.clear();
+
+		TypedQuery<Long> q1 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new And(new Compare.Equal("name", "Bob"), new Compare.Greater("age", 20)), false);
+		assertEquals(1, q1.getSingleResult().longValue());
+		assertEquals(0, QueryTemplateCache.getHitCount());
+		assertEquals(1, QueryTemplateCache.getMissCount());
+
+		// same shape, different values (converted to the type of the property)
+		TypedQuery<Long> q2 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new And(new Compare.Equal("name", "Pete"), new Compare.Greater("age", 50)), false);
+		assertEquals(0, q2.getSingleResult().longValue());
+		assertEquals(1, QueryTemplateCache.getHitCount());
+
+		// values of a different type result in a separate template
+		TypedQuery<Long> q3 = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+				new And(new Compare.Equal("name", "Sally"), new Compare.Greater("age", 30L)), false);
+		assertEquals(1, q3.getSingleResult().longValue());
+
+		// different sort order results in a different template
+		SortOrder[] desc = new SortOrder[] { new SortOrder("age", SortOrder.Direction.DESC) };
+		JpaQueryBuilder.createSelectQuery(new Compare.Greater("age", 30), entityManager, TestEntity.class, null,
+				new SortOrder[] { new SortOrder("age") }).getResultList();
+		List<TestEntity> result = JpaQueryBuilder
+				.createSelectQuery(new Compare.Greater("age", "20"), entityManager, TestEntity.class, null, desc)
+				.getResultList();
+		List<TestEntity> cached = JpaQueryBuilder
+				.createSelectQuery(new Compare.Greater("age", "20"), entityManager, TestEntity.class, null, desc)
+				.getResultList();
+		assertEquals(3, cached.size());
+		assertEquals(result, cached);
+		assertEquals("Pete", cached.get(0).getName());
+
+		assertEquals(4, QueryTemplateCache.size());
+		assertEquals(2, QueryTemplateCache.getHitCount());
+		assertEquals(4, QueryTemplateCache.getMissCount());
+	}
+
 	@Test
 	public void testCreateCountQuery_InEmpty() {
 		TypedQuery<Long> tQuery = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
@@ -240,6 +326,62 @@ public class JpaQueryBuilderTest extends BackendIntegrationTest {
 		assertEquals(1, entity.size());
 	}
 
+	@Test
+	public void testPadInList() {
+		assertEquals(Lists.newArrayList(1), JpaQueryBuilder.padInList(Lists.newArrayList(1)));
+		assertEquals(Lists.newArrayList(1, 2), JpaQueryBuilder.padInList(Lists.newArrayList(1, 2)));
+		assertEquals(Lists.newArrayList(1, 2, 3, 3), JpaQueryBuilder.padInList(Lists.newArrayList(1, 2, 3)));
+		assertEquals(8, JpaQueryBuilder.padInList(Lists.newArrayList(1, 2, 3, 4, 5)).size());
+	}
+
+	@Test
+	public void testCreateCountQuery_InChunked() {
+		System.setProperty(DynamoConstants.SP_MAX_IN_LIST_SIZE, "2");
+		try {
+			assertEquals(2, JpaQueryBuilder.createInLists(Lists.newArrayList("Bob", "Sally", "Pete")).size());
+
+			// never padded beyond the maximum size
+			assertEquals(Lists.newArrayList(Lists.newArrayList("Bob", "Sally"), Lists.newArrayList("Pete")),
+					JpaQueryBuilder.createInLists(Lists.newArrayList("Bob", "Sally", "Pete")));
+
+			TypedQuery<Long> tQuery = JpaQueryBuilder.createCountQuery(entityManager, TestEntity.class,
+					new In("name", Lists.newArrayList("Bob", "Sally", "Pete")), false);
+			assertEquals(3, tQuery.getSingleResult().longValue());
+		} finally {
+			System.clearProperty(DynamoConstants.SP_MAX_IN_LIST_SIZE);
+		}
+	}
+
+	@Test
+	public void testSplitFilter() {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			values.add(i);
+		}
+
+		// every part holds at most the maximum "in" list size
+		List<Filter> parts = JpaQueryBuilder.splitFilter(entityManager, TestEntity.class, new In("id", values));
+		assertEquals(3, parts.size());
+		assertEquals(1000, ((In) parts.get(0)).getValues().size());
+		assertEquals(500, ((In) parts.get(2)).getValues().size());
+
+		// the other filters are kept
+		Compare.Equal equal = new Compare.Equal("name", "Bob");
+		parts = JpaQueryBuilder.splitFilter(entityManager, TestEntity.class, new And(equal, new In("id", values)));
+		assertEquals(3, parts.size());
+		for (Filter part : parts) {
+			assertEquals(equal, ((And) part).getFilters().get(0));
+			assertTrue(((In) ((And) part).getFilters().get(1)).getValues().size() <= 1000);
+		}
+
+		// not possible inside an "or" or for a collection
+		assertEquals(1, JpaQueryBuilder.splitFilter(entityManager, TestEntity.class,
+				new Or(equal, new In("id", values))).size());
+		assertEquals(1, JpaQueryBuilder.splitFilter(entityManager, TestEntity.class,
+				new In("testEntities.id", values)).size());
+		assertEquals(1, JpaQueryBuilder.splitFilter(entityManager, TestEntity.class, null).size());
+	}
+
 	@Test
 	public void testCreateFetchQuery2() {
 		TestEntity e1 = entityManager.createQuery("from TestEntity t where t.name = 'Bob'", TestEntity.class)
@@ -334,6 +476,40 @@ public class JpaQueryBuilderTest extends BackendIntegrationTest {
 		// assertTrue(br[3].equals(result.get(0)[3]));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCreateSelectAggregateHavingQuery() {
+		insertNestedTestEntities();
+
+		List<Object[]> base = entityManager.createQuery(
+				"select someEnum, min(age), max(age), sum(age) from TestEntity group by someEnum having sum(age) >= 30 order by sum(age) desc")
+				.getResultList();
+
+		// run twice, the second time the query is created from the template cache
+		for (int i = 0; i < 2; i++) {
+			TypedQuery<Object[]> tQuery = JpaQueryBuilder.createSelectQuery(null, entityManager, TestEntity.class,
+					new String[] { "someEnum", QueryFunction.AF_MIN.with("age"), QueryFunction.AF_MAX.with("age"),
+							QueryFunction.AF_SUM.with("age") },
+					new Compare.GreaterOrEqual(QueryFunction.AF_SUM.with("age"), 30),
+					new SortOrders(new SortOrder(QueryFunction.AF_SUM.with("age"), Direction.DESC)));
+			List<Object[]> result = tQuery.getResultList();
+
+			assertEquals(base.size(), result.size());
+			for (int j = 0; j < base.size(); j++) {
+				assertArrayEquals(base.get(j), result.get(j));
+			}
+		}
+	}
+
+	@Test
+	public void testCreateSelectHavingQuery_Unsupported() {
+		String[] props = new String[] { "someEnum", QueryFunction.AF_SUM.with("age") };
+		assertThrows(OCSRuntimeException.class, () -> JpaQueryBuilder.createSelectQuery(null, entityManager,
+				TestEntity.class, props, new Like("someEnum", "%", false), null));
+		assertThrows(OCSRuntimeException.class, () -> JpaQueryBuilder.createSelectQuery(null, entityManager,
+				TestEntity.class, props, new Not(new Compare.Greater(QueryFunction.AF_SUM.with("age"), null)), null));
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testCreateSelectAggregateJoinAndGroupQuery() {
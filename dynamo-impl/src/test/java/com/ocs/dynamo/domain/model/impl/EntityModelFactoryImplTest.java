@@ -17,6 +17,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
@@ -24,10 +26,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.persistence.Basic;
 import javax.persistence.CollectionTable;
@@ -441,6 +447,31 @@ public class EntityModelFactoryImplTest extends BaseMockitoTest {
 
 	}
 
+	@Test
+	public void testAttributeIndex() {
+		EntityModel<EntityChild> model = factory.getModel(EntityChild.class);
+
+		// lists are computed once and cannot be modified
+		List<AttributeModel> all = model.getAttributeModels();
+		assertSame(all, model.getAttributeModels());
+		assertThrows(UnsupportedOperationException.class, () -> all.remove(0));
+		assertSame(model.getAttributeModelsForType(AttributeType.MASTER, null),
+				model.getAttributeModelsForType(AttributeType.MASTER, null));
+
+		// nested paths are resolved once
+		AttributeModel nested = model.getAttributeModel("parent.name");
+		assertSame(nested, model.getAttributeModel("parent.name"));
+		assertNull(model.getAttributeModel("parent.unknown"));
+
+		// adding an attribute refreshes the index
+		AttributeModelImpl extra = new AttributeModelImpl();
+		extra.setName("extra");
+		extra.setOrder(all.size());
+		((EntityModelImpl<EntityChild>) model).addAttributeModel(EntityModel.DEFAULT_GROUP, extra);
+		assertEquals(all.size() + 1, model.getAttributeModels().size());
+		assertSame(extra, model.getAttributeModel("extra"));
+	}
+
 	@Test
 	public void testSortOrder() {
 		// Test success
@@ -634,6 +665,40 @@ public class EntityModelFactoryImplTest extends BaseMockitoTest {
 		assertEquals(DateUtils.createZonedDateTime("01-01-2017 12:00:00+0100"), am4.getDefaultValue());
 	}
 
+	@Test
+	public void testConcurrentConstruction() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<EntityModel<?>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				Class<?> clazz = i % 2 == 0 ? Entity1.class : Entity2.class;
+				futures.add(executor.submit(() -> factory.getModel(clazz)));
+			}
+
+			// every thread receives the same model per reference
+			for (int i = 2; i < futures.size(); i++) {
+				assertSame(futures.get(i % 2).get(), futures.get(i).get());
+			}
+			assertTrue(factory.hasModel("Entity1"));
+			assertTrue(factory.hasModel("Entity2"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPreWarm() {
+		EntityModelPreWarmer preWarmer = new EntityModelPreWarmer(factory, null);
+		preWarmer.preWarm(List.of(EntityParent.class, EntityChild.class));
+
+		assertTrue(factory.hasModel("EntityParent"));
+		assertTrue(factory.hasModel("EntityChild"));
+
+		// nested models are resolved against the cached models
+		EntityModel<EntityParent> model = factory.getModel(EntityParent.class);
+		assertNotNull(model.getAttributeModel("children").getNestedEntityModel());
+	}
+
 	public class Entity1 {
 
 		@Size(max = 55)
@@ -19,11 +19,14 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.Validation;
 import javax.validation.Validator;
@@ -40,10 +43,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.google.common.collect.Lists;
+import com.ocs.dynamo.constants.DynamoConstants;
 import com.ocs.dynamo.dao.BaseDao;
 import com.ocs.dynamo.dao.FetchJoinInformation;
 import com.ocs.dynamo.dao.Pageable;
 import com.ocs.dynamo.dao.PageableImpl;
+import com.ocs.dynamo.dao.QueryFunction;
 import com.ocs.dynamo.dao.SortOrder;
 import com.ocs.dynamo.dao.SortOrder.Direction;
 import com.ocs.dynamo.dao.SortOrders;
@@ -92,6 +97,17 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         }
     }
 
+    private class ValidatingTestService extends TestService {
+
+        private int validated;
+
+        @Override
+        public void validate(TestEntity t) {
+            validated++;
+            super.validate(t);
+        }
+    }
+
     private static final int ID = 1;
 
     @Mock
@@ -106,6 +122,9 @@ public class BaseServiceImplTest extends BaseMockitoTest {
     @InjectMocks
     private TestService service = new TestService();
 
+    @InjectMocks
+    private ValidatingTestService validatingService = new ValidatingTestService();
+
     @Mock
     private Validator validator;
 
@@ -200,6 +219,7 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         TestEntity obj = new TestEntity();
         service.delete(obj);
         verify(dao).delete(obj);
+        verify(dao, never()).evictCache();
     }
 
     @Test
@@ -211,6 +231,20 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         verify(dao).delete(Lists.newArrayList(obj, obj2));
     }
 
+    @Test
+    public void testDeleteAll() {
+        TestEntity obj = new TestEntity();
+        service.deleteAll(Lists.newArrayList(obj));
+        verify(dao).deleteAll(Lists.newArrayList(obj));
+    }
+
+    @Test
+    public void testDeleteByFilter() {
+        Filter filter = new Compare.Equal("name", "Bob");
+        when(dao.deleteByFilter(filter)).thenReturn(2L);
+        assertEquals(2L, service.deleteByFilter(filter));
+    }
+
     @Test
     public void testFetchById() {
 
@@ -336,6 +370,16 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         verify(dao).findSelect(eq(filter), eq(new String[] { "property1", "property2" }), any(PageableImpl.class));
     }
 
+    @Test
+    public void testFindSelectHaving() {
+        Filter filter = new Compare.Equal("property1", 1);
+        Filter having = new Compare.Greater(QueryFunction.AF_SUM.with("property2"), 10);
+        SortOrders so = new SortOrders(new SortOrder(QueryFunction.AF_SUM.with("property2")));
+        String[] props = new String[] { "property1", QueryFunction.AF_SUM.with("property2") };
+        service.findSelect(filter, props, having, so);
+        verify(dao).findSelect(filter, props, having, so);
+    }
+
     /**
      * tests that a custom method is correctly delegated
      */
@@ -353,6 +397,7 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         TestEntity result = service.save(obj);
         assertNotNull(result);
         verify(dao).save(obj);
+        verify(dao, never()).evictCache();
     }
 
     @Test
@@ -364,6 +409,41 @@ public class BaseServiceImplTest extends BaseMockitoTest {
         verify(dao).save(Lists.newArrayList(obj1, obj2));
     }
 
+    @Test
+    public void testSaveAll_ParallelValidation() {
+        System.setProperty(DynamoConstants.SP_PARALLEL_VALIDATION, "true");
+        try {
+            TestEntity obj1 = new TestEntity("name1", 14L);
+            TestEntity obj2 = new TestEntity("name2", 15L);
+            service.saveAll(Lists.newArrayList(obj1, obj2));
+            verify(dao).saveAll(Lists.newArrayList(obj1, obj2));
+
+            // constraint violations are still reported
+            TestEntity invalid = new TestEntity(null, 15L);
+            assertThrows(OCSValidationException.class, () -> service.saveAll(Lists.newArrayList(obj1, invalid)));
+
+            // as are duplicates
+            TestEntity other = new TestEntity();
+            other.setId(4);
+            when(dao.findByUniqueProperty("name", "name2", true)).thenReturn(other);
+            assertThrows(OCSNonUniqueException.class, () -> service.saveAll(Lists.newArrayList(obj1, obj2)));
+
+            // an overridden validate method is not bypassed
+            validatingService.saveAll(Lists.newArrayList(obj1, new TestEntity("name3", 16L)));
+            assertEquals(2, validatingService.validated);
+        } finally {
+            System.clearProperty(DynamoConstants.SP_PARALLEL_VALIDATION);
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        Filter filter = new Compare.Equal("name", "Bob");
+        Map<String, Object> assignments = Collections.singletonMap("age", 12L);
+        when(dao.update(filter, assignments)).thenReturn(3L);
+        assertEquals(3L, service.update(filter, assignments));
+    }
+
     @Test
     public void testValidate() {
         TestEntity entity = new TestEntity("name1", 15L);
@@ -0,0 +1,105 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ocs.dynamo.dao.SortOrder;
+import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.domain.TestEntity2;
+import com.ocs.dynamo.filter.Compare;
+
+public class LookupCacheImplTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private List<TestEntity> load() {
+        loads.incrementAndGet();
+        List<TestEntity> result = new ArrayList<>();
+        result.add(new TestEntity("Bob", 11L));
+        return result;
+    }
+
+    @Test
+    public void testCacheAndInvalidate() {
+        LookupCacheImpl cache = new LookupCacheImpl(10);
+
+        SortOrder[] orders = new SortOrder[] { new SortOrder("name") };
+        List<TestEntity> first = cache.find(TestEntity.class, new Compare.Equal("name", "Bob"), orders, this::load);
+        List<TestEntity> second = cache.find(TestEntity.class, new Compare.Equal("name", "Bob"),
+                new SortOrder[] { new SortOrder("name") }, this::load);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        // snapshots are read-only
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new TestEntity()));
+
+        // different filter or sort order results in a separate entry
+        cache.find(TestEntity.class, new Compare.Equal("name", "Kevin"), orders, this::load);
+        cache.find(TestEntity.class, null, null, this::load);
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.size());
+
+        // invalidating an unrelated class leaves the entries in place
+        cache.invalidate(TestEntity2.class);
+        assertEquals(3, cache.size());
+
+        cache.invalidate(TestEntity.class);
+        assertEquals(0, cache.size());
+        cache.find(TestEntity.class, null, null, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testMaxEntries() {
+        LookupCacheImpl cache = new LookupCacheImpl(2);
+        cache.find(TestEntity.class, new Compare.Equal("name", "1"), null, this::load);
+        cache.find(TestEntity.class, new Compare.Equal("name", "2"), null, this::load);
+        cache.find(TestEntity.class, new Compare.Equal("name", "3"), null, this::load);
+        assertEquals(2, cache.size());
+
+        // least recently used entry has been evicted
+        cache.find(TestEntity.class, new Compare.Equal("name", "1"), null, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        LookupCacheImpl cache = new LookupCacheImpl(10);
+        cache.find(TestEntity.class, null, null, () -> {
+            cache.invalidate(TestEntity.class);
+            return load();
+        });
+
+        // list loaded during invalidation is not stored
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        LookupCacheImpl cache = new LookupCacheImpl(0);
+        cache.find(TestEntity.class, null, null, this::load);
+        cache.find(TestEntity.class, null, null, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ocs.dynamo.domain.TestEntity;
+import com.ocs.dynamo.domain.TestEntity2;
+import com.ocs.dynamo.exception.OCSRuntimeException;
+
+public class PropertyAccessorCacheTest {
+
+    @Test
+    public void testAccessorIsCached() {
+        assertSame(PropertyAccessorCache.getAccessor(TestEntity.class, "age"),
+                PropertyAccessorCache.getAccessor(TestEntity.class, "age"));
+    }
+
+    @Test
+    public void testGetAndSetValue() {
+        TestEntity entity = new TestEntity();
+        PropertyAccessorCache.setValue(entity, "age", 12L);
+        assertEquals(12L, PropertyAccessorCache.getValue(entity, "age"));
+
+        PropertyAccessorCache.setValue(entity, "age", null);
+        assertNull(PropertyAccessorCache.getValue(entity, "age"));
+
+        // "is" method
+        assertTrue((Boolean) PropertyAccessorCache.getValue(entity, "assertSomething"));
+    }
+
+    @Test
+    public void testNestedValue() {
+        TestEntity2 entity2 = new TestEntity2();
+
+        // intermediate value is null
+        assertNull(PropertyAccessorCache.getValue(entity2, "testEntity.age"));
+        PropertyAccessorCache.setValue(entity2, "testEntity.age", 12L);
+
+        TestEntity entity = new TestEntity();
+        entity2.setTestEntity(entity);
+        PropertyAccessorCache.setValue(entity2, "testEntity.age", 14L);
+        assertEquals(14L, entity.getAge().longValue());
+        assertEquals(14L, PropertyAccessorCache.getValue(entity2, "testEntity.age"));
+    }
+
+    @Test
+    public void testNonPublicClass() {
+        // the getter is declared on a non-public JDK class, but is accessed through
+        // the public interface
+        List<String> list = Collections.unmodifiableList(new ArrayList<>());
+        assertTrue((Boolean) PropertyAccessorCache.getValue(list, "empty"));
+    }
+
+    @Test
+    public void testNonExistingProperty() {
+        TestEntity entity = new TestEntity();
+        assertThrows(OCSRuntimeException.class, () -> PropertyAccessorCache.getValue(entity, "age2"));
+        assertThrows(OCSRuntimeException.class, () -> PropertyAccessorCache.setValue(entity, "age2", 12L));
+    }
+
+    @Test
+    public void testSetIncompatibleValue() {
+        TestEntity entity = new TestEntity();
+        assertThrows(OCSRuntimeException.class, () -> PropertyAccessorCache.setValue(entity, "age", "abc"));
+    }
+}
@@ -13,18 +13,18 @@
  */
 package com.ocs.dynamo.importer.impl;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.apache.commons.io.input.CharSequenceReader;
-
-import com.ocs.dynamo.exception.OCSImportException;
 import com.ocs.dynamo.util.SystemPropertyUtils;
 import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
-import com.opencsv.exceptions.CsvException;
 
 /**
  * Base class for importing CSV files
@@ -34,12 +34,42 @@ import com.opencsv.exceptions.CsvException;
 public class BaseCsvImporter extends BaseTextImporter {
 
     /**
-     * Counts the number of rows in the file
+     * Counts the number of rows in the file. When the file does not contain any
+     * quotes, every line is a row and the lines are counted without parsing.
+     * Otherwise the rows are parsed (so that line breaks inside quoted values are
+     * handled correctly) but not retained
      */
     @Override
     public int countRows(byte[] bytes, int sheetIndex) {
-        List<String[]> lines = readCsvFile(bytes, SystemPropertyUtils.getCsvSeparator(), SystemPropertyUtils.getCsvQuoteChar());
-        return lines.size();
+        String quote = SystemPropertyUtils.getCsvQuoteChar();
+        if (quote == null || quote.isEmpty() || !contains(bytes, quote.getBytes(StandardCharsets.UTF_8))) {
+            return (int) countLines(new ByteArrayInputStream(bytes));
+        }
+
+        try (Stream<String[]> rows = readCsvFile(new ByteArrayInputStream(bytes), SystemPropertyUtils.getCsvSeparator(),
+                SystemPropertyUtils.getCsvQuoteChar())) {
+            return (int) rows.count();
+        }
+    }
+
+    /**
+     * Checks whether a byte array contains a sequence of bytes
+     * 
+     * @param bytes    the byte array
+     * @param sequence the sequence to look for
+     * @return
+     */
+    private static boolean contains(byte[] bytes, byte[] sequence) {
+        for (int i = 0; i <= bytes.length - sequence.length; i++) {
+            int j = 0;
+            while (j < sequence.length && bytes[i + j] == sequence[j]) {
+                j++;
+            }
+            if (j == sequence.length) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -51,14 +81,26 @@ public class BaseCsvImporter extends BaseTextImporter {
      * @return
      */
     protected List<String[]> readCsvFile(byte[] bytes, String separator, String quote) {
-        try (CharSequenceReader seq = new CharSequenceReader(new String(bytes, StandardCharsets.UTF_8));
-                CSVReader reader = new CSVReaderBuilder(seq)
-                        .withCSVParser(new CSVParserBuilder().withSeparator(separator.charAt(0)).withQuoteChar(quote.charAt(0)).build())
-                        .build()) {
-            return reader.readAll();
-        } catch (IOException | CsvException ex) {
-            throw new OCSImportException(ex.getMessage(), ex);
+        try (Stream<String[]> rows = readCsvFile(new ByteArrayInputStream(bytes), separator, quote)) {
+            return rows.collect(Collectors.toList());
         }
     }
 
+    /**
+     * Reads a CSV file as a stream of String arrays. The rows are parsed one at a
+     * time while the stream is consumed, so the file is never fully kept in
+     * memory. The stream must be closed after use, which also closes the input
+     * 
+     * @param input     the input stream that contains the (UTF-8 encoded) CSV file
+     * @param separator the record separator
+     * @param quote     the quote char
+     * @return
+     */
+    protected Stream<String[]> readCsvFile(InputStream input, String separator, String quote) {
+        CSVReader reader = new CSVReaderBuilder(new InputStreamReader(input, StandardCharsets.UTF_8))
+                .withCSVParser(new CSVParserBuilder().withSeparator(separator.charAt(0)).withQuoteChar(quote.charAt(0)).build())
+                .build();
+        return createRowStream(reader::readNext, reader);
+    }
+
 }
@@ -15,13 +15,13 @@ package com.ocs.dynamo.importer.impl;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-
-import org.apache.commons.io.input.CharSequenceReader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.ocs.dynamo.exception.OCSImportException;
 
@@ -42,18 +42,7 @@ public class BaseFixedLengthImporter extends BaseTextImporter {
 	 */
 	@Override
 	public int countRows(byte[] bytes, int sheetIndex) {
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)))) {
-			int count = 0;
-
-			String line = reader.readLine();
-			while (line != null) {
-				count++;
-				line = reader.readLine();
-			}
-			return count;
-		} catch (IOException ex) {
-			throw new OCSImportException(ex.getMessage(), ex);
-		}
+		return (int) countLines(new ByteArrayInputStream(bytes));
 	}
 
 	/**
@@ -86,35 +75,56 @@ public class BaseFixedLengthImporter extends BaseTextImporter {
 	 * @param fieldLengths
 	 *            the field lengths
 	 * @return
-	 * @throws IOException
 	 */
 	protected List<String[]> readFixedLengthFile(byte[] bytes, List<Integer> fieldLengths) {
-		try (BufferedReader reader = new BufferedReader(
-		        new CharSequenceReader(new String(bytes, StandardCharsets.UTF_8)))) {
-			List<String[]> result = new ArrayList<>();
+		try (Stream<String[]> rows = readFixedLengthFile(new ByteArrayInputStream(bytes), fieldLengths)) {
+			return rows.collect(Collectors.toList());
+		}
+	}
 
+	/**
+	 * Reads a fixed length file as a stream of String arrays. The lines are read
+	 * and split up one at a time while the stream is consumed, so the file is never
+	 * fully kept in memory. The stream must be closed after use, which also closes
+	 * the input
+	 * 
+	 * @param input
+	 *            the input stream that contains the (UTF-8 encoded) file
+	 * @param fieldLengths
+	 *            the field lengths
+	 * @return
+	 */
+	protected Stream<String[]> readFixedLengthFile(InputStream input, List<Integer> fieldLengths) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		return createRowStream(() -> {
 			String line = reader.readLine();
-			while (line != null) {
-				List<String> temp = new ArrayList<>();
-				int start = 0;
-				for (Integer len : fieldLengths) {
-					if (start + len <= line.length()) {
-						// there is space
-						String field = line.substring(start, start + len);
-						temp.add(field.trim());
-					} else if (start <= line.length()) {
-						String field = line.substring(start, line.length());
-						temp.add(field.trim());
-					}
-					start += len;
-				}
+			return line == null ? null : splitLine(line, fieldLengths);
+		}, reader);
+	}
 
-				result.add(temp.toArray(new String[0]));
-				line = reader.readLine();
+	/**
+	 * Splits a line into fields
+	 * 
+	 * @param line
+	 *            the line
+	 * @param fieldLengths
+	 *            the field lengths
+	 * @return
+	 */
+	private String[] splitLine(String line, List<Integer> fieldLengths) {
+		List<String> temp = new ArrayList<>();
+		int start = 0;
+		for (Integer len : fieldLengths) {
+			if (start + len <= line.length()) {
+				// there is space
+				String field = line.substring(start, start + len);
+				temp.add(field.trim());
+			} else if (start <= line.length()) {
+				String field = line.substring(start, line.length());
+				temp.add(field.trim());
 			}
-			return result;
-		} catch (IOException ex) {
-			throw new OCSImportException(ex.getMessage(), ex);
+			start += len;
 		}
+		return temp.toArray(new String[0]);
 	}
 }
@@ -13,21 +13,18 @@
  */
 package com.ocs.dynamo.importer.impl;
 
-import static java.lang.Float.valueOf;
-
 import java.beans.PropertyDescriptor;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import com.ocs.dynamo.exception.OCSImportException;
 import com.ocs.dynamo.importer.ImportField;
 import com.ocs.dynamo.importer.dto.AbstractDTO;
-import com.ocs.dynamo.utils.ClassUtils;
-import com.ocs.dynamo.utils.NumberUtils;
+import com.ocs.dynamo.importer.impl.ImportPlan.ImportStep;
+import com.ocs.dynamo.importer.impl.ImportPlan.ValueType;
 
 /**
  * Base class for smart upload functionality
@@ -79,29 +76,54 @@ public abstract class BaseImporter<R, U> {
 	 * @param field the field definition
 	 * @return
 	 */
-	@SuppressWarnings("unchecked")
 	protected Object getFieldValue(PropertyDescriptor d, U unit, ImportField field) {
+		return getFieldValue(d.getName(), ValueType.of(d.getPropertyType()), d.getPropertyType(), unit, field);
+	}
+
+	/**
+	 * Retrieves a value from a unit of data for a step of an import plan
+	 * 
+	 * @param step the step
+	 * @param unit the unit of data to process
+	 * @return
+	 */
+	protected Object getFieldValue(ImportStep step, U unit) {
+		return getFieldValue(step.getProperty(), step.getValueType(), step.getType(), unit, step.getField());
+	}
+
+	/**
+	 * Retrieves a value from a unit of data
+	 * 
+	 * @param property  the name of the property
+	 * @param valueType the kind of value to retrieve
+	 * @param type      the type of the property
+	 * @param unit      the unit of data to process
+	 * @param field     the field definition
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private Object getFieldValue(String property, ValueType valueType, Class<?> type, U unit, ImportField field) {
 		Object obj = null;
-		if (String.class.equals(d.getPropertyType())) {
+		if (ValueType.STRING == valueType) {
 			String value = getStringValueWithDefault(unit, field);
 			if (value != null) {
 				value = value.trim();
 			}
 			obj = StringUtils.isEmpty(value) ? null : value;
-		} else if (d.getPropertyType().isEnum()) {
+		} else if (ValueType.ENUM == valueType) {
 			String value = getStringValueWithDefault(unit, field);
 			if (value != null) {
 				value = value.trim();
 				try {
 					@SuppressWarnings("rawtypes")
-					Class<? extends Enum> enumType = d.getPropertyType().asSubclass(Enum.class);
+					Class<? extends Enum> enumType = type.asSubclass(Enum.class);
 					obj = Enum.valueOf(enumType, value.toUpperCase());
 				} catch (IllegalArgumentException ex) {
 					throw new OCSImportException("Value " + value + " cannot be translated to an enumeration value",
 							ex);
 				}
 			}
-		} else if (isNumeric(d.getPropertyType())) {
+		} else if (valueType.isNumeric()) {
 			// numeric field
 			Double value = getNumericValueWithDefault(unit, field);
 			if (value != null) {
@@ -115,27 +137,33 @@ public abstract class BaseImporter<R, U> {
 
 				// illegal negative value
 				if (field.cannotBeNegative() && value < 0.0) {
-					throw new OCSImportException("Negative value " + value + " found for field '" + d.getName() + "'");
+					throw new OCSImportException("Negative value " + value + " found for field '" + property + "'");
 				}
 
 				// round to the nearest integer, then use intValue() or longValue()
-				BigDecimal rounded = BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_UP);
-				Class<?> pType = d.getPropertyType();
-				if (NumberUtils.isInteger(pType)) {
-					obj = rounded.intValue();
-				} else if (NumberUtils.isLong(pType)) {
-					obj = rounded.longValue();
-				} else if (NumberUtils.isFloat(pType)) {
-					obj = valueOf(value.floatValue());
-				} else if (NumberUtils.isDouble(pType)) {
+				switch (valueType) {
+				case INTEGER:
+					obj = BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_UP).intValue();
+					break;
+				case LONG:
+					obj = BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_UP).longValue();
+					break;
+				case FLOAT:
+					obj = value.floatValue();
+					break;
+				case DOUBLE:
 					obj = value;
-				} else if (BigDecimal.class.equals(pType)) {
+					break;
+				case BIG_DECIMAL:
 					obj = BigDecimal.valueOf(value);
+					break;
+				default:
+					break;
 				}
 			}
-		} else if (Boolean.class.isAssignableFrom(d.getPropertyType())) {
+		} else if (ValueType.BOOLEAN == valueType) {
 			return getBooleanValueWithDefault(unit, field);
-		} else if (LocalDate.class.isAssignableFrom(d.getPropertyType())) {
+		} else if (ValueType.DATE == valueType) {
 			return getDateValueWithDefault(unit, field);
 		}
 		return obj;
@@ -170,17 +198,6 @@ public abstract class BaseImporter<R, U> {
 	 */
 	protected abstract U getUnit(R row, ImportField field);
 
-	/**
-	 * Check if the class is a numeric class
-	 * 
-	 * @param clazz the class to check
-	 * @return
-	 */
-	private boolean isNumeric(Class<?> clazz) {
-		return Number.class.isAssignableFrom(clazz) || int.class.equals(clazz) || long.class.equals(clazz)
-				|| double.class.equals(clazz) || float.class.equals(clazz);
-	}
-
 	/**
 	 * Indicates whether fraction values are automatically converted to percentages
 	 * 
@@ -206,26 +223,24 @@ public abstract class BaseImporter<R, U> {
 	 * @return
 	 */
 	public <T extends AbstractDTO> T processRow(int rowNum, R row, Class<T> clazz) {
-		T t = ClassUtils.instantiateClass(clazz);
+		ImportPlan<T> plan = ImportPlan.forClass(clazz);
+		T t = plan.newInstance();
 		t.setRowNum(rowNum);
 
-		PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(clazz);
-		for (PropertyDescriptor d : descriptors) {
-			ImportField field = ClassUtils.getAnnotation(clazz, d.getName(), ImportField.class);
-			if (field != null) {
-				if (isWithinRange(row, field)) {
-					U unit = getUnit(row, field);
-
-					Object obj = getFieldValue(d, unit, field);
-					if (obj != null) {
-						ClassUtils.setFieldValue(t, d.getName(), obj);
-					} else if (field.required()) {
-						// a required value is missing!
-						throw new OCSImportException("Required value for field '" + d.getName() + "' is missing");
-					}
-				} else {
-					throw new OCSImportException("Row doesn't have enough columns");
+		for (ImportStep step : plan.getSteps()) {
+			ImportField field = step.getField();
+			if (isWithinRange(row, field)) {
+				U unit = getUnit(row, field);
+
+				Object obj = getFieldValue(step, unit);
+				if (obj != null) {
+					step.setValue(t, obj);
+				} else if (field.required()) {
+					// a required value is missing!
+					throw new OCSImportException("Required value for field '" + step.getProperty() + "' is missing");
 				}
+			} else {
+				throw new OCSImportException("Row doesn't have enough columns");
 			}
 		}
 		return t;
@@ -16,10 +16,20 @@ package com.ocs.dynamo.importer.impl;
 import com.ocs.dynamo.exception.OCSImportException;
 import com.ocs.dynamo.importer.ImportField;
 import com.ocs.dynamo.util.SystemPropertyUtils;
+import com.opencsv.exceptions.CsvException;
 import org.springframework.util.StringUtils;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Base class for importers that read data from a text file
@@ -28,6 +38,123 @@ import java.time.format.DateTimeFormatter;
  */
 public abstract class BaseTextImporter extends BaseImporter<String[], String> {
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Reads the next row from the input
+	 * 
+	 * @author bas.rutten
+	 */
+	@FunctionalInterface
+	protected interface RowReader {
+
+		/**
+		 * 
+		 * @return the next row, or <code>null</code> if the end of the input has been
+		 *         reached
+		 * @throws IOException
+		 * @throws CsvException
+		 */
+		String[] readRow() throws IOException, CsvException;
+	}
+
+	/**
+	 * Counts the number of lines in the input by scanning the raw bytes for line
+	 * terminators, without decoding or parsing the content. This is cheap enough
+	 * to report progress on very large files, but line breaks inside quoted values
+	 * are counted as well
+	 * 
+	 * @param input
+	 *            the input stream (not closed by this method)
+	 * @return
+	 */
+	public long countLines(InputStream input) {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		long count = 0;
+		boolean openLine = false;
+		boolean afterCarriageReturn = false;
+		try {
+			int read = input.read(buffer);
+			while (read >= 0) {
+				for (int i = 0; i < read; i++) {
+					byte b = buffer[i];
+					if (b == '\n') {
+						// "\r\n" only ends a single line
+						if (!afterCarriageReturn) {
+							count++;
+						}
+						openLine = false;
+						afterCarriageReturn = false;
+					} else if (b == '\r') {
+						count++;
+						openLine = false;
+						afterCarriageReturn = true;
+					} else {
+						openLine = true;
+						afterCarriageReturn = false;
+					}
+				}
+				read = input.read(buffer);
+			}
+		} catch (IOException ex) {
+			throw new OCSImportException(ex.getMessage(), ex);
+		}
+		return openLine ? count + 1 : count;
+	}
+
+	/**
+	 * Creates a stream of rows that are read from the input one at a time. The
+	 * stream must be closed after use (e.g. using try-with-resources), which
+	 * closes the underlying resource
+	 * 
+	 * @param reader
+	 *            the function that reads the next row
+	 * @param resource
+	 *            the resource to close when the stream is closed
+	 * @return
+	 */
+	protected Stream<String[]> createRowStream(RowReader reader, Closeable resource) {
+		Iterator<String[]> iterator = new Iterator<String[]>() {
+
+			private String[] next;
+
+			private boolean done;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && !done) {
+					try {
+						next = reader.readRow();
+					} catch (IOException | CsvException ex) {
+						throw new OCSImportException(ex.getMessage(), ex);
+					}
+					done = next == null;
+				}
+				return next != null;
+			}
+
+			@Override
+			public String[] next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String[] row = next;
+				next = null;
+				return row;
+			}
+		};
+
+		return StreamSupport
+		        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+		        .onClose(() -> {
+			        try {
+				        resource.close();
+			        } catch (IOException ex) {
+				        throw new OCSImportException(ex.getMessage(), ex);
+			        }
+		        });
+	}
+
 	/**
 	 * Tries to convert a String value to a Boolean (empty String or null
 	 * resolves to false)
@@ -13,7 +13,6 @@
  */
 package com.ocs.dynamo.importer.impl;
 
-import java.beans.PropertyDescriptor;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.time.LocalDate;
@@ -29,7 +28,6 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import com.monitorjbl.xlsx.StreamingReader;
@@ -37,8 +35,8 @@ import com.ocs.dynamo.exception.OCSImportException;
 import com.ocs.dynamo.exception.OCSRuntimeException;
 import com.ocs.dynamo.importer.ImportField;
 import com.ocs.dynamo.importer.dto.AbstractDTO;
+import com.ocs.dynamo.importer.impl.ImportPlan.ImportStep;
 import com.ocs.dynamo.util.SystemPropertyUtils;
-import com.ocs.dynamo.utils.ClassUtils;
 
 /**
  * Base class for services that can be used to import Excel files.
@@ -323,7 +321,8 @@ public class BaseXlsImporter extends BaseImporter<Row, Cell> {
 	 * @return
 	 */
 	public <T extends AbstractDTO> T processRows(Sheet sheet, int firstRowIndex, int colIndex, Class<T> clazz) {
-		T t = ClassUtils.instantiateClass(clazz);
+		ImportPlan<T> plan = ImportPlan.forClass(clazz);
+		T t = plan.newInstance();
 
 		Object firstCellValue = null;
 		try {
@@ -333,25 +332,22 @@ public class BaseXlsImporter extends BaseImporter<Row, Cell> {
 		}
 
 		if (firstCellValue != null && !"".equals(firstCellValue.toString())) {
-			PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(clazz);
-			for (PropertyDescriptor d : descriptors) {
-				ImportField field = ClassUtils.getAnnotation(clazz, d.getName(), ImportField.class);
-				if (field != null) {
-					int rowNum = firstRowIndex + field.index();
-					if (rowNum <= sheet.getLastRowNum()) {
-						Row row = sheet.getRow(rowNum);
-						Cell unit = row.getCell(colIndex);
-						Object obj = getFieldValue(d, unit, field);
-						if (obj != null) {
-							ClassUtils.setFieldValue(t, d.getName(), obj);
-						} else if (field.required()) {
-							// a required value is missing!
-							throw new OCSImportException("Required value for field '" + d.getName() + "' is missing");
-						}
-					} else {
-						throw new OCSImportException(
-								"Input doesn't have enoug rows: row " + rowNum + " does not exist");
+			for (ImportStep step : plan.getSteps()) {
+				ImportField field = step.getField();
+				int rowNum = firstRowIndex + field.index();
+				if (rowNum <= sheet.getLastRowNum()) {
+					Row row = sheet.getRow(rowNum);
+					Cell unit = row.getCell(colIndex);
+					Object obj = getFieldValue(step, unit);
+					if (obj != null) {
+						step.setValue(t, obj);
+					} else if (field.required()) {
+						// a required value is missing!
+						throw new OCSImportException("Required value for field '" + step.getProperty() + "' is missing");
 					}
+				} else {
+					throw new OCSImportException(
+							"Input doesn't have enoug rows: row " + rowNum + " does not exist");
 				}
 			}
 		}
@@ -0,0 +1,217 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.importer.impl;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+
+import com.ocs.dynamo.exception.OCSImportException;
+import com.ocs.dynamo.importer.ImportField;
+import com.ocs.dynamo.utils.ClassUtils;
+import com.ocs.dynamo.utils.NumberUtils;
+import com.ocs.dynamo.utils.PropertyAccessorCache;
+import com.ocs.dynamo.utils.PropertyAccessorCache.PropertyAccessor;
+
+/**
+ * The compiled mapping from the fields of an input row to the properties of a
+ * DTO class. The property descriptors and import annotations are inspected and
+ * the setters are resolved only once per class, after which the plan is reused
+ * for every row
+ *
+ * @author bas.rutten
+ *
+ * @param <T> the type of the DTO
+ */
+public final class ImportPlan<T> {
+
+	/**
+	 * The plans per class. Note that a plan refers to its class (through the
+	 * constructor and the property accessors), so a DTO class for which a plan was
+	 * created is not unloaded as long as the plan is cached
+	 */
+	private static final ClassValue<ImportPlan<?>> PLANS = new ClassValue<>() {
+		@Override
+		protected ImportPlan<?> computeValue(Class<?> type) {
+			return new ImportPlan<>(type);
+		}
+	};
+
+	private final Constructor<T> constructor;
+
+	private final ImportStep[] steps;
+
+	private ImportPlan(Class<T> clazz) {
+		try {
+			this.constructor = clazz.getDeclaredConstructor();
+		} catch (NoSuchMethodException ex) {
+			throw new OCSImportException("No default constructor found for " + clazz.getName(), ex);
+		}
+
+		List<ImportStep> list = new ArrayList<>();
+		for (PropertyDescriptor d : BeanUtils.getPropertyDescriptors(clazz)) {
+			ImportField field = ClassUtils.getAnnotation(clazz, d.getName(), ImportField.class);
+			if (field != null) {
+				list.add(new ImportStep(d.getName(), field, ValueType.of(d.getPropertyType()), d.getPropertyType(),
+						PropertyAccessorCache.getAccessor(clazz, d.getName())));
+			}
+		}
+		list.sort(Comparator.comparingInt(s -> s.getField().index()));
+		this.steps = list.toArray(new ImportStep[0]);
+	}
+
+	/**
+	 * Returns the plan for the provided DTO class
+	 *
+	 * @param clazz the class
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ImportPlan<T> forClass(Class<T> clazz) {
+		return (ImportPlan<T>) PLANS.get(clazz);
+	}
+
+	/**
+	 * Returns the steps to execute for every row. These are ordered by field
+	 * index, so the fields of a row are converted (and the first error in a
+	 * malformed row is reported) in the order in which they appear in the input
+	 *
+	 * @return
+	 */
+	public ImportStep[] getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Creates a new, empty DTO
+	 *
+	 * @return
+	 */
+	public T newInstance() {
+		return BeanUtils.instantiateClass(constructor);
+	}
+
+	/**
+	 * The kind of value a property expects, which determines how the input is
+	 * converted
+	 *
+	 * @author bas.rutten
+	 *
+	 */
+	public enum ValueType {
+
+		STRING, ENUM, INTEGER, LONG, FLOAT, DOUBLE, BIG_DECIMAL, OTHER_NUMBER, BOOLEAN, DATE, UNSUPPORTED;
+
+		/**
+		 * Determines the value type for a property type
+		 *
+		 * @param type the property type
+		 * @return
+		 */
+		public static ValueType of(Class<?> type) {
+			if (String.class.equals(type)) {
+				return STRING;
+			} else if (type.isEnum()) {
+				return ENUM;
+			} else if (Number.class.isAssignableFrom(type) || int.class.equals(type) || long.class.equals(type)
+					|| double.class.equals(type) || float.class.equals(type)) {
+				if (NumberUtils.isInteger(type)) {
+					return INTEGER;
+				} else if (NumberUtils.isLong(type)) {
+					return LONG;
+				} else if (NumberUtils.isFloat(type)) {
+					return FLOAT;
+				} else if (NumberUtils.isDouble(type)) {
+					return DOUBLE;
+				} else if (BigDecimal.class.equals(type)) {
+					return BIG_DECIMAL;
+				}
+				return OTHER_NUMBER;
+			} else if (Boolean.class.isAssignableFrom(type)) {
+				return BOOLEAN;
+			} else if (LocalDate.class.isAssignableFrom(type)) {
+				return DATE;
+			}
+			return UNSUPPORTED;
+		}
+
+		/**
+		 *
+		 * @return whether this is a numeric value type
+		 */
+		public boolean isNumeric() {
+			return this == INTEGER || this == LONG || this == FLOAT || this == DOUBLE || this == BIG_DECIMAL
+					|| this == OTHER_NUMBER;
+		}
+	}
+
+	/**
+	 * The mapping of a single input field to a property
+	 *
+	 * @author bas.rutten
+	 *
+	 */
+	public static final class ImportStep {
+
+		private final String property;
+
+		private final ImportField field;
+
+		private final ValueType valueType;
+
+		private final Class<?> type;
+
+		private final PropertyAccessor accessor;
+
+		ImportStep(String property, ImportField field, ValueType valueType, Class<?> type, PropertyAccessor accessor) {
+			this.property = property;
+			this.field = field;
+			this.valueType = valueType;
+			this.type = type;
+			this.accessor = accessor;
+		}
+
+		public String getProperty() {
+			return property;
+		}
+
+		public ImportField getField() {
+			return field;
+		}
+
+		public ValueType getValueType() {
+			return valueType;
+		}
+
+		public Class<?> getType() {
+			return type;
+		}
+
+		/**
+		 * Sets the property value on the provided DTO
+		 *
+		 * @param target the DTO
+		 * @param value  the value to set
+		 */
+		public void setValue(Object target, Object value) {
+			accessor.setValue(target, value);
+		}
+	}
+}
@@ -51,6 +51,19 @@ public class DefaultTextImportTemplate<ID, T extends AbstractDTO> extends TextIm
         this.type = type;
     }
 
+    /**
+     * Constructor for a streaming import
+     * 
+     * @param type
+     * @param messageService
+     * @param importer
+     * @param errors
+     */
+    public DefaultTextImportTemplate(Class<T> type, MessageService messageService, BaseTextImporter importer,
+            List<String> errors) {
+        this(type, messageService, importer, null, errors);
+    }
+
     @Override
     protected boolean isAppropriateRow(String[] line) {
         return true;
@@ -15,9 +15,12 @@ package com.ocs.dynamo.importer.template;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +52,9 @@ public abstract class TextImportTemplate<ID, T> {
 
     private MessageService messageService;
 
+    /**
+     * The keys of the rows that were processed so far, used to check for duplicates
+     */
     private Set<ID> keys = new HashSet<>();
 
     /**
@@ -69,6 +75,18 @@ public abstract class TextImportTemplate<ID, T> {
         this.messageService = messageService;
     }
 
+    /**
+     * Constructor for a streaming import (see {@link #execute(Stream, int, Consumer)})
+     * 
+     * @param errors
+     *            the errors that have occurred so far
+     * @param checkForDuplicates
+     *            whether to check for duplicate rows
+     */
+    public TextImportTemplate(MessageService messageService, List<String> errors, boolean checkForDuplicates) {
+        this(messageService, null, errors, checkForDuplicates);
+    }
+
     /**
      * Indicates whether the row is appropriate and can be processed
      * 
@@ -102,21 +120,104 @@ public abstract class TextImportTemplate<ID, T> {
     public List<T> execute() {
         List<T> results = new ArrayList<>();
         for (int i = 0; i < lines.size(); i++) {
-            String[] row = lines.get(i);
-            if (row != null && i > 0 && isAppropriateRow(row)) {
-                try {
-                    executeRow(i, row, results);
-                } catch (OCSImportException ex) {
-                    LOG.error(ex.getMessage(), ex);
-                    // catch errors on a record by record level
-                    errors.add(String.format("Row %d: %s", i + 1, ex.getMessage()));
-                }
-            }
+            handleRow(i, lines.get(i), results);
         }
 
         return results;
     }
 
+    /**
+     * Processes the rows from a stream and hands the results to the sink in
+     * batches, so that only the current batch has to be kept in memory. The first
+     * row is regarded as the header and skipped. The stream is not closed.
+     * 
+     * Note that the error messages are still added to the list of errors, and that
+     * (when checking for duplicates) the key of every row is kept in order to
+     * detect duplicates. To keep the memory usage flat for very large files, pass a
+     * bounded list of errors and replace the key set using {@link #setKeys(Set)}
+     * 
+     * @param rows
+     *            the rows (as arrays of strings denoting the individual field values)
+     * @param batchSize
+     *            the maximum number of results to hand to the sink at once (must
+     *            be positive)
+     * @param sink
+     *            the consumer of the results
+     * @return the total number of results
+     */
+    public long execute(Stream<String[]> rows, int batchSize, Consumer<List<T>> sink) {
+        if (batchSize <= 0) {
+            throw new OCSImportException("The batch size must be positive, but is " + batchSize);
+        }
+
+        long count = 0;
+        int i = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        Iterator<String[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            handleRow(i++, iterator.next(), batch);
+            if (batch.size() >= batchSize) {
+                sink.accept(batch);
+                count += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * Processes the rows from a stream and hands the results to the sink in
+     * batches of the default batch size
+     * 
+     * @param rows
+     *            the rows
+     * @param sink
+     *            the consumer of the results
+     * @return the total number of results
+     */
+    public long execute(Stream<String[]> rows, Consumer<List<T>> sink) {
+        return execute(rows, SystemPropertyUtils.getBatchSize(), sink);
+    }
+
+    /**
+     * Replaces the set that holds the keys of the processed rows (e.g. by a set
+     * that is backed by a database table or a bounded set). Only used when
+     * checking for duplicates
+     * 
+     * @param keys
+     *            the set of keys
+     */
+    public void setKeys(Set<ID> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Processes a single row if it is appropriate, recording any errors
+     * 
+     * @param i
+     *            the index of the row
+     * @param row
+     *            the field values that together form the row
+     * @param results
+     *            the list of current results
+     */
+    private void handleRow(int i, String[] row, List<T> results) {
+        if (row != null && i > 0 && isAppropriateRow(row)) {
+            try {
+                executeRow(i, row, results);
+            } catch (OCSImportException ex) {
+                LOG.error(ex.getMessage(), ex);
+                // catch errors on a record by record level
+                errors.add(String.format("Row %d: %s", i + 1, ex.getMessage()));
+            }
+        }
+    }
+
     /**
      * Processes a single row
      * 
@@ -17,9 +17,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Disabled;
@@ -89,6 +91,17 @@ public class BaseCsvImporterTest {
 		}
 	}
 
+	@Test
+	public void testReadStream() throws IOException {
+		byte[] bytes = readFile("importertest.csv");
+		assertEquals(7, importer.countLines(new ByteArrayInputStream(bytes)));
+
+		try (Stream<String[]> rows = importer.readCsvFile(new ByteArrayInputStream(bytes), ";", "'")) {
+			PersonDTO dto = importer.processRow(0, rows.findFirst().get(), PersonDTO.class);
+			assertEquals("Bas", dto.getName());
+		}
+	}
+
 	private byte[] readFile(String fileName) throws IOException {
 		return FileUtils.readFileToByteArray(new File("src/test/resources/" + fileName));
 	}
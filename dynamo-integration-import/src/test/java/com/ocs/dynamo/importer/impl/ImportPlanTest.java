@@ -0,0 +1,68 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package com.ocs.dynamo.importer.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.ocs.dynamo.importer.impl.ImportPlan.ImportStep;
+import com.ocs.dynamo.importer.impl.ImportPlan.ValueType;
+
+public class ImportPlanTest {
+
+	@Test
+	public void testPlan() {
+		ImportPlan<PersonDTO> plan = ImportPlan.forClass(PersonDTO.class);
+
+		// the plan is only compiled once
+		assertSame(plan, ImportPlan.forClass(PersonDTO.class));
+
+		// the steps are ordered by field index
+		ImportStep[] steps = plan.getSteps();
+		assertEquals(9, steps.length);
+		for (int i = 0; i < steps.length; i++) {
+			assertEquals(i, steps[i].getField().index());
+		}
+
+		assertEquals("name", steps[0].getProperty());
+		assertEquals(ValueType.STRING, steps[0].getValueType());
+		assertEquals(ValueType.INTEGER, steps[1].getValueType());
+		assertEquals(ValueType.BIG_DECIMAL, steps[2].getValueType());
+		assertEquals(ValueType.ENUM, steps[4].getValueType());
+		assertEquals(ValueType.BOOLEAN, steps[6].getValueType());
+		assertEquals(ValueType.DATE, steps[7].getValueType());
+		assertEquals(ValueType.DOUBLE, steps[8].getValueType());
+
+		PersonDTO dto = plan.newInstance();
+		assertNotNull(dto);
+		steps[0].setValue(dto, "Bob");
+		assertEquals("Bob", dto.getName());
+	}
+
+	@Test
+	public void testProcessRow() {
+		BaseCsvImporter importer = new BaseCsvImporter();
+		PersonDTO dto = importer.processRow(3,
+				new String[] { "Kevin", "4", "", "abc", "v", "0.5", "false", "01-02-2020", "7.5" }, PersonDTO.class);
+		assertEquals(3, dto.getRowNum());
+		assertEquals("Kevin", dto.getName());
+		assertEquals(4, dto.getNumber().intValue());
+		assertEquals(1.0, dto.getFactor().doubleValue(), 0.001);
+		assertEquals(PersonDTO.Gender.V, dto.getGender());
+		assertEquals(7.5, dto.getRating(), 0.001);
+	}
+}
@@ -1,13 +1,17 @@
 package com.ocs.dynamo.importer.template;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import com.ocs.dynamo.exception.OCSImportException;
 import com.ocs.dynamo.importer.impl.BaseCsvImporter;
 import com.ocs.dynamo.importer.impl.BaseTextImporter;
 import com.ocs.dynamo.service.MessageService;
@@ -120,4 +124,50 @@ public class TextImportTemplateTest extends BaseMockitoTest {
         assertEquals(1, errors.size());
     }
 
+    @Test
+    public void testStreaming() {
+        List<String> errors = new ArrayList<>();
+
+        TextImportTemplate<Integer, TestDTO> template = new TextImportTemplate<Integer, TestDTO>(messageService, errors, false) {
+
+            @Override
+            protected TestDTO process(int rowNum, String[] row) {
+                return importer.processRow(rowNum, row, TestDTO.class);
+            }
+
+            @Override
+            protected boolean isAppropriateRow(String[] line) {
+                return true;
+            }
+
+            @Override
+            protected Integer getKeyFromRow(TestDTO t) {
+                return null;
+            }
+        };
+
+        Stream<String[]> rows = Stream.of(new String[] { "name", "number" }, new String[] { "1", "Kevin" },
+                new String[] { "a", "Stuart" }, new String[] { "3", "Bob" }, new String[] { "4", "Dave" });
+
+        // the results are handed over in batches
+        List<Integer> batchSizes = new ArrayList<>();
+        long count = template.execute(rows, 2, batch -> batchSizes.add(batch.size()));
+        assertEquals(3L, count);
+        assertEquals(List.of(2, 1), batchSizes);
+
+        // conversion error reported
+        assertEquals(1, errors.size());
+        assertEquals(3, importer.countLines(new ByteArrayInputStream("a;b\r\nc;d\ne;f".getBytes())));
+
+        // the rows of a CSV file are only parsed when there are quoted values
+        assertEquals(3, importer.countRows("a;b\r\nc;d\ne;f".getBytes(), 0));
+        assertEquals(2, importer.countRows("a;\"b\nc\"\ne;f".getBytes(), 0));
+
+        // the batch size must be positive
+        assertThrows(OCSImportException.class, () -> template.execute(Stream.empty(), 0, batch -> {
+        }));
+        assertThrows(OCSImportException.class, () -> template.execute(Stream.empty(), -1, batch -> {
+        }));
+    }
+
 }